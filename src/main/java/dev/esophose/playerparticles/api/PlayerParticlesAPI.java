@@ -16,6 +16,7 @@ import dev.esophose.playerparticles.particles.ParticlePair;
 import dev.esophose.playerparticles.styles.ParticleStyle;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
@@ -61,6 +62,7 @@ public final class PlayerParticlesAPI {
 
     /**
      * Gets a PPlayer from their UUID
+     * This is a keyed lookup and is safe to call from frequently fired events
      *
      * @param uuid The UUID of the PPlayer
      * @return The PPlayer, or null if not found
@@ -927,17 +929,21 @@ public final class PlayerParticlesAPI {
         DataManager dataManager = this.playerParticles.getManager(DataManager.class);
         ParticleManager particleManager = this.playerParticles.getManager(ParticleManager.class);
 
+        Map<UUID, Set<Integer>> removedIds = new HashMap<>();
+        for (FixedParticleEffect fixedEffect : particleManager.getFixedEffectIndex().getInRange(location, radius))
+            removedIds.computeIfAbsent(fixedEffect.getOwnerUniqueId(), k -> new HashSet<>()).add(fixedEffect.getId());
+
         int removedAmount = 0;
-        for (PPlayer pplayer : particleManager.getPPlayers()) {
-            Set<Integer> removedIds = new HashSet<>();
-            for (FixedParticleEffect fixedEffect : pplayer.getFixedParticles())
-                if (fixedEffect.getLocation().getWorld() == location.getWorld() && fixedEffect.getLocation().distance(location) <= radius)
-                    removedIds.add(fixedEffect.getId());
-            for (int id : removedIds) {
+        for (Map.Entry<UUID, Set<Integer>> entry : removedIds.entrySet()) {
+            PPlayer pplayer = particleManager.getPPlayer(entry.getKey()); // Owners that only have their fixed effects loaded are included
+            if (pplayer == null)
+                continue;
+
+            for (int id : entry.getValue()) {
                 dataManager.removeFixedEffect(pplayer.getUniqueId(), id);
                 pplayer.removeFixedEffect(id);
             }
-            removedAmount += removedIds.size();
+            removedAmount += entry.getValue().size();
         }
 
         return removedAmount;
@@ -1,7 +1,9 @@
 package dev.esophose.playerparticles.database;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 public abstract class DataMigration {
 
@@ -13,6 +15,7 @@ public abstract class DataMigration {
 
     /**
      * Migrates the database to this migration stage
+     * Migrations must be able to run again if they were interrupted before the migration version was updated
      *
      * @param connector The connector for the database
      * @param connection The connection to the database
@@ -28,4 +31,57 @@ public abstract class DataMigration {
         return this.revision;
     }
 
+    /**
+     * Checks if a table exists
+     *
+     * @param connector The connector for the database
+     * @param connection The connection to the database
+     * @param table The name of the table
+     * @return true if the table exists, otherwise false
+     * @throws SQLException If the tables could not be read
+     */
+    protected boolean tableExists(DatabaseConnector connector, Connection connection, String table) throws SQLException {
+        String query;
+        if (connector instanceof SQLiteConnector) {
+            query = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        } else {
+            query = "SHOW TABLES LIKE ?";
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, table);
+            return statement.executeQuery().next();
+        }
+    }
+
+    /**
+     * Creates an index if an index with the same name doesn't already exist on the table
+     *
+     * @param connector The connector for the database
+     * @param connection The connection to the database
+     * @param name The name of the index
+     * @param table The name of the table to index
+     * @param columns The columns to index, separated by commas
+     * @throws SQLException If the index could not be created
+     */
+    protected void createIndex(DatabaseConnector connector, Connection connection, String name, String table, String columns) throws SQLException {
+        if (connector instanceof SQLiteConnector) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")");
+            }
+            return;
+        }
+
+        // MySQL doesn't support IF NOT EXISTS for indexes
+        try (PreparedStatement statement = connection.prepareStatement("SHOW INDEX FROM " + table + " WHERE Key_name = ?")) {
+            statement.setString(1, name);
+            if (statement.executeQuery().next())
+                return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+        }
+    }
+
 }
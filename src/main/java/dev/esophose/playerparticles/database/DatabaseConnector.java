@@ -24,6 +24,16 @@ public interface DatabaseConnector {
      */
     void connect(ConnectionCallback callback);
 
+    /**
+     * Executes a callback that only reads from the database
+     * Connectors may run reads on a separate connection from writes, by default the same connection is used
+     *
+     * @param callback The callback to execute once the connection is retrieved
+     */
+    default void read(ConnectionCallback callback) {
+        this.connect(callback);
+    }
+
     /**
      * Wraps a connection in a callback which will automagically handle catching sql errors
      */
@@ -0,0 +1,318 @@
+package dev.esophose.playerparticles.database;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs database tasks on a fixed number of threads, sized to the number of connections available.
+ * Tasks wait in a bounded queue, the time they spend waiting and running is tracked so database load can be monitored.
+ * Tasks that must not be dropped wait in a single overflow lane while the queue is full, and are moved into the queue
+ * as it frees up. Every task is either run or cancelled, tasks that never get to run when the executor shuts down
+ * have their cancel callback run instead.
+ */
+public class DatabaseExecutor {
+
+    private final Plugin plugin;
+    private final ThreadPoolExecutor executor;
+    private final Queue<TimedTask> overflow;
+
+    private final LongAdder completedTasks;
+    private final LongAdder rejectedTasks;
+    private final LongAdder totalWaitTime;
+    private final LongAdder totalExecutionTime;
+    private final AtomicLong maxWaitTime;
+    private final AtomicLong maxExecutionTime;
+
+    /**
+     * Creates a new DatabaseExecutor
+     *
+     * @param plugin The plugin that owns the executor
+     * @param threads The number of tasks that can run at once
+     * @param queueSize The number of tasks that can wait to run before the queue is full
+     */
+    public DatabaseExecutor(Plugin plugin, int threads, int queueSize) {
+        this.plugin = plugin;
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> new Thread(runnable, "PlayerParticles-Database-" + threadId.getAndIncrement()));
+        this.executor.prestartAllCoreThreads();
+        this.overflow = new ArrayDeque<>();
+
+        this.completedTasks = new LongAdder();
+        this.rejectedTasks = new LongAdder();
+        this.totalWaitTime = new LongAdder();
+        this.totalExecutionTime = new LongAdder();
+        this.maxWaitTime = new AtomicLong();
+        this.maxExecutionTime = new AtomicLong();
+    }
+
+    /**
+     * Runs a task that must not be dropped
+     * If the queue is full, the task waits in the overflow lane until there is room
+     *
+     * @param task The task to run
+     */
+    public void execute(Runnable task) {
+        this.execute(task, null);
+    }
+
+    /**
+     * Runs a task that must not be dropped
+     * If the queue is full, the task waits in the overflow lane until there is room
+     *
+     * @param task The task to run
+     * @param onCancel The callback to run instead if the executor shuts down before the task runs, may be null
+     */
+    public void execute(Runnable task, Runnable onCancel) {
+        TimedTask timedTask = new TimedTask(task, onCancel);
+        synchronized (this.overflow) {
+            // Tasks already waiting go first, so must-run tasks keep their order
+            if (this.overflow.isEmpty() && this.submit(timedTask))
+                return;
+
+            this.overflow.add(timedTask);
+        }
+
+        this.drainOverflow();
+    }
+
+    /**
+     * Runs a task if there is room in the queue
+     *
+     * @param task The task to run
+     * @return true if the task was queued, false if the queue is full or the executor has shut down
+     */
+    public boolean tryExecute(Runnable task) {
+        return this.tryExecute(task, null);
+    }
+
+    /**
+     * Runs a task if there is room in the queue
+     *
+     * @param task The task to run
+     * @param onCancel The callback to run instead if the executor shuts down before the task runs, may be null
+     * @return true if the task was queued, false if the queue is full or the executor has shut down
+     */
+    public boolean tryExecute(Runnable task, Runnable onCancel) {
+        return this.submit(new TimedTask(task, onCancel));
+    }
+
+    /**
+     * Stops accepting new tasks and waits for queued tasks to finish
+     * Tasks still waiting in the overflow lane, or that didn't start before the wait timed out, are cancelled
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+        this.drainOverflow(); // Cancels everything in the overflow lane now that the executor is shut down
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS))
+                this.plugin.getLogger().warning("Timed out waiting for " + this.executor.getQueue().size() + " database tasks to finish.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Runnable> cancelled = this.executor.shutdownNow();
+        for (Runnable task : cancelled)
+            ((TimedTask) task).cancel();
+        if (!cancelled.isEmpty())
+            this.plugin.getLogger().warning("Cancelled " + cancelled.size() + " database tasks that did not get to run.");
+    }
+
+    /**
+     * Queues a task on the executor
+     *
+     * @param task The task to queue
+     * @return true if the task was queued, false if the queue is full or the executor has shut down
+     */
+    private boolean submit(TimedTask task) {
+        try {
+            this.executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            this.rejectedTasks.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Moves tasks from the overflow lane into the queue while there is room, or cancels them if the executor has shut down
+     * Called whenever a task is added to the overflow lane and whenever a task finishes, so the lane never stalls
+     */
+    private void drainOverflow() {
+        synchronized (this.overflow) {
+            TimedTask task;
+            while ((task = this.overflow.peek()) != null) {
+                if (this.executor.isShutdown()) {
+                    task.cancel();
+                } else if (!this.executor.getQueue().offer(task)) {
+                    return;
+                }
+
+                this.overflow.poll();
+            }
+        }
+    }
+
+    /**
+     * @return The number of tasks waiting to run
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * @return The number of tasks waiting in the overflow lane for room in the queue
+     */
+    public int getOverflowDepth() {
+        synchronized (this.overflow) {
+            return this.overflow.size();
+        }
+    }
+
+    /**
+     * @return The number of tasks currently running
+     */
+    public int getActiveTasks() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     * @return The number of tasks that have finished running
+     */
+    public long getCompletedTasks() {
+        return this.completedTasks.sum();
+    }
+
+    /**
+     * @return The number of times a task could not be queued because the queue was full
+     */
+    public long getRejectedTasks() {
+        return this.rejectedTasks.sum();
+    }
+
+    /**
+     * @return The average time tasks waited in the queue and overflow lane before running, in milliseconds
+     */
+    public double getAverageWaitTime() {
+        long completed = this.completedTasks.sum();
+        return completed == 0 ? 0 : this.totalWaitTime.sum() / (double) completed / 1000000;
+    }
+
+    /**
+     * @return The longest time a task waited in the queue and overflow lane before running, in milliseconds
+     */
+    public double getMaxWaitTime() {
+        return this.maxWaitTime.get() / 1000000D;
+    }
+
+    /**
+     * @return The average time tasks took to run, in milliseconds
+     */
+    public double getAverageExecutionTime() {
+        long completed = this.completedTasks.sum();
+        return completed == 0 ? 0 : this.totalExecutionTime.sum() / (double) completed / 1000000;
+    }
+
+    /**
+     * @return The longest time a task took to run, in milliseconds
+     */
+    public double getMaxExecutionTime() {
+        return this.maxExecutionTime.get() / 1000000D;
+    }
+
+    /**
+     * What to do with writes that can be delayed when the queue is full
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Keep the writes queued in memory so they combine with later changes, and try again later
+         */
+        COALESCE,
+
+        /**
+         * Wait in the overflow lane for room in the queue before writing
+         */
+        DELAY,
+
+        /**
+         * Keep the writes queued in memory like COALESCE, and turn away new loads until there is room in the queue
+         */
+        REJECT;
+
+        /**
+         * Gets a policy by name, ignoring case
+         *
+         * @param name The name of the policy
+         * @return The policy, or COALESCE if no policy has the given name
+         */
+        public static BackpressurePolicy fromName(String name) {
+            for (BackpressurePolicy policy : values())
+                if (policy.name().equalsIgnoreCase(name))
+                    return policy;
+            return COALESCE;
+        }
+    }
+
+    /**
+     * Wraps a task to record how long it waited and ran for
+     */
+    private class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final Runnable onCancel;
+        private final long queuedAt;
+
+        private TimedTask(Runnable task, Runnable onCancel) {
+            this.task = task;
+            this.onCancel = onCancel;
+            this.queuedAt = System.nanoTime();
+        }
+
+        /**
+         * Runs the cancel callback of a task that will never run
+         */
+        private void cancel() {
+            if (this.onCancel == null)
+                return;
+
+            try {
+                this.onCancel.run();
+            } catch (Exception ex) {
+                DatabaseExecutor.this.plugin.getLogger().severe("An error occurred cancelling a database task: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            try {
+                this.task.run();
+            } catch (Exception ex) {
+                DatabaseExecutor.this.plugin.getLogger().severe("An error occurred running a database task: " + ex.getMessage());
+                ex.printStackTrace();
+            } finally {
+                long waitTime = startedAt - this.queuedAt;
+                long executionTime = System.nanoTime() - startedAt;
+                DatabaseExecutor.this.completedTasks.increment();
+                DatabaseExecutor.this.totalWaitTime.add(waitTime);
+                DatabaseExecutor.this.totalExecutionTime.add(executionTime);
+                DatabaseExecutor.this.maxWaitTime.accumulateAndGet(waitTime, Math::max);
+                DatabaseExecutor.this.maxExecutionTime.accumulateAndGet(executionTime, Math::max);
+                DatabaseExecutor.this.drainOverflow();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package dev.esophose.playerparticles.database;
+
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import dev.esophose.playerparticles.database.QueryCatalog.Query;
+import dev.esophose.playerparticles.util.UUIDUtils;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.bukkit.Chunk;
+
+/**
+ * Stores all of a player's data as a single {@link PlayerDocument} keyed by their UUID
+ * Every write reads the player's document, changes it, and writes it back
+ */
+public class DocumentPlayerDataStore extends SQLPlayerDataStore {
+
+    public DocumentPlayerDataStore(DatabaseConnector connector, QueryCatalog queries) {
+        super(connector, queries);
+    }
+
+    @Override
+    public Map<UUID, PlayerDocument> loadPlayers(List<UUID> playerUUIDs) throws StorageException {
+        return this.read((connection) -> {
+            Map<UUID, PlayerDocument> documents = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_PLAYER_DATA_IN) + inClause(playerUUIDs.size()))) {
+                setUUIDs(statement, playerUUIDs);
+
+                ResultSet result = statement.executeQuery();
+                while (result.next()) {
+                    UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("player_uuid"));
+                    documents.put(playerUUID, this.decodeDocument(playerUUID, result.getBytes("data")));
+                }
+            }
+            return documents;
+        });
+    }
+
+    @Override
+    public void forEachPlayer(PlayerConsumer consumer) throws StorageException {
+        this.read((connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_ALL_PLAYER_DATA))) {
+                statement.setFetchSize(500);
+
+                ResultSet result = statement.executeQuery();
+                while (result.next()) {
+                    UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("player_uuid"));
+                    consumer.accept(playerUUID, this.decodeDocument(playerUUID, result.getBytes("data")));
+                }
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects() throws StorageException {
+        Map<UUID, List<FixedEffectData>> fixedEffects = new HashMap<>();
+        this.forEachPlayer((playerUUID, document) -> {
+            if (!document.getFixedEffects().isEmpty())
+                fixedEffects.put(playerUUID, new ArrayList<>(document.getFixedEffects()));
+        });
+        return fixedEffects;
+    }
+
+    /**
+     * Documents can't be looked up by location
+     */
+    @Override
+    public boolean canLoadFixedEffectsByChunk() {
+        return false;
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects(String world, List<Chunk> chunks) throws StorageException {
+        return PlayerDataStore.filterByChunk(this.loadFixedEffects(), world, chunks);
+    }
+
+    @Override
+    protected Writer createWriter(Connection connection) {
+        return new Writer() {
+            @Override
+            public void saveSettings(UUID playerUUID, boolean particlesHidden) throws StorageException {
+                DocumentPlayerDataStore.this.updateDocument(connection, playerUUID, document -> document.setParticlesHidden(particlesHidden));
+            }
+
+            @Override
+            public void saveGroup(UUID playerUUID, String name, List<ParticleData> particles) throws StorageException {
+                DocumentPlayerDataStore.this.updateDocument(connection, playerUUID, document -> document.setGroup(name, particles));
+            }
+
+            @Override
+            public void removeGroup(UUID playerUUID, String name) throws StorageException {
+                DocumentPlayerDataStore.this.updateDocument(connection, playerUUID, document -> document.removeGroup(name));
+            }
+
+            @Override
+            public void saveFixedEffect(UUID playerUUID, FixedEffectData fixedEffect) throws StorageException {
+                DocumentPlayerDataStore.this.updateDocument(connection, playerUUID, document -> document.setFixedEffect(fixedEffect));
+            }
+
+            @Override
+            public void removeFixedEffect(UUID playerUUID, int id) throws StorageException {
+                DocumentPlayerDataStore.this.updateDocument(connection, playerUUID, document -> document.removeFixedEffect(id));
+            }
+
+            @Override
+            public void replacePlayer(UUID playerUUID, PlayerDocument document) throws StorageException {
+                execute(() -> DocumentPlayerDataStore.this.writeDocument(connection, playerUUID, document, DocumentPlayerDataStore.this.readDocument(connection, playerUUID) != null));
+            }
+        };
+    }
+
+    /**
+     * Reads a player's document, applies a change to it, then writes it back
+     * A document that doesn't exist yet is created
+     *
+     * @param connection The connection to use
+     * @param playerUUID The player the document belongs to
+     * @param change The change to apply to the document
+     * @throws StorageException If the document could not be read or written
+     */
+    private void updateDocument(Connection connection, UUID playerUUID, Consumer<PlayerDocument> change) throws StorageException {
+        execute(() -> {
+            PlayerDocument document = this.readDocument(connection, playerUUID);
+            boolean exists = document != null;
+            if (!exists)
+                document = new PlayerDocument();
+            change.accept(document);
+
+            this.writeDocument(connection, playerUUID, document, exists);
+        });
+    }
+
+    private PlayerDocument readDocument(Connection connection, UUID playerUUID) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_PLAYER_DATA))) {
+            statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+
+            ResultSet result = statement.executeQuery();
+            return result.next() ? this.decodeDocument(playerUUID, result.getBytes("data")) : null;
+        }
+    }
+
+    private void writeDocument(Connection connection, UUID playerUUID, PlayerDocument document, boolean exists) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(this.queries.get(exists ? Query.UPDATE_PLAYER_DATA : Query.INSERT_PLAYER_DATA))) {
+            statement.setBytes(1, document.encode());
+            statement.setBytes(2, UUIDUtils.toBytes(playerUUID));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Decodes a player's document
+     *
+     * @param playerUUID The player the document belongs to
+     * @param data The encoded document
+     * @return The decoded document
+     * @throws SQLException If the document could not be decoded
+     */
+    private PlayerDocument decodeDocument(UUID playerUUID, byte[] data) throws SQLException {
+        try {
+            return PlayerDocument.decode(data);
+        } catch (IOException ex) {
+            throw new SQLException("Unable to read the player data of " + playerUUID, ex);
+        }
+    }
+
+}
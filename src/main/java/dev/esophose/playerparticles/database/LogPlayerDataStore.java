@@ -0,0 +1,616 @@
+package dev.esophose.playerparticles.database;
+
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.bukkit.Chunk;
+
+/**
+ * Stores player data in an append-only log file on the local disk that is mapped into memory.
+ * Each batch of writes is appended as a single checksummed record holding the new {@link PlayerDocument} of every
+ * player it changed, and an in-memory index points to the latest document of each player, so loading a player
+ * is a lookup in memory rather than a query.
+ * <p>
+ * Documents that have been replaced stay in the log until it is compacted into a new generation, which happens
+ * once the log holds more replaced documents than live ones. A record that was only partly written before a crash
+ * fails its checksum when the log is opened, and it is ignored along with anything after it.
+ */
+public class LogPlayerDataStore implements PlayerDataStore {
+
+    private static final int MAGIC = 0x50504C47; // PPLG
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8; // Length and checksum of the record
+    private static final int ENTRY_HEADER_SIZE = 20; // UUID and length of the document
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final long MIN_COMPACTION_GARBAGE = 1 << 20;
+    private static final int COMPACTION_BATCH_SIZE = 500;
+
+    private static final String FILE_PREFIX = "players-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String IMPORTED_FILE = "imported";
+
+    private final File directory;
+    private final Logger logger;
+    private final ReadWriteLock lock;
+    private final Map<UUID, Entry> index;
+
+    private int generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int size;
+    private long liveBytes;
+    private long garbageBytes;
+
+    /**
+     * Opens the log in a directory, creating it if it doesn't exist yet
+     *
+     * @param directory The directory holding the log
+     * @param logger The logger to report compaction failures to
+     * @throws IOException If the log could not be opened or is not a valid log
+     */
+    public LogPlayerDataStore(File directory, Logger logger) throws IOException {
+        this.directory = directory;
+        this.logger = logger;
+        this.lock = new ReentrantReadWriteLock();
+        this.index = new HashMap<>();
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Unable to create the directory " + directory);
+
+        // Only the newest generation is valid, anything else was left behind by a compaction that was interrupted
+        int newestGeneration = findNewestGeneration(directory);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                int generation = parseGeneration(file.getName());
+                if (file.getName().endsWith(TEMP_SUFFIX) || (generation != -1 && generation != newestGeneration))
+                    Files.deleteIfExists(file.toPath());
+            }
+        }
+
+        this.generation = Math.max(newestGeneration, 0);
+        this.open(this.getFile(this.generation));
+
+        if (this.shouldCompact()) {
+            try {
+                this.compact();
+            } catch (IOException ex) {
+                this.logger.warning("Unable to compact the player data log, it will be tried again after the next save: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks if a directory holds a log
+     *
+     * @param directory The directory to check
+     * @return true if the directory holds a log, otherwise false
+     */
+    public static boolean exists(File directory) {
+        return findNewestGeneration(directory) != -1;
+    }
+
+    /**
+     * @return true if the player data in the database has been completely copied into the log
+     */
+    public boolean isImported() {
+        return new File(this.directory, IMPORTED_FILE).exists();
+    }
+
+    /**
+     * Records that the player data in the database has been completely copied into the log
+     *
+     * @throws IOException If the marker could not be written
+     */
+    public void markImported() throws IOException {
+        File marker = new File(this.directory, IMPORTED_FILE);
+        if (!marker.exists())
+            Files.createFile(marker.toPath());
+    }
+
+    /**
+     * Checks if the log holds data for a player
+     *
+     * @param playerUUID The player to check
+     * @return true if the log has data for the player, otherwise false
+     */
+    public boolean hasPlayer(UUID playerUUID) {
+        this.lock.readLock().lock();
+        try {
+            return this.index.containsKey(playerUUID);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<UUID, PlayerDocument> loadPlayers(List<UUID> playerUUIDs) throws StorageException {
+        Map<UUID, PlayerDocument> documents = new LinkedHashMap<>();
+        this.lock.readLock().lock();
+        try {
+            for (UUID playerUUID : playerUUIDs) {
+                Entry entry = this.index.get(playerUUID);
+                if (entry != null)
+                    documents.put(playerUUID, this.readDocument(playerUUID, entry));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return documents;
+    }
+
+    /**
+     * The log is only locked while each player is read, so the consumer may write to this store
+     */
+    @Override
+    public void forEachPlayer(PlayerConsumer consumer) throws StorageException {
+        List<UUID> playerUUIDs;
+        this.lock.readLock().lock();
+        try {
+            playerUUIDs = new ArrayList<>(this.index.keySet());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        for (UUID playerUUID : playerUUIDs) {
+            PlayerDocument document;
+            this.lock.readLock().lock();
+            try {
+                Entry entry = this.index.get(playerUUID);
+                if (entry == null)
+                    continue;
+                document = this.readDocument(playerUUID, entry);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+
+            consumer.accept(playerUUID, document);
+        }
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects() throws StorageException {
+        Map<UUID, List<FixedEffectData>> fixedEffects = new HashMap<>();
+        this.lock.readLock().lock();
+        try {
+            for (Map.Entry<UUID, Entry> entry : this.index.entrySet()) {
+                PlayerDocument document = this.readDocument(entry.getKey(), entry.getValue());
+                if (!document.getFixedEffects().isEmpty())
+                    fixedEffects.put(entry.getKey(), new ArrayList<>(document.getFixedEffects()));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return fixedEffects;
+    }
+
+    /**
+     * Every document is already indexed in memory, so there is nothing to gain from loading by chunk
+     */
+    @Override
+    public boolean canLoadFixedEffectsByChunk() {
+        return false;
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects(String world, List<Chunk> chunks) throws StorageException {
+        return PlayerDataStore.filterByChunk(this.loadFixedEffects(), world, chunks);
+    }
+
+    /**
+     * Every batch is appended to the end of the log and compaction starts a new generation, so the position of the end of the log identifies its contents
+     */
+    @Override
+    public String getChangeMarker() {
+        this.lock.readLock().lock();
+        try {
+            return "log:" + this.generation + ":" + this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void write(List<Write> writes) throws StorageException {
+        this.lock.writeLock().lock();
+        try {
+            Map<UUID, PlayerDocument> changed = new LinkedHashMap<>();
+            Writer writer = new LogWriter(changed);
+            for (Write write : writes)
+                write.apply(writer);
+
+            if (changed.isEmpty())
+                return;
+
+            Map<UUID, byte[]> documents = new LinkedHashMap<>();
+            for (Map.Entry<UUID, PlayerDocument> entry : changed.entrySet())
+                documents.put(entry.getKey(), entry.getValue().encode());
+
+            try {
+                this.append(documents);
+            } catch (IOException ex) {
+                throw new StorageException("Unable to write to the player data log: " + ex.getMessage(), ex);
+            }
+
+            if (this.shouldCompact()) {
+                try {
+                    this.compact();
+                } catch (IOException ex) {
+                    this.logger.warning("Unable to compact the player data log, it will be tried again after the next save: " + ex.getMessage());
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.lock.writeLock().lock();
+        try {
+            this.buffer.force();
+            this.channel.close();
+        } catch (IOException ex) {
+            this.logger.severe("An error occurred closing the player data log: " + ex.getMessage());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps a log file into memory and rebuilds the index from it
+     * The current file is only replaced once the new file has been mapped and its header checked
+     *
+     * @param file The log file
+     * @throws IOException If the file could not be mapped or is not a valid log
+     */
+    private void open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer;
+        try {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE)
+                throw new IOException(file + " is too large to be mapped");
+
+            buffer = channel.map(MapMode.READ_WRITE, 0, Math.max(length, INITIAL_CAPACITY));
+            if (length < HEADER_SIZE) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.force();
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a player data log or was written by a newer version");
+            }
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        this.channel = channel;
+        this.buffer = buffer;
+        this.recover();
+    }
+
+    /**
+     * Reads every record in the log into the index, stopping at the first record that is incomplete or fails its checksum
+     */
+    private void recover() {
+        this.index.clear();
+        this.liveBytes = 0;
+        this.garbageBytes = 0;
+
+        int capacity = this.buffer.capacity();
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position <= capacity - RECORD_HEADER_SIZE) {
+            int length = this.buffer.getInt(position);
+            if (length < 4 || length > capacity - position - RECORD_HEADER_SIZE)
+                break;
+
+            ByteBuffer payload = this.slice(position + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != this.buffer.getInt(position + 4) || !this.indexEntries(payload, position + RECORD_HEADER_SIZE))
+                break;
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        this.size = position;
+    }
+
+    /**
+     * Adds the documents in a record to the index
+     *
+     * @param payload The payload of the record
+     * @param payloadPosition The position of the payload in the log
+     * @return true if the payload was well formed, otherwise false
+     */
+    private boolean indexEntries(ByteBuffer payload, int payloadPosition) {
+        int count = payload.getInt();
+        List<UUID> playerUUIDs = new ArrayList<>(count);
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (payload.remaining() < ENTRY_HEADER_SIZE)
+                return false;
+
+            UUID playerUUID = new UUID(payload.getLong(), payload.getLong());
+            int length = payload.getInt();
+            if (length < 0 || length > payload.remaining())
+                return false;
+
+            playerUUIDs.add(playerUUID);
+            entries.add(new Entry(payloadPosition + payload.position(), length));
+            payload.position(payload.position() + length);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Entry previous = this.index.put(playerUUIDs.get(i), entries.get(i));
+            if (previous != null) {
+                this.liveBytes -= previous.length + ENTRY_HEADER_SIZE;
+                this.garbageBytes += previous.length + ENTRY_HEADER_SIZE;
+            }
+            this.liveBytes += entries.get(i).length + ENTRY_HEADER_SIZE;
+        }
+
+        return true;
+    }
+
+    /**
+     * Appends a record to the end of the log, syncs it to disk, then points the index at the new documents
+     *
+     * @param documents The encoded documents to append, keyed by player
+     * @throws IOException If the log could not be grown or synced
+     */
+    private void append(Map<UUID, byte[]> documents) throws IOException {
+        byte[] record = encodeRecord(documents);
+        this.ensureCapacity((long) this.size + record.length + RECORD_HEADER_SIZE);
+
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(this.size);
+        view.put(record);
+        view.putInt(0); // Marks the end of the log, in case anything was left past it by an earlier crash
+        this.buffer.force();
+
+        this.indexEntries(this.slice(this.size + RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE), this.size + RECORD_HEADER_SIZE);
+        this.size += record.length;
+    }
+
+    /**
+     * Remaps the log with more room if it can't fit the given number of bytes, at least doubling its size
+     *
+     * @param required The number of bytes the log needs to fit
+     * @throws IOException If the log could not be remapped or would be too large to map
+     */
+    private void ensureCapacity(long required) throws IOException {
+        int capacity = this.buffer.capacity();
+        if (required <= capacity)
+            return;
+
+        if (required > Integer.MAX_VALUE)
+            throw new IOException("The player data log is full");
+
+        this.buffer.force();
+        this.buffer = this.channel.map(MapMode.READ_WRITE, 0, (int) Math.min(Integer.MAX_VALUE, Math.max(required, (long) capacity * 2)));
+    }
+
+    /**
+     * @return true if more of the log is taken up by replaced documents than live ones
+     */
+    private boolean shouldCompact() {
+        return this.garbageBytes >= MIN_COMPACTION_GARBAGE && this.garbageBytes > this.liveBytes;
+    }
+
+    /**
+     * Copies the latest document of every player into a new generation of the log and switches to it
+     * The new generation is written under a temporary name and only renamed once it is complete and synced,
+     * so an interrupted compaction leaves the current generation untouched
+     *
+     * @throws IOException If the new generation could not be written
+     */
+    private void compact() throws IOException {
+        File compactedFile = this.getFile(this.generation + 1);
+        File tempFile = new File(compactedFile.getPath() + TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header);
+
+            Map<UUID, byte[]> batch = new LinkedHashMap<>();
+            for (Map.Entry<UUID, Entry> entry : this.index.entrySet()) {
+                batch.put(entry.getKey(), this.readBytes(entry.getValue()));
+                if (batch.size() == COMPACTION_BATCH_SIZE) {
+                    channel.write(ByteBuffer.wrap(encodeRecord(batch)));
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty())
+                channel.write(ByteBuffer.wrap(encodeRecord(batch)));
+            channel.force(true);
+        }
+
+        Files.move(tempFile.toPath(), compactedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel previousChannel = this.channel;
+        File previousFile = this.getFile(this.generation);
+        this.open(compactedFile);
+        this.generation++;
+
+        previousChannel.close();
+        if (!previousFile.delete())
+            this.logger.fine("The previous player data log will be deleted the next time it is opened."); // Still mapped on some platforms
+    }
+
+    private PlayerDocument readDocument(UUID playerUUID, Entry entry) throws StorageException {
+        try {
+            return PlayerDocument.decode(this.readBytes(entry));
+        } catch (IOException ex) {
+            throw new StorageException("Unable to read the player data of " + playerUUID, ex);
+        }
+    }
+
+    private byte[] readBytes(Entry entry) {
+        byte[] data = new byte[entry.length];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(entry.position);
+        view.get(data);
+        return data;
+    }
+
+    private ByteBuffer slice(int position, int length) {
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+
+    private File getFile(int generation) {
+        return new File(this.directory, FILE_PREFIX + generation + FILE_SUFFIX);
+    }
+
+    /**
+     * Encodes a record holding a batch of documents, starting with the length and checksum of its payload
+     *
+     * @param documents The encoded documents, keyed by player
+     * @return The encoded record
+     */
+    private static byte[] encodeRecord(Map<UUID, byte[]> documents) {
+        int length = 4;
+        for (byte[] document : documents.values())
+            length += ENTRY_HEADER_SIZE + document.length;
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.position(RECORD_HEADER_SIZE);
+        record.putInt(documents.size());
+        for (Map.Entry<UUID, byte[]> entry : documents.entrySet()) {
+            record.putLong(entry.getKey().getMostSignificantBits());
+            record.putLong(entry.getKey().getLeastSignificantBits());
+            record.putInt(entry.getValue().length);
+            record.put(entry.getValue());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        record.putInt(0, length);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static int findNewestGeneration(File directory) {
+        int newestGeneration = -1;
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                newestGeneration = Math.max(newestGeneration, parseGeneration(file.getName()));
+        return newestGeneration;
+    }
+
+    /**
+     * Gets the generation of a complete log file from its name
+     *
+     * @param fileName The name of the file
+     * @return The generation, or -1 if the file is not a complete log file
+     */
+    private static int parseGeneration(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_SUFFIX))
+            return -1;
+
+        try {
+            return Integer.parseInt(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * The location of a player's latest document in the log
+     */
+    private static final class Entry {
+
+        private final int position;
+        private final int length;
+
+        private Entry(int position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+
+    }
+
+    /**
+     * Applies changes to copies of the players' documents, which are appended to the log together once every change is applied
+     */
+    private class LogWriter implements Writer {
+
+        private final Map<UUID, PlayerDocument> changed;
+
+        private LogWriter(Map<UUID, PlayerDocument> changed) {
+            this.changed = changed;
+        }
+
+        private PlayerDocument getDocument(UUID playerUUID) throws StorageException {
+            PlayerDocument document = this.changed.get(playerUUID);
+            if (document == null) {
+                Entry entry = LogPlayerDataStore.this.index.get(playerUUID);
+                document = entry == null ? new PlayerDocument() : LogPlayerDataStore.this.readDocument(playerUUID, entry);
+                this.changed.put(playerUUID, document);
+            }
+            return document;
+        }
+
+        @Override
+        public void saveSettings(UUID playerUUID, boolean particlesHidden) throws StorageException {
+            this.getDocument(playerUUID).setParticlesHidden(particlesHidden);
+        }
+
+        @Override
+        public void saveGroup(UUID playerUUID, String name, List<ParticleData> particles) throws StorageException {
+            this.getDocument(playerUUID).setGroup(name, particles);
+        }
+
+        @Override
+        public void removeGroup(UUID playerUUID, String name) throws StorageException {
+            this.getDocument(playerUUID).removeGroup(name);
+        }
+
+        @Override
+        public void saveFixedEffect(UUID playerUUID, FixedEffectData fixedEffect) throws StorageException {
+            this.getDocument(playerUUID).setFixedEffect(fixedEffect);
+        }
+
+        @Override
+        public void removeFixedEffect(UUID playerUUID, int id) throws StorageException {
+            this.getDocument(playerUUID).removeFixedEffect(id);
+        }
+
+        @Override
+        public void replacePlayer(UUID playerUUID, PlayerDocument document) {
+            this.changed.put(playerUUID, document);
+        }
+
+    }
+
+}
@@ -20,7 +20,25 @@ public class MySQLConnector implements DatabaseConnector {
         config.setJdbcUrl("jdbc:mysql://" + hostname + ":" + port + "/" + database + "?useSSL=" + useSSL);
         config.setUsername(username);
         config.setPassword(password);
+        config.setPoolName("PlayerParticles-MySQL");
         config.setMaximumPoolSize(Setting.MYSQL_CONNECTION_POOL_SIZE.getInt());
+        config.setMinimumIdle(Math.min(Setting.MYSQL_MINIMUM_IDLE_CONNECTIONS.getInt(), Setting.MYSQL_CONNECTION_POOL_SIZE.getInt()));
+        config.setConnectionTimeout(Setting.MYSQL_CONNECTION_TIMEOUT.getLong());
+        config.setMaxLifetime(Setting.MYSQL_MAX_LIFETIME.getLong());
+
+        // Every query is run as a prepared statement, let the driver and server reuse them instead of parsing them each time
+        if (Setting.MYSQL_CACHE_PREPARED_STATEMENTS.getBoolean()) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(Setting.MYSQL_PREPARED_STATEMENT_CACHE_SIZE.getInt()));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        }
+
+        config.addDataSourceProperty("rewriteBatchedStatements", String.valueOf(Setting.MYSQL_REWRITE_BATCHED_STATEMENTS.getBoolean()));
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
 
         try {
             this.hikari = new HikariDataSource(config);
@@ -0,0 +1,193 @@
+package dev.esophose.playerparticles.database;
+
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.bukkit.Chunk;
+
+/**
+ * Loads and saves player data, independent of how and where it is stored.
+ * Data is exchanged as the stored values in {@link PlayerDocument}s, so stores never need the effects, styles,
+ * or worlds the data refers to to be loaded.
+ * <p>
+ * All methods block until they finish and must not be called from the main thread.
+ */
+public interface PlayerDataStore {
+
+    /**
+     * Loads the data of a batch of players
+     *
+     * @param playerUUIDs The players to load
+     * @return The data of each player, players without any saved data are left out
+     * @throws StorageException If the players could not be loaded
+     */
+    Map<UUID, PlayerDocument> loadPlayers(List<UUID> playerUUIDs) throws StorageException;
+
+    /**
+     * Passes the data of every stored player to a consumer, one player at a time
+     *
+     * @param consumer The consumer to pass each player to
+     * @throws StorageException If the players could not be read, or the consumer failed
+     */
+    void forEachPlayer(PlayerConsumer consumer) throws StorageException;
+
+    /**
+     * Loads every stored fixed effect
+     *
+     * @return The fixed effects, grouped by owner
+     * @throws StorageException If the fixed effects could not be loaded
+     */
+    Map<UUID, List<FixedEffectData>> loadFixedEffects() throws StorageException;
+
+    /**
+     * @return true if {@link #loadFixedEffects(String, List)} can look up fixed effects by location without reading
+     * every fixed effect, otherwise false if it is cheaper to load them all at once
+     */
+    boolean canLoadFixedEffectsByChunk();
+
+    /**
+     * Loads the fixed effects in a list of chunks
+     *
+     * @param world The name of the world the chunks are in
+     * @param chunks The chunks to load the fixed effects of
+     * @return The fixed effects, grouped by owner
+     * @throws StorageException If the fixed effects could not be loaded
+     */
+    Map<UUID, List<FixedEffectData>> loadFixedEffects(String world, List<Chunk> chunks) throws StorageException;
+
+    /**
+     * Gets a value that changes every time a batch of writes is saved, used to tell if the stored data has changed
+     *
+     * @return The change marker
+     * @throws StorageException If the change marker could not be read
+     */
+    String getChangeMarker() throws StorageException;
+
+    /**
+     * Applies a batch of writes, either all of them are saved or none of them are
+     * Saving a batch changes the change marker
+     *
+     * @param writes The writes to apply, in order
+     * @throws StorageException If the writes could not be saved
+     */
+    void write(List<Write> writes) throws StorageException;
+
+    /**
+     * Closes the store, called once no more reads or writes will be made
+     */
+    void close();
+
+    /**
+     * Filters fixed effects down to the ones in a list of chunks, for stores that can't look fixed effects up by location
+     *
+     * @param fixedEffects The fixed effects to filter, grouped by owner
+     * @param world The name of the world the chunks are in
+     * @param chunks The chunks to keep the fixed effects of
+     * @return The fixed effects in the chunks, grouped by owner
+     */
+    static Map<UUID, List<FixedEffectData>> filterByChunk(Map<UUID, List<FixedEffectData>> fixedEffects, String world, List<Chunk> chunks) {
+        Set<Long> chunkKeys = new HashSet<>();
+        for (Chunk chunk : chunks)
+            chunkKeys.add(((long) chunk.getX() << 32) | (chunk.getZ() & 0xFFFFFFFFL));
+
+        Map<UUID, List<FixedEffectData>> filtered = new HashMap<>();
+        for (Map.Entry<UUID, List<FixedEffectData>> entry : fixedEffects.entrySet()) {
+            for (FixedEffectData fixedEffect : entry.getValue()) {
+                if (!fixedEffect.getWorld().equals(world))
+                    continue;
+
+                int chunkX = (int) Math.floor(fixedEffect.getX()) >> 4;
+                int chunkZ = (int) Math.floor(fixedEffect.getZ()) >> 4;
+                if (chunkKeys.contains(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL)))
+                    filtered.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(fixedEffect);
+            }
+        }
+
+        return filtered;
+    }
+
+    /**
+     * A single change to player data, applied through a {@link Writer} when the batch it is in is saved
+     */
+    @FunctionalInterface
+    interface Write {
+        void apply(Writer writer) throws StorageException;
+    }
+
+    /**
+     * Receives each player from {@link #forEachPlayer(PlayerConsumer)}
+     */
+    @FunctionalInterface
+    interface PlayerConsumer {
+        void accept(UUID playerUUID, PlayerDocument document) throws StorageException;
+    }
+
+    /**
+     * The changes that can be made to player data, only valid while the batch of writes it was given to is being applied
+     */
+    interface Writer {
+
+        /**
+         * Saves a player's settings
+         *
+         * @param playerUUID The player the settings belong to
+         * @param particlesHidden True if the particles should be hidden, otherwise False
+         * @throws StorageException If the settings could not be saved
+         */
+        void saveSettings(UUID playerUUID, boolean particlesHidden) throws StorageException;
+
+        /**
+         * Saves a group, replacing any group with the same name
+         *
+         * @param playerUUID The owner of the group
+         * @param name The name of the group
+         * @param particles The particles in the group
+         * @throws StorageException If the group could not be saved
+         */
+        void saveGroup(UUID playerUUID, String name, List<ParticleData> particles) throws StorageException;
+
+        /**
+         * Removes a group
+         *
+         * @param playerUUID The owner of the group
+         * @param name The name of the group
+         * @throws StorageException If the group could not be removed
+         */
+        void removeGroup(UUID playerUUID, String name) throws StorageException;
+
+        /**
+         * Saves a fixed effect, replacing any fixed effect with the same id
+         *
+         * @param playerUUID The owner of the fixed effect
+         * @param fixedEffect The fixed effect
+         * @throws StorageException If the fixed effect could not be saved
+         */
+        void saveFixedEffect(UUID playerUUID, FixedEffectData fixedEffect) throws StorageException;
+
+        /**
+         * Removes a fixed effect
+         *
+         * @param playerUUID The owner of the fixed effect
+         * @param id The id of the fixed effect
+         * @throws StorageException If the fixed effect could not be removed
+         */
+        void removeFixedEffect(UUID playerUUID, int id) throws StorageException;
+
+        /**
+         * Replaces all of a player's data, used to copy players between stores
+         *
+         * @param playerUUID The player
+         * @param document The player's data
+         * @throws StorageException If the data could not be saved
+         */
+        void replacePlayer(UUID playerUUID, PlayerDocument document) throws StorageException;
+
+    }
+
+}
@@ -0,0 +1,305 @@
+package dev.esophose.playerparticles.database;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All of the saved data of a single player, stored as one record when using the document storage mode.
+ * Values are kept exactly as they are stored so a document can be converted to and from the tables without
+ * needing the effects, styles, or worlds it refers to to be loaded.
+ * <p>
+ * Documents are encoded in a compact versioned binary format, the first byte of an encoded document is its version.
+ */
+public final class PlayerDocument {
+
+    /**
+     * The version of the encoding written by {@link #encode()}
+     */
+    public static final int VERSION = 1;
+
+    private boolean particlesHidden;
+    private final Map<String, List<ParticleData>> groups;
+    private final Map<Integer, FixedEffectData> fixedEffects;
+
+    /**
+     * Creates a new empty PlayerDocument
+     */
+    public PlayerDocument() {
+        this.particlesHidden = false;
+        this.groups = new LinkedHashMap<>();
+        this.fixedEffects = new LinkedHashMap<>();
+    }
+
+    public boolean isParticlesHidden() {
+        return this.particlesHidden;
+    }
+
+    public void setParticlesHidden(boolean particlesHidden) {
+        this.particlesHidden = particlesHidden;
+    }
+
+    /**
+     * @return The groups in this document, keyed by name
+     */
+    public Map<String, List<ParticleData>> getGroups() {
+        return this.groups;
+    }
+
+    /**
+     * Sets a group, replacing any group with the same name
+     *
+     * @param name The name of the group
+     * @param particles The particles in the group
+     */
+    public void setGroup(String name, List<ParticleData> particles) {
+        this.groups.put(name, particles);
+    }
+
+    public void removeGroup(String name) {
+        this.groups.remove(name);
+    }
+
+    /**
+     * @return The fixed effects in this document
+     */
+    public Collection<FixedEffectData> getFixedEffects() {
+        return this.fixedEffects.values();
+    }
+
+    /**
+     * Sets a fixed effect, replacing any fixed effect with the same id
+     *
+     * @param fixedEffect The fixed effect
+     */
+    public void setFixedEffect(FixedEffectData fixedEffect) {
+        this.fixedEffects.put(fixedEffect.getId(), fixedEffect);
+    }
+
+    public void removeFixedEffect(int id) {
+        this.fixedEffects.remove(id);
+    }
+
+    /**
+     * Encodes this document into its binary form
+     *
+     * @return The encoded document
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeBoolean(this.particlesHidden);
+
+            out.writeShort(this.groups.size());
+            for (Map.Entry<String, List<ParticleData>> group : this.groups.entrySet()) {
+                writeString(out, group.getKey());
+                out.writeShort(group.getValue().size());
+                for (ParticleData particle : group.getValue())
+                    particle.write(out);
+            }
+
+            out.writeShort(this.fixedEffects.size());
+            for (FixedEffectData fixedEffect : this.fixedEffects.values()) {
+                out.writeShort(fixedEffect.id);
+                writeString(out, fixedEffect.world);
+                out.writeDouble(fixedEffect.x);
+                out.writeDouble(fixedEffect.y);
+                out.writeDouble(fixedEffect.z);
+                fixedEffect.particle.write(out);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // Never thrown when writing to memory
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a document from its binary form
+     *
+     * @param data The encoded document
+     * @return The decoded document
+     * @throws IOException If the data is not a valid document or was written by a newer version
+     */
+    public static PlayerDocument decode(byte[] data) throws IOException {
+        PlayerDocument document = new PlayerDocument();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION)
+                throw new IOException("Unsupported player data version " + version);
+
+            document.particlesHidden = in.readBoolean();
+
+            int groupCount = in.readUnsignedShort();
+            for (int i = 0; i < groupCount; i++) {
+                String name = in.readUTF();
+                int particleCount = in.readUnsignedShort();
+                List<ParticleData> particles = new ArrayList<>(particleCount);
+                for (int j = 0; j < particleCount; j++)
+                    particles.add(ParticleData.read(in));
+                document.groups.put(name, particles);
+            }
+
+            int fixedEffectCount = in.readUnsignedShort();
+            for (int i = 0; i < fixedEffectCount; i++) {
+                int id = in.readShort();
+                String world = in.readUTF();
+                double x = in.readDouble(), y = in.readDouble(), z = in.readDouble();
+                document.setFixedEffect(new FixedEffectData(id, world, x, y, z, ParticleData.read(in)));
+            }
+        }
+
+        return document;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeUTF(value == null ? "" : value);
+    }
+
+    /**
+     * The stored values of a single particle
+     */
+    public static final class ParticleData {
+
+        private final int id;
+        private final String effect, style, itemMaterial, blockMaterial;
+        private final int note, r, g, b;
+
+        public ParticleData(int id, String effect, String style, String itemMaterial, String blockMaterial, int note, int r, int g, int b) {
+            this.id = id;
+            this.effect = effect;
+            this.style = style;
+            this.itemMaterial = itemMaterial;
+            this.blockMaterial = blockMaterial;
+            this.note = note;
+            this.r = r;
+            this.g = g;
+            this.b = b;
+        }
+
+        /**
+         * Reads a particle from the current row of a query on the particle table
+         *
+         * @param result The result positioned at the particle
+         * @param idColumn The name of the column holding the particle id
+         * @return The particle
+         * @throws SQLException If the row could not be read
+         */
+        public static ParticleData read(ResultSet result, String idColumn) throws SQLException {
+            return new ParticleData(result.getInt(idColumn), result.getString("effect"), result.getString("style"),
+                    result.getString("item_material"), result.getString("block_material"),
+                    result.getInt("note"), result.getInt("r"), result.getInt("g"), result.getInt("b"));
+        }
+
+        private static ParticleData read(DataInputStream in) throws IOException {
+            return new ParticleData(in.readShort(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readShort(), in.readShort(), in.readShort(), in.readShort());
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeShort(this.id);
+            writeString(out, this.effect);
+            writeString(out, this.style);
+            writeString(out, this.itemMaterial);
+            writeString(out, this.blockMaterial);
+            out.writeShort(this.note);
+            out.writeShort(this.r);
+            out.writeShort(this.g);
+            out.writeShort(this.b);
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getEffect() {
+            return this.effect;
+        }
+
+        public String getStyle() {
+            return this.style;
+        }
+
+        public String getItemMaterial() {
+            return this.itemMaterial;
+        }
+
+        public String getBlockMaterial() {
+            return this.blockMaterial;
+        }
+
+        public int getNote() {
+            return this.note;
+        }
+
+        public int getR() {
+            return this.r;
+        }
+
+        public int getG() {
+            return this.g;
+        }
+
+        public int getB() {
+            return this.b;
+        }
+
+    }
+
+    /**
+     * The stored values of a single fixed effect
+     */
+    public static final class FixedEffectData {
+
+        private final int id;
+        private final String world;
+        private final double x, y, z;
+        private final ParticleData particle;
+
+        public FixedEffectData(int id, String world, double x, double y, double z, ParticleData particle) {
+            this.id = id;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.particle = particle;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getWorld() {
+            return this.world;
+        }
+
+        public double getX() {
+            return this.x;
+        }
+
+        public double getY() {
+            return this.y;
+        }
+
+        public double getZ() {
+            return this.z;
+        }
+
+        public ParticleData getParticle() {
+            return this.particle;
+        }
+
+    }
+
+}
@@ -0,0 +1,193 @@
+package dev.esophose.playerparticles.database;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * The player data that was loaded when the plugin was last disabled, written to a file so it can be put back
+ * right away the next time the plugin starts instead of waiting for it to be loaded from the data store.
+ * <p>
+ * A snapshot records the change marker of the data store it was taken from, it is only valid while the data store
+ * still has the same change marker, meaning nothing has been saved to it since.
+ * <p>
+ * The keys of any changes that could not be saved before the plugin was disabled are recorded as well, the players
+ * they belong to are always written so the changes can be saved again on the next start.
+ */
+public final class PlayerSnapshot {
+
+    private static final int MAGIC = 0x5050534E; // PPSN
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12; // Magic, version, and checksum
+
+    private final String changeMarker;
+    private final Map<UUID, PlayerDocument> players;
+    private final Map<UUID, PlayerDocument> partialPlayers;
+    private final List<String> unsavedWrites;
+
+    /**
+     * Creates a new PlayerSnapshot
+     *
+     * @param changeMarker The change marker of the data store the snapshot was taken from
+     * @param players The players that were fully loaded
+     * @param partialPlayers The players that only had their fixed effects loaded
+     * @param unsavedWrites The keys of the changes that could not be saved to the data store
+     */
+    public PlayerSnapshot(String changeMarker, Map<UUID, PlayerDocument> players, Map<UUID, PlayerDocument> partialPlayers, List<String> unsavedWrites) {
+        this.changeMarker = changeMarker;
+        this.players = players;
+        this.partialPlayers = partialPlayers;
+        this.unsavedWrites = unsavedWrites;
+    }
+
+    public String getChangeMarker() {
+        return this.changeMarker;
+    }
+
+    /**
+     * @return The players that were fully loaded
+     */
+    public Map<UUID, PlayerDocument> getPlayers() {
+        return this.players;
+    }
+
+    /**
+     * @return The players that only had their fixed effects loaded
+     */
+    public Map<UUID, PlayerDocument> getPartialPlayers() {
+        return this.partialPlayers;
+    }
+
+    /**
+     * @return The keys of the changes that could not be saved to the data store
+     */
+    public List<String> getUnsavedWrites() {
+        return this.unsavedWrites;
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing the file only once the snapshot has been completely written
+     *
+     * @param file The file to write to
+     * @throws IOException If the snapshot could not be written
+     */
+    public void write(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(0); // Checksum, filled in below
+            writeString(out, this.changeMarker);
+            writePlayers(out, this.players);
+            writePlayers(out, this.partialPlayers);
+            out.writeInt(this.unsavedWrites.size());
+            for (String key : this.unsavedWrites)
+                writeString(out, key);
+        }
+
+        byte[] data = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data, HEADER_SIZE, data.length - HEADER_SIZE);
+        ByteBuffer.wrap(data).putInt(8, (int) crc.getValue());
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot from a file by mapping it into memory
+     *
+     * @param file The file to read
+     * @return The snapshot
+     * @throws IOException If the file could not be read, fails its checksum, or was written by another version
+     */
+    public static PlayerSnapshot read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+                throw new IOException("The snapshot is not valid");
+
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("The snapshot was written by another version");
+
+            int checksum = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != checksum)
+                throw new IOException("The snapshot failed its checksum");
+
+            try {
+                String changeMarker = readString(buffer);
+                Map<UUID, PlayerDocument> players = readPlayers(buffer);
+                Map<UUID, PlayerDocument> partialPlayers = readPlayers(buffer);
+                int unsavedCount = buffer.getInt();
+                List<String> unsavedWrites = new ArrayList<>(unsavedCount);
+                for (int i = 0; i < unsavedCount; i++)
+                    unsavedWrites.add(readString(buffer));
+                return new PlayerSnapshot(changeMarker, players, partialPlayers, unsavedWrites);
+            } catch (BufferUnderflowException ex) {
+                throw new IOException("The snapshot is incomplete", ex);
+            }
+        }
+    }
+
+    private static void writePlayers(DataOutputStream out, Map<UUID, PlayerDocument> players) throws IOException {
+        out.writeInt(players.size());
+        for (Map.Entry<UUID, PlayerDocument> entry : players.entrySet()) {
+            byte[] document = entry.getValue().encode();
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            out.writeInt(document.length);
+            out.write(document);
+        }
+    }
+
+    private static Map<UUID, PlayerDocument> readPlayers(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        Map<UUID, PlayerDocument> players = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            UUID playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+            byte[] document = new byte[buffer.getInt()];
+            buffer.get(document);
+            players.put(playerUUID, PlayerDocument.decode(document));
+        }
+        return players;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
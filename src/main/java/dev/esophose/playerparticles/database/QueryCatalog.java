@@ -0,0 +1,86 @@
+package dev.esophose.playerparticles.database;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds every query DataManager runs with the table prefix already filled in.
+ * A new catalog is built each time the database connection is reloaded, so queries are never rebuilt per call.
+ */
+public final class QueryCatalog {
+
+    private static final String PREFIX_PLACEHOLDER = "{prefix}";
+
+    private final Map<Query, String> queries;
+
+    /**
+     * Creates a new QueryCatalog
+     *
+     * @param tablePrefix The prefix of the tables in the database
+     */
+    public QueryCatalog(String tablePrefix) {
+        this.queries = new EnumMap<>(Query.class);
+        for (Query query : Query.values())
+            this.queries.put(query, query.template.replace(PREFIX_PLACEHOLDER, tablePrefix));
+    }
+
+    /**
+     * Gets a query with the table prefix filled in
+     *
+     * @param query The query to get
+     * @return The SQL of the query
+     */
+    public String get(Query query) {
+        return this.queries.get(query);
+    }
+
+    /**
+     * The queries used to load and save data, queries ending in IN are followed by a list of parameters when they are run
+     */
+    public enum Query {
+        SELECT_SETTINGS_IN("SELECT player_uuid, particles_hidden FROM {prefix}settings WHERE player_uuid IN "),
+        UPDATE_SETTINGS("UPDATE {prefix}settings SET particles_hidden = ? WHERE player_uuid = ?"),
+        INSERT_SETTINGS("INSERT INTO {prefix}settings (player_uuid, particles_hidden) VALUES (?, ?)"),
+
+        SELECT_ALL_PLAYERS("SELECT player_uuid FROM {prefix}settings UNION SELECT owner_uuid FROM {prefix}group UNION SELECT owner_uuid FROM {prefix}fixed"),
+
+        SELECT_GROUPS_IN("SELECT g.owner_uuid, g.name, p.particle_id, p.id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM {prefix}group g " +
+                         "LEFT JOIN {prefix}particle p ON p.group_id = g.group_id WHERE g.owner_uuid IN "),
+        SELECT_GROUP_PARTICLES("SELECT g.group_id, p.particle_id, p.id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM {prefix}group g " +
+                               "LEFT JOIN {prefix}particle p ON p.group_id = g.group_id WHERE g.owner_uuid = ? AND g.name = ?"),
+        INSERT_GROUP("INSERT INTO {prefix}group (owner_uuid, name) VALUES (?, ?)"),
+        DELETE_GROUP("DELETE FROM {prefix}group WHERE owner_uuid = ? AND name = ?"),
+        DELETE_GROUP_PARTICLES("DELETE FROM {prefix}particle WHERE group_id IN (SELECT group_id FROM {prefix}group WHERE owner_uuid = ? AND name = ?)"),
+
+        INSERT_GROUP_PARTICLE("INSERT INTO {prefix}particle (group_id, id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        UPDATE_PARTICLE("UPDATE {prefix}particle SET effect = ?, style = ?, item_material = ?, block_material = ?, note = ?, r = ?, g = ?, b = ? WHERE particle_id = ?"),
+        DELETE_PARTICLE("DELETE FROM {prefix}particle WHERE particle_id = ?"),
+
+        SELECT_FIXED_EFFECTS("SELECT f.owner_uuid, f.id AS f_id, f.world, f.xPos, f.yPos, f.zPos, p.id AS p_id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM {prefix}fixed f " +
+                             "JOIN {prefix}particle p ON f.particle_id = p.particle_id"),
+        SELECT_FIXED_EFFECTS_IN(SELECT_FIXED_EFFECTS.template + " WHERE f.owner_uuid IN "),
+        SELECT_FIXED_EFFECTS_IN_CHUNK(SELECT_FIXED_EFFECTS.template + " WHERE f.world = ? AND f.xPos >= ? AND f.xPos < ? AND f.zPos >= ? AND f.zPos < ?"),
+        INSERT_FIXED_EFFECT_PARTICLE("INSERT INTO {prefix}particle (id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        INSERT_FIXED_EFFECT("INSERT INTO {prefix}fixed (owner_uuid, id, particle_id, world, xPos, yPos, zPos) VALUES (?, ?, ?, ?, ?, ?, ?)"),
+        DELETE_FIXED_EFFECT("DELETE FROM {prefix}fixed WHERE owner_uuid = ? AND id = ?"),
+        DELETE_FIXED_EFFECT_PARTICLE("DELETE FROM {prefix}particle WHERE particle_id IN (SELECT particle_id FROM {prefix}fixed WHERE owner_uuid = ? AND id = ?)"),
+
+        SELECT_PLAYER_DATA("SELECT data FROM {prefix}player_data WHERE player_uuid = ?"),
+        SELECT_PLAYER_DATA_IN("SELECT player_uuid, data FROM {prefix}player_data WHERE player_uuid IN "),
+        SELECT_ALL_PLAYER_DATA("SELECT player_uuid, data FROM {prefix}player_data"),
+        UPDATE_PLAYER_DATA("UPDATE {prefix}player_data SET data = ? WHERE player_uuid = ?"),
+        INSERT_PLAYER_DATA("INSERT INTO {prefix}player_data (data, player_uuid) VALUES (?, ?)"),
+
+        SELECT_STORAGE_MODE("SELECT mode FROM {prefix}storage_mode"),
+
+        SELECT_CHANGE_MARKER("SELECT marker FROM {prefix}change_marker"),
+        UPDATE_CHANGE_MARKER("UPDATE {prefix}change_marker SET marker = ?");
+
+        private final String template;
+
+        Query(String template) {
+            this.template = template;
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package dev.esophose.playerparticles.database;
+
+import dev.esophose.playerparticles.database.QueryCatalog.Query;
+import dev.esophose.playerparticles.util.UUIDUtils;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link PlayerDataStore} backed by a SQL database through a {@link DatabaseConnector}
+ * Each batch of writes is applied in a single transaction, along with a new random change marker
+ */
+public abstract class SQLPlayerDataStore implements PlayerDataStore {
+
+    protected final DatabaseConnector connector;
+    protected final QueryCatalog queries;
+
+    /**
+     * Creates a new SQLPlayerDataStore
+     *
+     * @param connector The connector to the database, owned by the caller
+     * @param queries The queries for the database
+     */
+    protected SQLPlayerDataStore(DatabaseConnector connector, QueryCatalog queries) {
+        this.connector = connector;
+        this.queries = queries;
+    }
+
+    @Override
+    public void write(List<Write> writes) throws StorageException {
+        AtomicBoolean committed = new AtomicBoolean();
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        this.connector.connect((connection) -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                Writer writer = this.createWriter(connection);
+                for (Write write : writes)
+                    write.apply(writer);
+
+                try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.UPDATE_CHANGE_MARKER))) {
+                    statement.setString(1, UUID.randomUUID().toString());
+                    statement.executeUpdate();
+                }
+
+                connection.commit();
+                committed.set(true);
+            } catch (SQLException | StorageException ex) {
+                connection.rollback();
+                error.set(ex);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+
+        if (!committed.get())
+            throw new StorageException("Unable to save " + writes.size() + " changes to player data", error.get());
+    }
+
+    @Override
+    public String getChangeMarker() throws StorageException {
+        return this.read((connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_CHANGE_MARKER))) {
+                ResultSet result = statement.executeQuery();
+
+                // Without a marker a snapshot could never be told apart from the current data, so it must not be trusted
+                if (!result.next())
+                    throw new StorageException("The change marker is missing from the database");
+                return result.getString("marker");
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        // The connector is closed by its owner
+    }
+
+    /**
+     * Creates a writer that applies changes using a connection
+     *
+     * @param connection The connection, already in a transaction
+     * @return The writer
+     */
+    protected abstract Writer createWriter(Connection connection);
+
+    /**
+     * Runs a read on the read connection of the database and returns its result
+     *
+     * @param callback The read to run, must not return null
+     * @param <T> The type of the result
+     * @return The result of the read
+     * @throws StorageException If the read failed or no connection was available
+     */
+    protected <T> T read(ReadCallback<T> callback) throws StorageException {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        this.connector.read((connection) -> {
+            try {
+                result.set(callback.read(connection));
+            } catch (SQLException | StorageException ex) {
+                error.set(ex);
+            }
+        });
+
+        if (result.get() == null)
+            throw new StorageException("Unable to read player data", error.get());
+        return result.get();
+    }
+
+    /**
+     * Runs a change to the database as part of a batch of writes
+     *
+     * @param change The change to run
+     * @throws StorageException If the change failed
+     */
+    protected static void execute(SQLChange change) throws StorageException {
+        try {
+            change.run();
+        } catch (SQLException ex) {
+            throw new StorageException("Unable to save player data: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Builds a list of parameters to follow a query ending in IN
+     *
+     * @param count The number of parameters
+     * @return The list of parameters
+     */
+    protected static String inClause(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    /**
+     * Binds player UUIDs to the parameters of a statement, starting at the first parameter
+     *
+     * @param statement The statement to bind the UUIDs to
+     * @param playerUUIDs The UUIDs to bind
+     * @throws SQLException If a parameter could not be set
+     */
+    protected static void setUUIDs(PreparedStatement statement, List<UUID> playerUUIDs) throws SQLException {
+        for (int i = 0; i < playerUUIDs.size(); i++)
+            statement.setBytes(i + 1, UUIDUtils.toBytes(playerUUIDs.get(i)));
+    }
+
+    @FunctionalInterface
+    protected interface ReadCallback<T> {
+        T read(Connection connection) throws SQLException, StorageException;
+    }
+
+    @FunctionalInterface
+    protected interface SQLChange {
+        void run() throws SQLException;
+    }
+
+}
@@ -4,17 +4,35 @@ import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.plugin.Plugin;
 
+/**
+ * Connects to a SQLite database in WAL mode.
+ * All writes are run one at a time on a single writer thread that owns the write connection,
+ * while reads use a separate connection so they never wait on a write in progress.
+ */
 public class SQLiteConnector implements DatabaseConnector {
 
+    private static final String WRITER_THREAD_NAME = "PlayerParticles-SQLite-Writer";
+
     private final Plugin plugin;
     private final String connectionString;
+    private final ExecutorService writer;
+    private final Object readLock;
     private Connection connection;
+    private Connection readConnection;
 
     public SQLiteConnector(Plugin plugin) {
         this.plugin = plugin;
         this.connectionString = "jdbc:sqlite:" + plugin.getDataFolder() + File.separator + plugin.getDescription().getName().toLowerCase() + ".db";
+        this.writer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, WRITER_THREAD_NAME));
+        this.readLock = new Object();
 
         try {
             Class.forName("org.sqlite.JDBC"); // This is required to put here for Spigot 1.10 and below for some reason
@@ -28,19 +46,79 @@ public class SQLiteConnector implements DatabaseConnector {
     }
 
     public void closeConnection() {
+        // Let any writes that are already submitted finish first
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
         try {
             if (this.connection != null) {
                 this.connection.close();
             }
+
+            synchronized (this.readLock) {
+                if (this.readConnection != null) {
+                    this.readConnection.close();
+                }
+            }
         } catch (SQLException ex) {
             this.plugin.getLogger().severe("An error occurred closing the SQLite database connection: " + ex.getMessage());
         }
     }
 
+    /**
+     * Runs the callback on the writer thread and waits for it to finish
+     *
+     * @param callback The callback to execute once the connection is retrieved
+     */
     public void connect(ConnectionCallback callback) {
+        if (Thread.currentThread().getName().equals(WRITER_THREAD_NAME)) {
+            this.write(callback);
+            return;
+        }
+
+        try {
+            this.writer.submit(() -> this.write(callback)).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException ex) {
+            this.plugin.getLogger().severe("An error occurred executing an SQLite query: " + ex.getMessage());
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void read(ConnectionCallback callback) {
+        synchronized (this.readLock) {
+            if (this.readConnection == null) {
+                try {
+                    this.readConnection = this.openConnection();
+                } catch (SQLException ex) {
+                    this.plugin.getLogger().severe("An error occurred retrieving the SQLite database connection: " + ex.getMessage());
+                }
+            }
+
+            try {
+                callback.accept(this.readConnection);
+            } catch (Exception ex) {
+                this.plugin.getLogger().severe("An error occurred executing an SQLite query: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Executes a callback with the write connection, must only be called from the writer thread
+     *
+     * @param callback The callback to execute
+     */
+    private void write(ConnectionCallback callback) {
         if (this.connection == null) {
             try {
-                this.connection = DriverManager.getConnection(this.connectionString);
+                this.connection = this.openConnection();
             } catch (SQLException ex) {
                 this.plugin.getLogger().severe("An error occurred retrieving the SQLite database connection: " + ex.getMessage());
             }
@@ -54,5 +132,23 @@ public class SQLiteConnector implements DatabaseConnector {
         }
     }
 
-}
+    /**
+     * Opens a new connection to the database with WAL mode enabled.
+     * In WAL mode only commits need to be synced to disk and readers are not blocked by the writer.
+     *
+     * @return The new connection
+     * @throws SQLException If the connection could not be opened
+     */
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(this.connectionString);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+            statement.execute("PRAGMA cache_size = -16000");
+            statement.execute("PRAGMA busy_timeout = 5000");
+        }
 
+        return connection;
+    }
+
+}
@@ -0,0 +1,18 @@
+package dev.esophose.playerparticles.database;
+
+/**
+ * Thrown when a {@link PlayerDataStore} is unable to read or write player data
+ */
+public class StorageException extends Exception {
+
+    private static final long serialVersionUID = 4626383795021426207L;
+
+    public StorageException(String message) {
+        super(message);
+    }
+
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
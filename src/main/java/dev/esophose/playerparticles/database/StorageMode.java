@@ -0,0 +1,36 @@
+package dev.esophose.playerparticles.database;
+
+/**
+ * How and where player data is stored
+ */
+public enum StorageMode {
+
+    /**
+     * Settings, groups, particles, and fixed effects are each stored in their own table
+     */
+    TABLES,
+
+    /**
+     * All of a player's data is stored as a single {@link PlayerDocument} keyed by their UUID
+     */
+    DOCUMENT,
+
+    /**
+     * All of a player's data is stored as a single {@link PlayerDocument} in a log file on the local disk instead of the database
+     */
+    LOG;
+
+    /**
+     * Gets a storage mode by name, ignoring case
+     *
+     * @param name The name of the storage mode
+     * @return The storage mode, or TABLES if no storage mode has the given name
+     */
+    public static StorageMode fromName(String name) {
+        for (StorageMode mode : values())
+            if (mode.name().equalsIgnoreCase(name))
+                return mode;
+        return TABLES;
+    }
+
+}
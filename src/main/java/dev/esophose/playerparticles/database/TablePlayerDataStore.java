@@ -0,0 +1,428 @@
+package dev.esophose.playerparticles.database;
+
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import dev.esophose.playerparticles.database.QueryCatalog.Query;
+import dev.esophose.playerparticles.util.UUIDUtils;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Chunk;
+
+/**
+ * Stores settings, groups, particles, and fixed effects each in their own table
+ */
+public class TablePlayerDataStore extends SQLPlayerDataStore {
+
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    public TablePlayerDataStore(DatabaseConnector connector, QueryCatalog queries) {
+        super(connector, queries);
+    }
+
+    @Override
+    public Map<UUID, PlayerDocument> loadPlayers(List<UUID> playerUUIDs) throws StorageException {
+        return this.read((connection) -> this.readDocuments(connection, playerUUIDs));
+    }
+
+    @Override
+    public void forEachPlayer(PlayerConsumer consumer) throws StorageException {
+        List<UUID> playerUUIDs = this.read((connection) -> {
+            List<UUID> players = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_ALL_PLAYERS))) {
+                statement.setFetchSize(SCAN_BATCH_SIZE);
+
+                ResultSet result = statement.executeQuery();
+                while (result.next())
+                    players.add(UUIDUtils.fromBytes(result.getBytes("player_uuid")));
+            }
+            return players;
+        });
+
+        for (int i = 0; i < playerUUIDs.size(); i += SCAN_BATCH_SIZE) {
+            List<UUID> batch = playerUUIDs.subList(i, Math.min(i + SCAN_BATCH_SIZE, playerUUIDs.size()));
+            for (Map.Entry<UUID, PlayerDocument> entry : this.loadPlayers(batch).entrySet())
+                consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects() throws StorageException {
+        return this.read((connection) -> {
+            Map<UUID, List<FixedEffectData>> fixedEffects = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_FIXED_EFFECTS))) {
+                statement.setFetchSize(SCAN_BATCH_SIZE);
+
+                ResultSet result = statement.executeQuery();
+                while (result.next())
+                    this.readFixedEffect(result, fixedEffects);
+            }
+            return fixedEffects;
+        });
+    }
+
+    @Override
+    public boolean canLoadFixedEffectsByChunk() {
+        return true;
+    }
+
+    @Override
+    public Map<UUID, List<FixedEffectData>> loadFixedEffects(String world, List<Chunk> chunks) throws StorageException {
+        return this.read((connection) -> {
+            Map<UUID, List<FixedEffectData>> fixedEffects = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_FIXED_EFFECTS_IN_CHUNK))) {
+                for (Chunk chunk : chunks) {
+                    int minX = chunk.getX() << 4, minZ = chunk.getZ() << 4;
+                    statement.setString(1, world);
+                    statement.setDouble(2, minX);
+                    statement.setDouble(3, minX + 16);
+                    statement.setDouble(4, minZ);
+                    statement.setDouble(5, minZ + 16);
+
+                    ResultSet result = statement.executeQuery();
+                    while (result.next())
+                        this.readFixedEffect(result, fixedEffects);
+                }
+            }
+            return fixedEffects;
+        });
+    }
+
+    @Override
+    protected Writer createWriter(Connection connection) {
+        return new TableWriter(connection);
+    }
+
+    /**
+     * Reads the data of a batch of players from the tables
+     *
+     * @param connection The connection to use
+     * @param playerUUIDs The players to read
+     * @return The data of each player that has any saved data
+     * @throws SQLException If the players could not be read
+     */
+    private Map<UUID, PlayerDocument> readDocuments(Connection connection, List<UUID> playerUUIDs) throws SQLException {
+        Map<UUID, PlayerDocument> documents = new LinkedHashMap<>();
+        String inClause = inClause(playerUUIDs.size());
+
+        // Load settings
+        try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_SETTINGS_IN) + inClause)) {
+            setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("player_uuid"));
+                documents.computeIfAbsent(playerUUID, k -> new PlayerDocument()).setParticlesHidden(result.getBoolean("particles_hidden"));
+            }
+        }
+
+        // Load particle groups, groups without any particles are kept too
+        try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_GROUPS_IN) + inClause)) {
+            setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("owner_uuid"));
+                List<ParticleData> particles = documents.computeIfAbsent(playerUUID, k -> new PlayerDocument())
+                        .getGroups().computeIfAbsent(result.getString("name"), k -> new ArrayList<>());
+
+                result.getInt("particle_id");
+                if (!result.wasNull())
+                    particles.add(ParticleData.read(result, "id"));
+            }
+        }
+
+        // Load fixed effects
+        try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_FIXED_EFFECTS_IN) + inClause)) {
+            setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("owner_uuid"));
+                documents.computeIfAbsent(playerUUID, k -> new PlayerDocument()).setFixedEffect(this.readFixedEffect(result));
+            }
+        }
+
+        return documents;
+    }
+
+    /**
+     * Reads the fixed effect at the current row of a result from a fixed effect query and adds it to its owner
+     *
+     * @param result The result to read from
+     * @param fixedEffects The fixed effects read so far, grouped by owner
+     * @throws SQLException If the row could not be read
+     */
+    private void readFixedEffect(ResultSet result, Map<UUID, List<FixedEffectData>> fixedEffects) throws SQLException {
+        UUID playerUUID = UUIDUtils.fromBytes(result.getBytes("owner_uuid"));
+        fixedEffects.computeIfAbsent(playerUUID, k -> new ArrayList<>()).add(this.readFixedEffect(result));
+    }
+
+    private FixedEffectData readFixedEffect(ResultSet result) throws SQLException {
+        return new FixedEffectData(result.getInt("f_id"), result.getString("world"),
+                result.getDouble("xPos"), result.getDouble("yPos"), result.getDouble("zPos"), ParticleData.read(result, "p_id"));
+    }
+
+    /**
+     * Checks if a saved particle row differs from a particle
+     *
+     * @param result The ResultSet positioned at the saved particle
+     * @param particle The particle to compare against
+     * @return true if any saved value is different, otherwise false
+     * @throws SQLException If the row could not be read
+     */
+    private boolean isParticleChanged(ResultSet result, ParticleData particle) throws SQLException {
+        return !particle.getEffect().equals(result.getString("effect"))
+                || !particle.getStyle().equals(result.getString("style"))
+                || !particle.getItemMaterial().equals(result.getString("item_material"))
+                || !particle.getBlockMaterial().equals(result.getString("block_material"))
+                || particle.getNote() != result.getInt("note")
+                || particle.getR() != result.getInt("r")
+                || particle.getG() != result.getInt("g")
+                || particle.getB() != result.getInt("b");
+    }
+
+    /**
+     * Sets the stored values of a particle on consecutive parameters of a statement
+     *
+     * @param statement The statement
+     * @param index The index of the first parameter
+     * @param particle The particle
+     * @throws SQLException If a parameter could not be set
+     */
+    private void setParticleValues(PreparedStatement statement, int index, ParticleData particle) throws SQLException {
+        statement.setString(index, particle.getEffect());
+        statement.setString(index + 1, particle.getStyle());
+        statement.setString(index + 2, particle.getItemMaterial());
+        statement.setString(index + 3, particle.getBlockMaterial());
+        statement.setInt(index + 4, particle.getNote());
+        statement.setInt(index + 5, particle.getR());
+        statement.setInt(index + 6, particle.getG());
+        statement.setInt(index + 7, particle.getB());
+    }
+
+    /**
+     * Applies changes to the tables using a connection that is in a transaction
+     */
+    private class TableWriter implements Writer {
+
+        private final Connection connection;
+
+        private TableWriter(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void saveSettings(UUID playerUUID, boolean particlesHidden) throws StorageException {
+            execute(() -> {
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.UPDATE_SETTINGS))) {
+                    statement.setBoolean(1, particlesHidden);
+                    statement.setBytes(2, UUIDUtils.toBytes(playerUUID));
+
+                    if (statement.executeUpdate() > 0)
+                        return;
+                }
+
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.INSERT_SETTINGS))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setBoolean(2, particlesHidden);
+
+                    statement.executeUpdate();
+                }
+            });
+        }
+
+        /**
+         * Only the particles that were added, changed, or removed since the group was last saved are written
+         */
+        @Override
+        public void saveGroup(UUID playerUUID, String name, List<ParticleData> particles) throws StorageException {
+            execute(() -> {
+                QueryCatalog queries = TablePlayerDataStore.this.queries;
+                Integer groupId = null;
+                Map<Integer, ParticleData> unsavedParticles = new HashMap<>();
+                for (ParticleData particle : particles)
+                    unsavedParticles.put(particle.getId(), particle);
+                List<Integer> deletedParticleIds = new ArrayList<>();
+                Map<Integer, ParticleData> changedParticles = new HashMap<>();
+
+                // Compare the saved particles against the group, anything left over in unsavedParticles has not been saved yet
+                try (PreparedStatement statement = this.connection.prepareStatement(queries.get(Query.SELECT_GROUP_PARTICLES))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setString(2, name);
+
+                    ResultSet result = statement.executeQuery();
+                    while (result.next()) {
+                        groupId = result.getInt("group_id");
+
+                        int particleId = result.getInt("particle_id");
+                        if (result.wasNull())
+                            continue;
+
+                        ParticleData particle = unsavedParticles.remove(result.getInt("id"));
+                        if (particle == null) {
+                            deletedParticleIds.add(particleId);
+                        } else if (TablePlayerDataStore.this.isParticleChanged(result, particle)) {
+                            changedParticles.put(particleId, particle);
+                        }
+                    }
+                }
+
+                if (groupId == null) {
+                    try (PreparedStatement statement = this.connection.prepareStatement(queries.get(Query.INSERT_GROUP), Statement.RETURN_GENERATED_KEYS)) {
+                        statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                        statement.setString(2, name);
+                        statement.executeUpdate();
+
+                        ResultSet keys = statement.getGeneratedKeys();
+                        if (!keys.next())
+                            throw new SQLException("No id was generated for group " + name);
+                        groupId = keys.getInt(1);
+                    }
+                }
+
+                if (!deletedParticleIds.isEmpty()) {
+                    try (PreparedStatement statement = this.connection.prepareStatement(queries.get(Query.DELETE_PARTICLE))) {
+                        for (int particleId : deletedParticleIds) {
+                            statement.setInt(1, particleId);
+                            statement.addBatch();
+                        }
+
+                        statement.executeBatch();
+                    }
+                }
+
+                if (!changedParticles.isEmpty()) {
+                    try (PreparedStatement statement = this.connection.prepareStatement(queries.get(Query.UPDATE_PARTICLE))) {
+                        for (Map.Entry<Integer, ParticleData> entry : changedParticles.entrySet()) {
+                            TablePlayerDataStore.this.setParticleValues(statement, 1, entry.getValue());
+                            statement.setInt(9, entry.getKey());
+                            statement.addBatch();
+                        }
+
+                        statement.executeBatch();
+                    }
+                }
+
+                if (!unsavedParticles.isEmpty()) {
+                    try (PreparedStatement statement = this.connection.prepareStatement(queries.get(Query.INSERT_GROUP_PARTICLE))) {
+                        for (ParticleData particle : unsavedParticles.values()) {
+                            statement.setInt(1, groupId);
+                            statement.setInt(2, particle.getId());
+                            TablePlayerDataStore.this.setParticleValues(statement, 3, particle);
+                            statement.addBatch();
+                        }
+
+                        statement.executeBatch();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void removeGroup(UUID playerUUID, String name) throws StorageException {
+            execute(() -> {
+                // Execute particle delete update
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.DELETE_GROUP_PARTICLES))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setString(2, name);
+
+                    statement.executeUpdate();
+                }
+
+                // Execute group delete update
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.DELETE_GROUP))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setString(2, name);
+
+                    statement.executeUpdate();
+                }
+            });
+        }
+
+        @Override
+        public void saveFixedEffect(UUID playerUUID, FixedEffectData fixedEffect) throws StorageException {
+            this.removeFixedEffect(playerUUID, fixedEffect.getId());
+
+            execute(() -> {
+                int particleId;
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.INSERT_FIXED_EFFECT_PARTICLE), Statement.RETURN_GENERATED_KEYS)) {
+                    statement.setInt(1, fixedEffect.getId());
+                    TablePlayerDataStore.this.setParticleValues(statement, 2, fixedEffect.getParticle());
+                    statement.executeUpdate();
+
+                    ResultSet keys = statement.getGeneratedKeys();
+                    if (!keys.next())
+                        throw new SQLException("No id was generated for fixed effect " + fixedEffect.getId());
+                    particleId = keys.getInt(1);
+                }
+
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.INSERT_FIXED_EFFECT))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setInt(2, fixedEffect.getId());
+                    statement.setInt(3, particleId);
+                    statement.setString(4, fixedEffect.getWorld());
+                    statement.setDouble(5, fixedEffect.getX());
+                    statement.setDouble(6, fixedEffect.getY());
+                    statement.setDouble(7, fixedEffect.getZ());
+                    statement.executeUpdate();
+                }
+            });
+        }
+
+        @Override
+        public void removeFixedEffect(UUID playerUUID, int id) throws StorageException {
+            execute(() -> {
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.DELETE_FIXED_EFFECT_PARTICLE))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setInt(2, id);
+
+                    statement.executeUpdate();
+                }
+
+                try (PreparedStatement statement = this.connection.prepareStatement(TablePlayerDataStore.this.queries.get(Query.DELETE_FIXED_EFFECT))) {
+                    statement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    statement.setInt(2, id);
+
+                    statement.executeUpdate();
+                }
+            });
+        }
+
+        @Override
+        public void replacePlayer(UUID playerUUID, PlayerDocument document) throws StorageException {
+            PlayerDocument existing;
+            try {
+                existing = TablePlayerDataStore.this.readDocuments(this.connection, Collections.singletonList(playerUUID)).get(playerUUID);
+            } catch (SQLException ex) {
+                throw new StorageException("Unable to read the player data of " + playerUUID, ex);
+            }
+
+            if (existing != null) {
+                for (String groupName : existing.getGroups().keySet())
+                    if (!document.getGroups().containsKey(groupName))
+                        this.removeGroup(playerUUID, groupName);
+
+                for (FixedEffectData fixedEffect : existing.getFixedEffects())
+                    this.removeFixedEffect(playerUUID, fixedEffect.getId());
+            }
+
+            this.saveSettings(playerUUID, document.isParticlesHidden());
+            for (Map.Entry<String, List<ParticleData>> group : document.getGroups().entrySet())
+                this.saveGroup(playerUUID, group.getKey(), group.getValue());
+            for (FixedEffectData fixedEffect : document.getFixedEffects())
+                this.saveFixedEffect(playerUUID, fixedEffect);
+        }
+
+    }
+
+}
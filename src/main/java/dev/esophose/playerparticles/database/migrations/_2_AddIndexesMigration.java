@@ -0,0 +1,46 @@
+package dev.esophose.playerparticles.database.migrations;
+
+import dev.esophose.playerparticles.database.DataMigration;
+import dev.esophose.playerparticles.database.DatabaseConnector;
+import dev.esophose.playerparticles.database.SQLiteConnector;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class _2_AddIndexesMigration extends DataMigration {
+
+    public _2_AddIndexesMigration() {
+        super(2);
+    }
+
+    @Override
+    public void migrate(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        // Rebuild the settings table with a primary key, keeping a single row per player
+        // The old table is only dropped once its rows have been copied over, if it is already gone the copy finished
+        // and only the rename is left
+        String settings = tablePrefix + "settings", settingsNew = tablePrefix + "settings_new";
+        try (Statement statement = connection.createStatement()) {
+            if (this.tableExists(connector, connection, settings)) {
+                statement.addBatch("DROP TABLE IF EXISTS " + settingsNew);
+                statement.addBatch("CREATE TABLE " + settingsNew + " (player_uuid VARCHAR(36) NOT NULL, particles_hidden TINYINT, PRIMARY KEY(player_uuid))");
+                statement.addBatch("INSERT INTO " + settingsNew + " (player_uuid, particles_hidden) " +
+                                   "SELECT player_uuid, MAX(particles_hidden) FROM " + settings + " WHERE player_uuid IS NOT NULL GROUP BY player_uuid");
+                statement.addBatch("DROP TABLE " + settings);
+            }
+
+            if (connector instanceof SQLiteConnector) {
+                statement.addBatch("ALTER TABLE " + settingsNew + " RENAME TO " + settings);
+            } else {
+                statement.addBatch("RENAME TABLE " + settingsNew + " TO " + settings);
+            }
+
+            statement.executeBatch();
+        }
+
+        // Index the columns players and fixed effects are looked up by
+        this.createIndex(connector, connection, tablePrefix + "group_owner_name", tablePrefix + "group", "owner_uuid, name");
+        this.createIndex(connector, connection, tablePrefix + "particle_group_uuid", tablePrefix + "particle", "group_uuid");
+        this.createIndex(connector, connection, tablePrefix + "fixed_location", tablePrefix + "fixed", "world, xPos, zPos");
+    }
+
+}
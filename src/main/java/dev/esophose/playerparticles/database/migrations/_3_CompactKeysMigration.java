@@ -0,0 +1,352 @@
+package dev.esophose.playerparticles.database.migrations;
+
+import dev.esophose.playerparticles.PlayerParticles;
+import dev.esophose.playerparticles.database.DataMigration;
+import dev.esophose.playerparticles.database.DatabaseConnector;
+import dev.esophose.playerparticles.database.SQLiteConnector;
+import dev.esophose.playerparticles.util.UUIDUtils;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Replaces the VARCHAR UUID keys with binary player UUIDs and integer keys for groups and particles.
+ * Existing data is copied over in chunks into new tables, each chunk being committed separately. The old tables are
+ * only replaced once everything has been copied, so an interrupted migration starts the copy over when it runs again.
+ */
+public class _3_CompactKeysMigration extends DataMigration {
+
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * The tables being migrated, fixed is first since it references particle
+     */
+    private static final String[] TABLES = { "fixed", "particle", "group", "settings" };
+
+    public _3_CompactKeysMigration() {
+        super(3);
+    }
+
+    @Override
+    public void migrate(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        if (!this.isCompacted(connection, tablePrefix)) {
+            Logger logger = PlayerParticles.getInstance().getLogger();
+            logger.info("Converting player data to compact keys, this may take a while for large databases...");
+            this.createTables(connector, connection, tablePrefix);
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                logger.info("Converted " + this.migrateSettings(connection, tablePrefix) + " player settings.");
+                logger.info("Converted " + this.migrateGroups(connection, tablePrefix) + " groups.");
+                logger.info("Converted " + this.migrateFixedEffects(connection, tablePrefix) + " fixed effects.");
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+            this.swapTables(connector, connection, tablePrefix);
+        }
+
+        // Drop anything left behind by the copy and index the new tables
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES)
+                statement.addBatch("DROP TABLE IF EXISTS " + tablePrefix + table + "_replaced");
+            statement.executeBatch();
+        }
+
+        this.createIndex(connector, connection, tablePrefix + "group_owner_name", tablePrefix + "group", "owner_uuid, name");
+        this.createIndex(connector, connection, tablePrefix + "particle_group_id", tablePrefix + "particle", "group_id");
+        this.createIndex(connector, connection, tablePrefix + "fixed_location", tablePrefix + "fixed", "world, xPos, zPos");
+    }
+
+    /**
+     * Checks if the tables have already been replaced with the compact ones
+     *
+     * @param connection The connection to the database
+     * @param tablePrefix The prefix of the database
+     * @return true if the group table has integer keys, otherwise false
+     */
+    private boolean isCompacted(Connection connection, String tablePrefix) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT group_id FROM " + tablePrefix + "group WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the empty *_new tables the data is copied into, replacing any left behind by an interrupted copy
+     *
+     * @param connector The connector for the database
+     * @param connection The connection to the database
+     * @param tablePrefix The prefix of the database
+     * @throws SQLException If the tables could not be created
+     */
+    private void createTables(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        boolean sqlite = connector instanceof SQLiteConnector;
+        String uuidType = sqlite ? "BLOB" : "BINARY(16)";
+        String keyType = sqlite ? "INTEGER PRIMARY KEY AUTOINCREMENT" : "INT NOT NULL AUTO_INCREMENT PRIMARY KEY";
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES)
+                statement.addBatch("DROP TABLE IF EXISTS " + tablePrefix + table + "_new");
+
+            statement.addBatch("CREATE TABLE " + tablePrefix + "settings_new (player_uuid " + uuidType + " NOT NULL, particles_hidden TINYINT, PRIMARY KEY(player_uuid))");
+            statement.addBatch("CREATE TABLE " + tablePrefix + "group_new (group_id " + keyType + ", owner_uuid " + uuidType + " NOT NULL, name VARCHAR(100))");
+            statement.addBatch("CREATE TABLE " + tablePrefix + "particle_new (particle_id " + keyType + ", group_id INT, id SMALLINT, effect VARCHAR(100), style VARCHAR(100), item_material VARCHAR(100), block_material VARCHAR(100), note SMALLINT, r SMALLINT, g SMALLINT, b SMALLINT)");
+            statement.addBatch("CREATE TABLE " + tablePrefix + "fixed_new (owner_uuid " + uuidType + " NOT NULL, id SMALLINT NOT NULL, particle_id INT, world VARCHAR(100), xPos DOUBLE, yPos DOUBLE, zPos DOUBLE, PRIMARY KEY(owner_uuid, id), FOREIGN KEY(particle_id) REFERENCES " + tablePrefix + "particle_new(particle_id) ON DELETE CASCADE)");
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Replaces the tables with the *_new tables in a single step, so the tables are never left half replaced
+     * SQLite drops the old tables in the same transaction, MySQL renames them to *_replaced so they can be dropped afterwards
+     *
+     * @param connector The connector for the database
+     * @param connection The connection to the database
+     * @param tablePrefix The prefix of the database
+     * @throws SQLException If the tables could not be replaced
+     */
+    private void swapTables(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        if (!(connector instanceof SQLiteConnector)) {
+            List<String> renames = new ArrayList<>();
+            for (String table : TABLES)
+                if (this.tableExists(connector, connection, tablePrefix + table))
+                    renames.add(tablePrefix + table + " TO " + tablePrefix + table + "_replaced");
+            for (String table : TABLES)
+                renames.add(tablePrefix + table + "_new TO " + tablePrefix + table);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("RENAME TABLE " + String.join(", ", renames));
+            }
+            return;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES)
+                statement.addBatch("DROP TABLE IF EXISTS " + tablePrefix + table);
+            for (String table : TABLES)
+                statement.addBatch("ALTER TABLE " + tablePrefix + table + "_new RENAME TO " + tablePrefix + table);
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private int migrateSettings(Connection connection, String tablePrefix) throws SQLException {
+        String selectQuery = "SELECT player_uuid, particles_hidden FROM " + tablePrefix + "settings WHERE player_uuid > ? ORDER BY player_uuid LIMIT " + CHUNK_SIZE;
+        String insertQuery = "INSERT INTO " + tablePrefix + "settings_new (player_uuid, particles_hidden) VALUES (?, ?)";
+
+        String lastUUID = "";
+        int migrated = 0;
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectQuery);
+             PreparedStatement insertStatement = connection.prepareStatement(insertQuery)) {
+            while (true) {
+                selectStatement.setString(1, lastUUID);
+
+                int rows = 0;
+                ResultSet result = selectStatement.executeQuery();
+                while (result.next()) {
+                    lastUUID = result.getString("player_uuid");
+                    rows++;
+
+                    UUID playerUUID = this.parseUUID(lastUUID);
+                    if (playerUUID == null)
+                        continue;
+
+                    insertStatement.setBytes(1, UUIDUtils.toBytes(playerUUID));
+                    insertStatement.setBoolean(2, result.getBoolean("particles_hidden"));
+                    insertStatement.addBatch();
+                    migrated++;
+                }
+
+                insertStatement.executeBatch();
+                connection.commit();
+
+                if (rows < CHUNK_SIZE)
+                    break;
+            }
+        }
+
+        return migrated;
+    }
+
+    private int migrateGroups(Connection connection, String tablePrefix) throws SQLException {
+        String selectQuery = "SELECT uuid, owner_uuid, name FROM " + tablePrefix + "group WHERE uuid > ? ORDER BY uuid LIMIT " + CHUNK_SIZE;
+        String insertQuery = "INSERT INTO " + tablePrefix + "group_new (owner_uuid, name) VALUES (?, ?)";
+
+        String lastUUID = "";
+        int migrated = 0;
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectQuery);
+             PreparedStatement insertStatement = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+            while (true) {
+                selectStatement.setString(1, lastUUID);
+
+                int rows = 0;
+                Map<String, Integer> groupIds = new HashMap<>();
+                ResultSet result = selectStatement.executeQuery();
+                while (result.next()) {
+                    lastUUID = result.getString("uuid");
+                    rows++;
+
+                    UUID ownerUUID = this.parseUUID(result.getString("owner_uuid"));
+                    if (ownerUUID == null)
+                        continue;
+
+                    insertStatement.setBytes(1, UUIDUtils.toBytes(ownerUUID));
+                    insertStatement.setString(2, result.getString("name"));
+                    insertStatement.executeUpdate();
+
+                    ResultSet keys = insertStatement.getGeneratedKeys();
+                    if (keys.next())
+                        groupIds.put(lastUUID, keys.getInt(1));
+                }
+
+                if (!groupIds.isEmpty())
+                    this.migrateGroupParticles(connection, tablePrefix, groupIds);
+                connection.commit();
+                migrated += groupIds.size();
+
+                if (rows < CHUNK_SIZE)
+                    break;
+            }
+        }
+
+        return migrated;
+    }
+
+    private void migrateGroupParticles(Connection connection, String tablePrefix, Map<String, Integer> groupIds) throws SQLException {
+        String inClause = "(" + String.join(", ", Collections.nCopies(groupIds.size(), "?")) + ")";
+        String selectQuery = "SELECT group_uuid, id, effect, style, item_material, block_material, note, r, g, b FROM " + tablePrefix + "particle WHERE group_uuid IN " + inClause;
+        String insertQuery = "INSERT INTO " + tablePrefix + "particle_new (group_id, id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectQuery);
+             PreparedStatement insertStatement = connection.prepareStatement(insertQuery)) {
+            List<String> groupUUIDs = new ArrayList<>(groupIds.keySet());
+            for (int i = 0; i < groupUUIDs.size(); i++)
+                selectStatement.setString(i + 1, groupUUIDs.get(i));
+
+            ResultSet result = selectStatement.executeQuery();
+            while (result.next()) {
+                insertStatement.setInt(1, groupIds.get(result.getString("group_uuid")));
+                this.copyParticle(result, insertStatement, 2);
+                insertStatement.addBatch();
+            }
+
+            insertStatement.executeBatch();
+        }
+    }
+
+    private int migrateFixedEffects(Connection connection, String tablePrefix) throws SQLException {
+        String selectQuery = "SELECT f.owner_uuid, f.id AS f_id, f.world, f.xPos, f.yPos, f.zPos, p.id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM " + tablePrefix + "fixed f " +
+                             "JOIN " + tablePrefix + "particle p ON f.particle_uuid = p.uuid " +
+                             "WHERE f.owner_uuid > ? OR (f.owner_uuid = ? AND f.id > ?) ORDER BY f.owner_uuid, f.id LIMIT " + CHUNK_SIZE;
+        String particleInsertQuery = "INSERT INTO " + tablePrefix + "particle_new (id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String fixedInsertQuery = "INSERT INTO " + tablePrefix + "fixed_new (owner_uuid, id, particle_id, world, xPos, yPos, zPos) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        String lastOwnerUUID = "";
+        int lastId = Integer.MIN_VALUE;
+        int migrated = 0;
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectQuery);
+             PreparedStatement particleInsertStatement = connection.prepareStatement(particleInsertQuery, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement fixedInsertStatement = connection.prepareStatement(fixedInsertQuery)) {
+            while (true) {
+                selectStatement.setString(1, lastOwnerUUID);
+                selectStatement.setString(2, lastOwnerUUID);
+                selectStatement.setInt(3, lastId);
+
+                int rows = 0;
+                ResultSet result = selectStatement.executeQuery();
+                while (result.next()) {
+                    lastOwnerUUID = result.getString("owner_uuid");
+                    lastId = result.getInt("f_id");
+                    rows++;
+
+                    UUID ownerUUID = this.parseUUID(lastOwnerUUID);
+                    if (ownerUUID == null)
+                        continue;
+
+                    this.copyParticle(result, particleInsertStatement, 1);
+                    particleInsertStatement.executeUpdate();
+
+                    ResultSet keys = particleInsertStatement.getGeneratedKeys();
+                    if (!keys.next())
+                        continue;
+
+                    fixedInsertStatement.setBytes(1, UUIDUtils.toBytes(ownerUUID));
+                    fixedInsertStatement.setInt(2, lastId);
+                    fixedInsertStatement.setInt(3, keys.getInt(1));
+                    fixedInsertStatement.setString(4, result.getString("world"));
+                    fixedInsertStatement.setDouble(5, result.getDouble("xPos"));
+                    fixedInsertStatement.setDouble(6, result.getDouble("yPos"));
+                    fixedInsertStatement.setDouble(7, result.getDouble("zPos"));
+                    fixedInsertStatement.addBatch();
+                    migrated++;
+                }
+
+                fixedInsertStatement.executeBatch();
+                connection.commit();
+
+                if (rows < CHUNK_SIZE)
+                    break;
+            }
+        }
+
+        return migrated;
+    }
+
+    /**
+     * Copies the particle columns of the current row into an insert statement
+     *
+     * @param result The result positioned at the particle to copy
+     * @param statement The statement to copy the particle into
+     * @param index The index of the first parameter to set
+     * @throws SQLException If the particle could not be copied
+     */
+    private void copyParticle(ResultSet result, PreparedStatement statement, int index) throws SQLException {
+        statement.setInt(index, result.getInt("id"));
+        statement.setString(index + 1, result.getString("effect"));
+        statement.setString(index + 2, result.getString("style"));
+        statement.setString(index + 3, result.getString("item_material"));
+        statement.setString(index + 4, result.getString("block_material"));
+        statement.setInt(index + 5, result.getInt("note"));
+        statement.setInt(index + 6, result.getInt("r"));
+        statement.setInt(index + 7, result.getInt("g"));
+        statement.setInt(index + 8, result.getInt("b"));
+    }
+
+    /**
+     * Parses a stored UUID, rows with a malformed UUID can't be migrated and are dropped
+     *
+     * @param uuid The UUID to parse
+     * @return The UUID, or null if it is not valid
+     */
+    private UUID parseUUID(String uuid) {
+        try {
+            return uuid == null ? null : UUID.fromString(uuid);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+}
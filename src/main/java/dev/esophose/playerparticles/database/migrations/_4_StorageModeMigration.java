@@ -0,0 +1,327 @@
+package dev.esophose.playerparticles.database.migrations;
+
+import dev.esophose.playerparticles.database.DataMigration;
+import dev.esophose.playerparticles.database.DatabaseConnector;
+import dev.esophose.playerparticles.database.PlayerDocument;
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import dev.esophose.playerparticles.database.SQLiteConnector;
+import dev.esophose.playerparticles.database.StorageMode;
+import dev.esophose.playerparticles.manager.ConfigurationManager.Setting;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates the table used by the document storage mode and converts the data between the table and document
+ * storage modes. Unlike other migrations this one is run again on every reload, so the data is converted
+ * whenever the configured storage mode changes.
+ * <p>
+ * Data is copied over in chunks, each chunk being committed separately. The stored mode is only updated once every
+ * chunk has been copied, so an interrupted conversion starts over the next time it runs.
+ */
+public class _4_StorageModeMigration extends DataMigration {
+
+    private static final int CHUNK_SIZE = 500;
+
+    public _4_StorageModeMigration() {
+        super(4);
+    }
+
+    @Override
+    public void migrate(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        boolean sqlite = connector instanceof SQLiteConnector;
+        String uuidType = sqlite ? "BLOB" : "BINARY(16)";
+        String dataType = sqlite ? "BLOB" : "MEDIUMBLOB";
+
+        StorageMode storedMode = null;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + tablePrefix + "player_data (player_uuid " + uuidType + " NOT NULL, data " + dataType + ", PRIMARY KEY(player_uuid))");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + tablePrefix + "storage_mode (mode VARCHAR(20) NOT NULL)");
+
+            ResultSet result = statement.executeQuery("SELECT mode FROM " + tablePrefix + "storage_mode");
+            if (result.next())
+                storedMode = StorageMode.fromName(result.getString("mode"));
+        }
+
+        if (storedMode == null) {
+            storedMode = StorageMode.TABLES;
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + tablePrefix + "storage_mode (mode) VALUES (?)")) {
+                statement.setString(1, storedMode.name());
+                statement.executeUpdate();
+            }
+        }
+
+        // The local log is converted by the DataManager, the database is left in the mode it was in
+        StorageMode targetMode = StorageMode.fromName(Setting.DATA_STORAGE_MODE.getString());
+        if (targetMode == StorageMode.LOG || storedMode == targetMode)
+            return;
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            if (targetMode == StorageMode.DOCUMENT) {
+                this.convertToDocuments(connection, tablePrefix);
+            } else {
+                this.convertToTables(connection, tablePrefix);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE " + tablePrefix + "storage_mode SET mode = ?")) {
+                statement.setString(1, targetMode.name());
+                statement.executeUpdate();
+            }
+
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void convertToDocuments(Connection connection, String tablePrefix) throws SQLException {
+        this.clearTables(connection, tablePrefix, "player_data");
+
+        // Every player with any saved data, not every player is guaranteed to have settings
+        String playersQuery = "SELECT player_uuid FROM (" +
+                              "SELECT player_uuid FROM " + tablePrefix + "settings UNION " +
+                              "SELECT owner_uuid FROM " + tablePrefix + "group UNION " +
+                              "SELECT owner_uuid FROM " + tablePrefix + "fixed) players " +
+                              "WHERE player_uuid > ? ORDER BY player_uuid LIMIT " + CHUNK_SIZE;
+        String insertQuery = "INSERT INTO " + tablePrefix + "player_data (player_uuid, data) VALUES (?, ?)";
+
+        byte[] lastUUID = new byte[0];
+        try (PreparedStatement playersStatement = connection.prepareStatement(playersQuery);
+             PreparedStatement insertStatement = connection.prepareStatement(insertQuery)) {
+            while (true) {
+                playersStatement.setBytes(1, lastUUID);
+
+                List<byte[]> playerUUIDs = new ArrayList<>();
+                ResultSet result = playersStatement.executeQuery();
+                while (result.next())
+                    playerUUIDs.add(result.getBytes("player_uuid"));
+
+                if (playerUUIDs.isEmpty())
+                    break;
+                lastUUID = playerUUIDs.get(playerUUIDs.size() - 1);
+
+                for (Map.Entry<UUIDKey, PlayerDocument> entry : this.readDocuments(connection, tablePrefix, playerUUIDs).entrySet()) {
+                    insertStatement.setBytes(1, entry.getKey().bytes);
+                    insertStatement.setBytes(2, entry.getValue().encode());
+                    insertStatement.addBatch();
+                }
+
+                insertStatement.executeBatch();
+                connection.commit();
+
+                if (playerUUIDs.size() < CHUNK_SIZE)
+                    break;
+            }
+        }
+
+        this.clearTables(connection, tablePrefix, "fixed", "particle", "group", "settings");
+    }
+
+    /**
+     * Reads the documents of a chunk of players from the tables
+     *
+     * @param connection The connection to use
+     * @param tablePrefix The prefix of the tables
+     * @param playerUUIDs The players to read
+     * @return The documents of the players, keyed by their UUID
+     * @throws SQLException If the players could not be read
+     */
+    private Map<UUIDKey, PlayerDocument> readDocuments(Connection connection, String tablePrefix, List<byte[]> playerUUIDs) throws SQLException {
+        Map<UUIDKey, PlayerDocument> documents = new TreeMap<>();
+        for (byte[] playerUUID : playerUUIDs)
+            documents.put(new UUIDKey(playerUUID), new PlayerDocument());
+
+        String inClause = "(" + String.join(", ", Collections.nCopies(playerUUIDs.size(), "?")) + ")";
+
+        String settingsQuery = "SELECT player_uuid, particles_hidden FROM " + tablePrefix + "settings WHERE player_uuid IN " + inClause;
+        try (PreparedStatement statement = connection.prepareStatement(settingsQuery)) {
+            this.setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next())
+                documents.get(new UUIDKey(result.getBytes("player_uuid"))).setParticlesHidden(result.getBoolean("particles_hidden"));
+        }
+
+        // Groups without any particles are kept too
+        String groupsQuery = "SELECT g.owner_uuid, g.name, p.particle_id, p.id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM " + tablePrefix + "group g " +
+                             "LEFT JOIN " + tablePrefix + "particle p ON p.group_id = g.group_id WHERE g.owner_uuid IN " + inClause;
+        try (PreparedStatement statement = connection.prepareStatement(groupsQuery)) {
+            this.setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                PlayerDocument document = documents.get(new UUIDKey(result.getBytes("owner_uuid")));
+                List<ParticleData> particles = document.getGroups().computeIfAbsent(result.getString("name"), k -> new ArrayList<>());
+
+                result.getInt("particle_id");
+                if (!result.wasNull())
+                    particles.add(ParticleData.read(result, "id"));
+            }
+        }
+
+        String fixedQuery = "SELECT f.owner_uuid, f.id AS f_id, f.world, f.xPos, f.yPos, f.zPos, p.id AS p_id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM " + tablePrefix + "fixed f " +
+                            "JOIN " + tablePrefix + "particle p ON f.particle_id = p.particle_id WHERE f.owner_uuid IN " + inClause;
+        try (PreparedStatement statement = connection.prepareStatement(fixedQuery)) {
+            this.setUUIDs(statement, playerUUIDs);
+
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                PlayerDocument document = documents.get(new UUIDKey(result.getBytes("owner_uuid")));
+                document.setFixedEffect(new FixedEffectData(result.getInt("f_id"), result.getString("world"),
+                        result.getDouble("xPos"), result.getDouble("yPos"), result.getDouble("zPos"), ParticleData.read(result, "p_id")));
+            }
+        }
+
+        return documents;
+    }
+
+    private void convertToTables(Connection connection, String tablePrefix) throws SQLException {
+        this.clearTables(connection, tablePrefix, "fixed", "particle", "group", "settings");
+
+        String selectQuery = "SELECT player_uuid, data FROM " + tablePrefix + "player_data WHERE player_uuid > ? ORDER BY player_uuid LIMIT " + CHUNK_SIZE;
+        String settingsQuery = "INSERT INTO " + tablePrefix + "settings (player_uuid, particles_hidden) VALUES (?, ?)";
+        String groupQuery = "INSERT INTO " + tablePrefix + "group (owner_uuid, name) VALUES (?, ?)";
+        String groupParticleQuery = "INSERT INTO " + tablePrefix + "particle (group_id, id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String fixedParticleQuery = "INSERT INTO " + tablePrefix + "particle (id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String fixedQuery = "INSERT INTO " + tablePrefix + "fixed (owner_uuid, id, particle_id, world, xPos, yPos, zPos) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        byte[] lastUUID = new byte[0];
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectQuery);
+             PreparedStatement settingsStatement = connection.prepareStatement(settingsQuery);
+             PreparedStatement groupStatement = connection.prepareStatement(groupQuery, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement groupParticleStatement = connection.prepareStatement(groupParticleQuery);
+             PreparedStatement fixedParticleStatement = connection.prepareStatement(fixedParticleQuery, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement fixedStatement = connection.prepareStatement(fixedQuery)) {
+            while (true) {
+                selectStatement.setBytes(1, lastUUID);
+
+                int rows = 0;
+                ResultSet result = selectStatement.executeQuery();
+                while (result.next()) {
+                    byte[] playerUUID = result.getBytes("player_uuid");
+                    lastUUID = playerUUID;
+                    rows++;
+
+                    PlayerDocument document;
+                    try {
+                        document = PlayerDocument.decode(result.getBytes("data"));
+                    } catch (IOException ex) {
+                        throw new SQLException("Unable to read the player data to convert", ex);
+                    }
+
+                    settingsStatement.setBytes(1, playerUUID);
+                    settingsStatement.setBoolean(2, document.isParticlesHidden());
+                    settingsStatement.addBatch();
+
+                    for (Map.Entry<String, List<ParticleData>> group : document.getGroups().entrySet()) {
+                        groupStatement.setBytes(1, playerUUID);
+                        groupStatement.setString(2, group.getKey());
+                        groupStatement.executeUpdate();
+
+                        ResultSet keys = groupStatement.getGeneratedKeys();
+                        if (!keys.next())
+                            throw new SQLException("No id was generated for group " + group.getKey());
+                        int groupId = keys.getInt(1);
+
+                        for (ParticleData particle : group.getValue()) {
+                            groupParticleStatement.setInt(1, groupId);
+                            this.setParticle(groupParticleStatement, 2, particle);
+                            groupParticleStatement.addBatch();
+                        }
+                    }
+
+                    for (FixedEffectData fixedEffect : document.getFixedEffects()) {
+                        this.setParticle(fixedParticleStatement, 1, fixedEffect.getParticle());
+                        fixedParticleStatement.executeUpdate();
+
+                        ResultSet keys = fixedParticleStatement.getGeneratedKeys();
+                        if (!keys.next())
+                            throw new SQLException("No id was generated for fixed effect " + fixedEffect.getId());
+
+                        fixedStatement.setBytes(1, playerUUID);
+                        fixedStatement.setInt(2, fixedEffect.getId());
+                        fixedStatement.setInt(3, keys.getInt(1));
+                        fixedStatement.setString(4, fixedEffect.getWorld());
+                        fixedStatement.setDouble(5, fixedEffect.getX());
+                        fixedStatement.setDouble(6, fixedEffect.getY());
+                        fixedStatement.setDouble(7, fixedEffect.getZ());
+                        fixedStatement.addBatch();
+                    }
+                }
+
+                settingsStatement.executeBatch();
+                groupParticleStatement.executeBatch();
+                fixedStatement.executeBatch();
+                connection.commit();
+
+                if (rows < CHUNK_SIZE)
+                    break;
+            }
+        }
+
+        this.clearTables(connection, tablePrefix, "player_data");
+    }
+
+    private void setParticle(PreparedStatement statement, int index, ParticleData particle) throws SQLException {
+        statement.setInt(index, particle.getId());
+        statement.setString(index + 1, particle.getEffect());
+        statement.setString(index + 2, particle.getStyle());
+        statement.setString(index + 3, particle.getItemMaterial());
+        statement.setString(index + 4, particle.getBlockMaterial());
+        statement.setInt(index + 5, particle.getNote());
+        statement.setInt(index + 6, particle.getR());
+        statement.setInt(index + 7, particle.getG());
+        statement.setInt(index + 8, particle.getB());
+    }
+
+    private void setUUIDs(PreparedStatement statement, List<byte[]> playerUUIDs) throws SQLException {
+        for (int i = 0; i < playerUUIDs.size(); i++)
+            statement.setBytes(i + 1, playerUUIDs.get(i));
+    }
+
+    private void clearTables(Connection connection, String tablePrefix, String... tables) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables)
+                statement.executeUpdate("DELETE FROM " + tablePrefix + table);
+        }
+    }
+
+    /**
+     * A binary UUID that can be used as a map key
+     */
+    private static final class UUIDKey implements Comparable<UUIDKey> {
+
+        private final byte[] bytes;
+
+        private UUIDKey(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int compareTo(UUIDKey other) {
+            for (int i = 0; i < Math.min(this.bytes.length, other.bytes.length); i++) {
+                int compare = Integer.compare(this.bytes[i] & 0xFF, other.bytes[i] & 0xFF);
+                if (compare != 0)
+                    return compare;
+            }
+
+            return Integer.compare(this.bytes.length, other.bytes.length);
+        }
+
+    }
+
+}
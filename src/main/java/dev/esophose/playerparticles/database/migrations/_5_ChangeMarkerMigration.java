@@ -0,0 +1,37 @@
+package dev.esophose.playerparticles.database.migrations;
+
+import dev.esophose.playerparticles.database.DataMigration;
+import dev.esophose.playerparticles.database.DatabaseConnector;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Creates the table holding the change marker, a value that is replaced every time player data is saved
+ */
+public class _5_ChangeMarkerMigration extends DataMigration {
+
+    public _5_ChangeMarkerMigration() {
+        super(5);
+    }
+
+    @Override
+    public void migrate(DatabaseConnector connector, Connection connection, String tablePrefix) throws SQLException {
+        // Can be run again if it was interrupted, the marker is only inserted if the table doesn't have one yet
+        boolean hasMarker;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + tablePrefix + "change_marker (marker VARCHAR(36) NOT NULL)");
+            hasMarker = statement.executeQuery("SELECT marker FROM " + tablePrefix + "change_marker").next();
+        }
+
+        if (!hasMarker) {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + tablePrefix + "change_marker (marker) VALUES (?)")) {
+                statement.setString(1, UUID.randomUUID().toString());
+                statement.executeUpdate();
+            }
+        }
+    }
+
+}
@@ -55,6 +55,15 @@ public class ConfigurationManager extends Manager {
         PARTICLE_RENDER_RANGE_FIXED_EFFECT("particle-render-range-fixed-effect", 192, "From how many blocks away should a player be able to see the particles from a fixed effect?"),
         RAINBOW_CYCLE_SPEED("rainbow-cycle-speed", 2, "How many out of 360 hue ticks to move per game tick", "Higher values make the rainbow cycle faster", "Note: Must be a positive whole number"),
         DUST_SIZE("dust-size", 1.0, "How large should dust particles appear?", "Note: Can include decimals", "Only works in 1.13+"),
+        STAGGER_STYLE_SPAWNS("stagger-style-spawns", false, "Should styles that only spawn every few ticks, such as wings and celebration, spawn on a different tick for each player and fixed effect?", "Spreads the particles sent for these styles evenly over the ticks instead of sending them all at once", "Each player and fixed effect still spawns the style just as often"),
+        PARTICLE_WORKER_THREADS("particle-worker-threads", 0, "How many worker threads should be used to calculate particle styles?", "Set to 0 to calculate all particles on a single thread", "Servers with many players or fixed effects on machines with lots of cores may benefit from raising this", "Changing this requires a /pp reload"),
+        PLAYER_LOAD_BATCH_SIZE("player-load-batch-size", 50, "How many players can be loaded from the database at once?", "Players requested within the same tick are loaded together to reduce the number of queries", "Set to 1 to load each player separately"),
+        FIXED_EFFECTS_LOAD_WITH_CHUNKS("fixed-effects-load-with-chunks", false, "Should fixed effects only be loaded from the database once the chunk they are in loads?", "Speeds up startup on servers with lots of fixed effects spread over a large map", "Changing this requires a /pp reload"),
+        DATA_SAVE_INTERVAL("data-save-interval", 5, "How often should changes to player data be saved to the database in seconds?", "Changes made to the same group or fixed effect within this time are combined into a single save", "Set to 0 to save changes right away"),
+        DATA_STORAGE_MODE("data-storage-mode", "tables", "How should player data be stored in the database?", "tables: Settings, groups, particles and fixed effects are stored in separate tables", "document: All of a player's data is stored as a single record, so loading a player is a single lookup", "log: All of a player's data is stored in a log file on the local disk instead of the database, only for a single server", "Existing data is converted when this is changed, changing this requires a /pp reload"),
+        DATABASE_QUEUE_SIZE("database-queue-size", 100, "How many database tasks can wait to run at once?", "Player loads always wait for room in the queue, saving changes follows the backpressure policy", "Changing this requires a /pp reload"),
+        DATABASE_BACKPRESSURE_POLICY("database-backpressure-policy", "coalesce", "What should happen to unsaved changes when the database queue is full?", "coalesce: Keep them in memory, combining them with later changes, until there is room", "delay: Wait in line for room in the queue before saving them", "reject: Keep them in memory like coalesce, and turn away player and chunk loads until there is room"),
+        DATABASE_LOAD_WARNING_THRESHOLD("database-load-warning-threshold", 50, "How many database tasks can be waiting to run before the database load is logged?", "Checked every minute, the log shows the queue along with how long tasks are waiting and running for", "Set to 0 to never log the database load"),
 
         MYSQL_SETTINGS("mysql-settings", null, "Settings for if you want to use MySQL for data management"),
         MYSQL_ENABLED("mysql-settings.enabled", false, "Enable MySQL", "If false, SQLite will be used instead"),
@@ -66,6 +75,12 @@ public class ConfigurationManager extends Manager {
         MYSQL_TABLE_PREFIX("mysql-settings.table-prefix", PlayerParticles.getInstance().getDescription().getName().toLowerCase() + "_", "The prefix of the tables in the database", "Do not change this after tables have already been created or you will have data loss"),
         MYSQL_USE_SSL("mysql-settings.use-ssl", false, "If the database connection should use SSL", "You should enable this if your database supports SSL"),
         MYSQL_CONNECTION_POOL_SIZE("mysql-settings.connection-pool-size", 5, "The size of the connection pool to the database", "Not recommended to go below 2 or above 5"),
+        MYSQL_MINIMUM_IDLE_CONNECTIONS("mysql-settings.minimum-idle-connections", 2, "How many idle connections should be kept open at all times?", "Set to the same as the connection pool size to always keep every connection open"),
+        MYSQL_CONNECTION_TIMEOUT("mysql-settings.connection-timeout", 30000, "How long to wait for a connection from the pool in milliseconds"),
+        MYSQL_MAX_LIFETIME("mysql-settings.max-lifetime", 1800000, "How long a connection can stay open in milliseconds", "Should be a few seconds shorter than the wait_timeout of your database"),
+        MYSQL_CACHE_PREPARED_STATEMENTS("mysql-settings.cache-prepared-statements", true, "Should prepared statements be cached by the driver and the database?", "Saves the database from parsing the same queries over and over"),
+        MYSQL_PREPARED_STATEMENT_CACHE_SIZE("mysql-settings.prepared-statement-cache-size", 250, "How many prepared statements can be cached per connection"),
+        MYSQL_REWRITE_BATCHED_STATEMENTS("mysql-settings.rewrite-batched-statements", true, "Should batches of inserts be sent as a single multi-row statement?"),
 
         GUI_ICON("gui-icon", null,
                 "This configuration option allows you to change any of the GUI",
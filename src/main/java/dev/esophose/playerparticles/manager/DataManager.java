@@ -2,8 +2,23 @@ package dev.esophose.playerparticles.manager;
 
 import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.database.DatabaseConnector;
+import dev.esophose.playerparticles.database.DatabaseExecutor;
+import dev.esophose.playerparticles.database.DatabaseExecutor.BackpressurePolicy;
+import dev.esophose.playerparticles.database.DocumentPlayerDataStore;
+import dev.esophose.playerparticles.database.LogPlayerDataStore;
 import dev.esophose.playerparticles.database.MySQLConnector;
+import dev.esophose.playerparticles.database.PlayerDataStore;
+import dev.esophose.playerparticles.database.PlayerDataStore.Write;
+import dev.esophose.playerparticles.database.PlayerDocument;
+import dev.esophose.playerparticles.database.PlayerDocument.FixedEffectData;
+import dev.esophose.playerparticles.database.PlayerDocument.ParticleData;
+import dev.esophose.playerparticles.database.PlayerSnapshot;
+import dev.esophose.playerparticles.database.QueryCatalog;
+import dev.esophose.playerparticles.database.QueryCatalog.Query;
 import dev.esophose.playerparticles.database.SQLiteConnector;
+import dev.esophose.playerparticles.database.StorageException;
+import dev.esophose.playerparticles.database.StorageMode;
+import dev.esophose.playerparticles.database.TablePlayerDataStore;
 import dev.esophose.playerparticles.manager.ConfigurationManager.Setting;
 import dev.esophose.playerparticles.particles.ConsolePPlayer;
 import dev.esophose.playerparticles.particles.FixedParticleEffect;
@@ -15,18 +30,36 @@ import dev.esophose.playerparticles.particles.ParticleGroup;
 import dev.esophose.playerparticles.particles.ParticlePair;
 import dev.esophose.playerparticles.styles.ParticleStyle;
 import dev.esophose.playerparticles.util.ParticleUtils;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
 
 /**
  * All data changes to PPlayers such as group or fixed effect changes must be done through here,
@@ -34,14 +67,95 @@ import org.bukkit.World;
  */
 public class DataManager extends Manager {
 
+    private static final int COPY_BATCH_SIZE = 500;
+
+    /**
+     * The delay in ticks before the first retry of a failed save, doubled for each failure in a row up to the maximum
+     */
+    private static final long FLUSH_RETRY_DELAY = 20;
+    private static final long MAX_FLUSH_RETRY_DELAY = 20 * 60;
+    private static final long LOAD_MONITOR_INTERVAL = 20 * 60;
+
     private DatabaseConnector databaseConnector;
+    private PlayerDataStore dataStore;
+
+    /**
+     * Writes waiting to be flushed to the data store, keyed by the entity they write so repeated writes are combined
+     */
+    private final Map<String, Write> pendingWrites;
+    private final Object flushLock;
+    private BukkitTask writeTask;
+    private BukkitTask loadMonitorTask;
+    private final AtomicBoolean flushScheduled;
+    private final AtomicBoolean flushRetryScheduled;
+    private final AtomicInteger flushFailures;
+    private DatabaseExecutor databaseExecutor;
+    private String tablePrefix;
+    private StorageMode storageMode;
+    private QueryCatalog queries;
+
+    /**
+     * The PPlayers currently being loaded from the database, callers asking for the same PPlayer share one load
+     */
+    private final Map<UUID, CompletableFuture<PPlayer>> pendingLoads;
+
+    /**
+     * The PPlayers waiting to be loaded in the next batch
+     */
+    private final Queue<UUID> loadQueue;
+    private final AtomicBoolean loadFlushScheduled;
+
+    /**
+     * The PPlayers that were only loaded with their fixed effects at startup
+     */
+    private final Set<UUID> partialPPlayers;
+
+    /**
+     * The chunks of each world that fixed effects have been loaded for, only used if fixed effects are loaded with their chunks
+     */
+    private final Map<String, Set<Long>> loadedFixedEffectChunks;
+
+    /**
+     * The chunks that loaded this tick, their fixed effects are loaded together on the next tick
+     */
+    private final Map<World, List<Chunk>> pendingFixedEffectChunks;
 
     public DataManager(PlayerParticles playerParticles) {
         super(playerParticles);
+
+        this.pendingWrites = new LinkedHashMap<>();
+        this.flushLock = new Object();
+        this.flushScheduled = new AtomicBoolean();
+        this.flushRetryScheduled = new AtomicBoolean();
+        this.flushFailures = new AtomicInteger();
+        this.pendingLoads = new ConcurrentHashMap<>();
+        this.loadQueue = new ConcurrentLinkedQueue<>();
+        this.loadFlushScheduled = new AtomicBoolean(false);
+        this.partialPPlayers = ConcurrentHashMap.newKeySet();
+        this.loadedFixedEffectChunks = new ConcurrentHashMap<>();
+        this.pendingFixedEffectChunks = new HashMap<>();
     }
 
     @Override
     public void reload() {
+        if (this.writeTask != null) {
+            this.writeTask.cancel();
+            this.writeTask = null;
+        }
+
+        if (this.loadMonitorTask != null) {
+            this.loadMonitorTask.cancel();
+            this.loadMonitorTask = null;
+        }
+
+        if (this.databaseExecutor != null)
+            this.databaseExecutor.shutdown();
+
+        if (this.dataStore != null) {
+            this.flushWrites();
+            this.dataStore.close();
+        }
+
         if (this.databaseConnector != null)
             this.databaseConnector.closeConnection();
 
@@ -63,11 +177,61 @@ public class DataManager extends Manager {
         } catch (Exception ex) {
             this.playerParticles.getLogger().severe("Fatal error trying to connect to database. Please make sure all your connection settings are correct and try again. Plugin has been disabled.");
             Bukkit.getPluginManager().disablePlugin(this.playerParticles);
+            return;
+        }
+
+        if (this.databaseConnector instanceof MySQLConnector) {
+            this.tablePrefix = Setting.MYSQL_TABLE_PREFIX.getString();
+        } else {
+            this.tablePrefix = this.playerParticles.getDescription().getName().toLowerCase() + '_';
+        }
+        this.queries = new QueryCatalog(this.tablePrefix);
+        this.storageMode = StorageMode.fromName(Setting.DATA_STORAGE_MODE.getString());
+
+        try {
+            if (this.storageMode == StorageMode.LOG) {
+                this.dataStore = new LogPlayerDataStore(this.getLogDirectory(), this.playerParticles.getLogger());
+                this.playerParticles.getLogger().info("Player data is stored in the local log.");
+            } else {
+                this.dataStore = this.createDatabaseStore(this.storageMode);
+            }
+        } catch (IOException ex) {
+            this.playerParticles.getLogger().severe("Fatal error trying to open the player data log: " + ex.getMessage() + ". Plugin has been disabled.");
+            Bukkit.getPluginManager().disablePlugin(this.playerParticles);
+            return;
         }
+
+        // SQLite reads and writes each have a single connection, MySQL can run as many tasks as it has pooled connections
+        int databaseThreads = this.databaseConnector instanceof MySQLConnector ? Setting.MYSQL_CONNECTION_POOL_SIZE.getInt() : 2;
+        this.databaseExecutor = new DatabaseExecutor(this.playerParticles, Math.max(1, databaseThreads), Math.max(1, Setting.DATABASE_QUEUE_SIZE.getInt()));
+        this.flushScheduled.set(false);
+
+        long saveInterval = Setting.DATA_SAVE_INTERVAL.getLong() * 20;
+        if (saveInterval > 0)
+            this.writeTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this.playerParticles, this::scheduleFlush, saveInterval, saveInterval);
+
+        if (Setting.DATABASE_LOAD_WARNING_THRESHOLD.getInt() > 0)
+            this.loadMonitorTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this.playerParticles, this::logDatabaseLoad, LOAD_MONITOR_INTERVAL, LOAD_MONITOR_INTERVAL);
     }
 
     @Override
     public void disable() {
+        if (this.writeTask != null) {
+            this.writeTask.cancel();
+            this.writeTask = null;
+        }
+
+        if (this.loadMonitorTask != null) {
+            this.loadMonitorTask.cancel();
+            this.loadMonitorTask = null;
+        }
+
+        // Write anything that is still queued before the connection is closed
+        // Changes that still can't be saved are kept in the snapshot and saved again on the next start
+        this.databaseExecutor.shutdown();
+        this.flushWrites();
+        this.writeSnapshot();
+        this.dataStore.close();
         this.databaseConnector.closeConnection();
     }
 
@@ -75,456 +239,1063 @@ public class DataManager extends Manager {
      * Gets a PPlayer from cache
      * This method should be used over the other one unless you absolutely need the PPlayer and you don't care about waiting
      * You should always check for a null result when using this method
+     * PPlayers that only have their fixed effects loaded are not returned, since their groups and settings are missing
      *
      * @param playerUUID The PPlayer to get
-     * @return The PPlayer from cache
+     * @return The PPlayer from cache, or null if the PPlayer is not fully loaded
      */
     public PPlayer getPPlayer(UUID playerUUID) {
-        for (PPlayer pp : this.playerParticles.getManager(ParticleManager.class).getPPlayers())
-            if (pp.getUniqueId().equals(playerUUID))
-                return pp;
-        return null;
+        if (this.partialPPlayers.contains(playerUUID))
+            return null;
+        return this.playerParticles.getManager(ParticleManager.class).getPPlayer(playerUUID);
     }
 
     /**
      * Gets a player from the save data, creates one if it doesn't exist and caches it
+     * If the player is already being loaded, the callback is attached to that load instead of starting another one
      *
      * @param playerUUID The pplayer to get
      * @param callback The callback to execute with the found pplayer, or a newly generated one
      */
     public void getPPlayer(UUID playerUUID, Consumer<PPlayer> callback) {
 
-        // Try to get them from cache first
+        // Try to get them from cache first, partial PPlayers still need their groups and settings loaded
         PPlayer fromCache = this.getPPlayer(playerUUID);
-        if (fromCache != null) {
+        if (fromCache != null && !this.partialPPlayers.contains(playerUUID)) {
             callback.accept(fromCache);
             return;
         }
 
-        this.async(() -> {
-            Map<String, ParticleGroup> groups = new ConcurrentHashMap<>();
-            Map<Integer, FixedParticleEffect> fixedParticles = new ConcurrentHashMap<>();
-
-            this.databaseConnector.connect((connection) -> {
-                // Load settings
-                boolean particlesHidden = false;
-                String settingsQuery = "SELECT particles_hidden FROM " + this.getTablePrefix() + "settings WHERE player_uuid = ?";
-                try (PreparedStatement statement = connection.prepareStatement(settingsQuery)) {
-                    statement.setString(1, playerUUID.toString());
-
-                    ResultSet result = statement.executeQuery();
-                    if (result.next()) {
-                        particlesHidden = result.getBoolean("particles_hidden");
-                    } else {
-                        statement.close();
-
-                        String updateQuery = "INSERT INTO " + this.getTablePrefix() + "settings (player_uuid, particles_hidden) VALUES (?, ?)";
-                        try (PreparedStatement updateStatement = connection.prepareStatement(updateQuery)) {
-                            updateStatement.setString(1, playerUUID.toString());
-                            updateStatement.setBoolean(2, false);
-
-                            updateStatement.executeUpdate();
-                        }
-                    }
-                }
+        CompletableFuture<PPlayer> pendingLoad = new CompletableFuture<>();
+        CompletableFuture<PPlayer> existingLoad = this.pendingLoads.putIfAbsent(playerUUID, pendingLoad);
+        if (existingLoad != null) {
+            existingLoad.thenAccept(callback);
+            return;
+        }
 
-                // Load particle groups
-                String groupQuery = "SELECT * FROM " + this.getTablePrefix() + "group g " +
-        					   	    "JOIN " + this.getTablePrefix() + "particle p ON g.uuid = p.group_uuid " +
-        					   	    "WHERE g.owner_uuid = ?";
-                try (PreparedStatement statement = connection.prepareStatement(groupQuery)) {
-                    statement.setString(1, playerUUID.toString());
-
-                    Set<String> modifiedGroups = new HashSet<>();
-                    ResultSet result = statement.executeQuery();
-                    while (result.next()) {
-                        // Group properties
-                        String groupName = result.getString("name");
-
-                        // Particle properties
-                        int id = result.getInt("id");
-                        ParticleEffect effect = ParticleEffect.fromInternalName(result.getString("effect"));
-                        ParticleStyle style = ParticleStyle.fromInternalName(result.getString("style"));
-                        Material itemMaterial = ParticleUtils.closestMatchWithFallback(true, result.getString("item_material"));
-                        Material blockMaterial = ParticleUtils.closestMatchWithFallback(true, result.getString("block_material"));
-                        NoteColor noteColor = new NoteColor(result.getInt("note"));
-                        OrdinaryColor color = new OrdinaryColor(result.getInt("r"), result.getInt("g"), result.getInt("b"));
-                        ParticlePair particle = new ParticlePair(playerUUID, id, effect, style, itemMaterial, blockMaterial, color, noteColor);
-
-                        boolean invalid = effect == null || style == null;
-                        if (invalid) // Effect or style is now missing or disabled, remove the particle
-                            modifiedGroups.add(groupName);
-
-                        // Try to add particle to an existing group
-                        boolean groupAlreadyExists = false;
-                        for (ParticleGroup group : groups.values()) {
-                            if (group.getName().equalsIgnoreCase(groupName)) {
-                                if (!invalid)
-                                    group.getParticles().put(particle.getId(), particle);
-                                groupAlreadyExists = true;
-                                break;
-                            }
-                        }
+        pendingLoad.thenAccept(callback);
+        this.loadPPlayer(playerUUID);
+    }
+
+    /**
+     * Queues a player to be loaded from the save data along with any other players requested around the same time
+     * The pending load for the player is completed on the main thread once the PPlayer has been published
+     *
+     * @param playerUUID The pplayer to load
+     */
+    private void loadPPlayer(UUID playerUUID) {
+        this.loadQueue.add(playerUUID);
+        if (this.loadFlushScheduled.compareAndSet(false, true))
+            Bukkit.getScheduler().runTaskLater(this.playerParticles, this::flushLoadQueue, 1);
+    }
+
+    /**
+     * Splits all queued players into batches and loads each batch from the save data
+     */
+    private void flushLoadQueue() {
+        this.loadFlushScheduled.set(false);
+
+        int batchSize = Math.max(1, Setting.PLAYER_LOAD_BATCH_SIZE.getInt());
+        List<UUID> batch = new ArrayList<>(batchSize);
+        UUID playerUUID;
+        while ((playerUUID = this.loadQueue.poll()) != null) {
+            batch.add(playerUUID);
+            if (batch.size() == batchSize) {
+                this.loadPPlayers(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
 
-                        // Add the particle to a new group if one didn't already exist
-                        if (!groupAlreadyExists) {
-                            Map<Integer, ParticlePair> particles = new ConcurrentHashMap<>();
-                            if (!invalid)
-                                particles.put(particle.getId(), particle);
-                            ParticleGroup newGroup = new ParticleGroup(groupName, particles);
-                            groups.put(newGroup.getName().toLowerCase(), newGroup);
+        if (!batch.isEmpty())
+            this.loadPPlayers(batch);
+    }
+
+    /**
+     * Loads a batch of players from the save data using one connection, creating any that don't exist,
+     * then publishes them to the loaded PPlayers and completes their pending loads
+     *
+     * @param playerUUIDs The pplayers to load
+     */
+    private void loadPPlayers(List<UUID> playerUUIDs) {
+        this.asyncLoad(() -> {
+            // Make sure the players are loaded with any changes that haven't been written yet
+            this.flushWrites();
+
+            Map<UUID, PPlayer> loaded = new HashMap<>();
+            try {
+                loaded.putAll(this.createPPlayers(playerUUIDs, this.dataStore.loadPlayers(playerUUIDs)));
+            } catch (StorageException ex) {
+                this.playerParticles.getLogger().severe("An error occurred loading player data: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+
+            this.sync(() -> {
+                ParticleManager particleManager = this.playerParticles.getManager(ParticleManager.class);
+                for (UUID playerUUID : playerUUIDs) {
+                    CompletableFuture<PPlayer> pendingLoad = this.pendingLoads.remove(playerUUID);
+                    PPlayer loadedPPlayer = loaded.get(playerUUID);
+                    if (loadedPPlayer == null) {
+                        // The load failed and has already been logged, release it so a later request can try again
+                        if (pendingLoad != null) {
+                            this.playerParticles.getLogger().warning("Dropped " + pendingLoad.getNumberOfDependents() + " pending request(s) for the player data of " + playerUUID + " since it failed to load.");
+                            pendingLoad.cancel(false);
                         }
+                        continue;
                     }
 
-                    // Update modified groups
-                    for (String modifiedGroup : modifiedGroups) {
-                        ParticleGroup group = groups.get(modifiedGroup.toLowerCase());
-                        this.saveParticleGroup(playerUUID, group);
-                        if (group.getParticles().isEmpty() && !group.getName().equals(ParticleGroup.DEFAULT_NAME))
-                            groups.remove(modifiedGroup);
+                    // Keep the PPlayer that is already loaded if one was published in the meantime, unless it is partial
+                    PPlayer publishedPPlayer = particleManager.getPPlayer(playerUUID);
+                    if (publishedPPlayer == null || this.partialPPlayers.remove(playerUUID)) {
+                        particleManager.addPPlayer(loadedPPlayer);
+                        publishedPPlayer = loadedPPlayer;
                     }
+
+                    if (pendingLoad != null)
+                        pendingLoad.complete(publishedPPlayer);
                 }
+            });
+        }, () -> {
+            // The load never ran, release it so a later request can try again
+            for (UUID playerUUID : playerUUIDs) {
+                CompletableFuture<PPlayer> pendingLoad = this.pendingLoads.remove(playerUUID);
+                if (pendingLoad != null)
+                    pendingLoad.cancel(false);
+            }
+        });
+    }
 
-                // Load fixed effects
-                String fixedQuery = "SELECT f.id AS f_id, f.world, f.xPos, f.yPos, f.zPos, p.id AS p_id, p.effect, p.style, p.item_material, p.block_material, p.note, p.r, p.g, p.b FROM " + this.getTablePrefix() + "fixed f " +
-        						    "JOIN " + this.getTablePrefix() + "particle p ON f.particle_uuid = p.uuid " +
-        						    "WHERE f.owner_uuid = ?";
-                try (PreparedStatement statement = connection.prepareStatement(fixedQuery)) {
-                    statement.setString(1, playerUUID.toString());
-
-                    ResultSet result = statement.executeQuery();
-                    while (result.next()) {
-                        // Fixed effect properties
-                        int fixedEffectId = result.getInt("f_id");
-                        double xPos = result.getDouble("xPos");
-                        double yPos = result.getDouble("yPos");
-                        double zPos = result.getDouble("zPos");
-                        World world = Bukkit.getWorld(result.getString("world"));
-                        if (world == null) {
-                            // World was deleted, remove the fixed effect as it is no longer valid
-                            this.removeFixedEffect(playerUUID, fixedEffectId);
-                            continue;
-                        }
+    /**
+     * Creates PPlayers from their saved data, saving any changes needed to clean up data that is no longer valid
+     * These saves are made even if the player is still partial, since the full PPlayer is about to replace it
+     *
+     * @param playerUUIDs The players to create
+     * @param documents The saved data of the players, players without any saved data are created with the defaults
+     * @return The created PPlayers
+     */
+    private Map<UUID, PPlayer> createPPlayers(List<UUID> playerUUIDs, Map<UUID, PlayerDocument> documents) {
+        Map<UUID, PPlayer> pplayers = new HashMap<>();
+        Map<UUID, Map<String, ParticleGroup>> groups = new HashMap<>();
+        Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles = new HashMap<>();
+        for (UUID playerUUID : playerUUIDs) {
+            groups.put(playerUUID, new ConcurrentHashMap<>());
+            fixedParticles.put(playerUUID, new ConcurrentHashMap<>());
+        }
 
-                        // Particle properties
-                        int particleId = result.getInt("p_id");
-                        ParticleEffect effect = ParticleEffect.fromInternalName(result.getString("effect"));
-                        ParticleStyle style = ParticleStyle.fromInternalName(result.getString("style"));
-                        Material itemMaterial = ParticleUtils.closestMatchWithFallback(true, result.getString("item_material"));
-                        Material blockMaterial = ParticleUtils.closestMatchWithFallback(true, result.getString("block_material"));
-                        NoteColor noteColor = new NoteColor(result.getInt("note"));
-                        OrdinaryColor color = new OrdinaryColor(result.getInt("r"), result.getInt("g"), result.getInt("b"));
-                        ParticlePair particle = new ParticlePair(playerUUID, particleId, effect, style, itemMaterial, blockMaterial, color, noteColor);
-
-                        // Effect or style is now missing or disabled, remove the fixed effect
-                        if (effect == null || style == null) {
-                            this.removeFixedEffect(playerUUID, fixedEffectId);
-                            continue;
-                        }
+        Map<UUID, Set<String>> modifiedGroups = new HashMap<>();
+        for (Map.Entry<UUID, PlayerDocument> entry : documents.entrySet()) {
+            UUID playerUUID = entry.getKey();
+            for (Map.Entry<String, List<ParticleData>> group : entry.getValue().getGroups().entrySet()) {
+                groups.get(playerUUID).computeIfAbsent(group.getKey().toLowerCase(), k -> new ParticleGroup(group.getKey(), new ConcurrentHashMap<>()));
+                for (ParticleData particle : group.getValue())
+                    this.addGroupParticle(playerUUID, group.getKey(), particle, groups, modifiedGroups);
+            }
 
-                        fixedParticles.put(fixedEffectId, new FixedParticleEffect(playerUUID, fixedEffectId, new Location(world, xPos, yPos, zPos), particle));
-                    }
-                }
+            for (FixedEffectData fixedEffect : entry.getValue().getFixedEffects())
+                this.addFixedEffect(playerUUID, fixedEffect, fixedParticles);
+        }
 
-                // If there aren't any groups then this is a brand new PPlayer and we need to save a new active group for them
-                boolean activeGroupExists = false;
-                for (ParticleGroup group : groups.values()) {
-                    if (group.getName().equals(ParticleGroup.DEFAULT_NAME)) {
-                        activeGroupExists = true;
-                        break;
-                    }
-                }
+        // Update modified groups
+        for (Map.Entry<UUID, Set<String>> entry : modifiedGroups.entrySet()) {
+            Map<String, ParticleGroup> playerGroups = groups.get(entry.getKey());
+            for (String modifiedGroup : entry.getValue()) {
+                ParticleGroup group = playerGroups.get(modifiedGroup.toLowerCase());
+                this.queueGroupSave(entry.getKey(), group);
+                if (group.getParticles().isEmpty() && !group.getName().equals(ParticleGroup.DEFAULT_NAME))
+                    playerGroups.remove(modifiedGroup.toLowerCase());
+            }
+        }
 
-                if (!activeGroupExists) {
-                    ParticleGroup activeGroup = new ParticleGroup(ParticleGroup.DEFAULT_NAME, new ConcurrentHashMap<>());
-                    this.saveParticleGroup(playerUUID, activeGroup);
-                    groups.put(activeGroup.getName(), activeGroup);
-                }
+        for (UUID playerUUID : playerUUIDs) {
+            Map<String, ParticleGroup> playerGroups = groups.get(playerUUID);
 
-                PPlayer loadedPPlayer;
-                if (!playerUUID.equals(ConsolePPlayer.getUUID())) {
-                    loadedPPlayer = new PPlayer(playerUUID, groups, fixedParticles, particlesHidden);
-                } else {
-                    loadedPPlayer = new ConsolePPlayer(groups, fixedParticles);
-                }
+            // If there isn't an active group then this is a brand new PPlayer and we need to save a new active group for them
+            if (!playerGroups.containsKey(ParticleGroup.DEFAULT_NAME)) {
+                ParticleGroup activeGroup = new ParticleGroup(ParticleGroup.DEFAULT_NAME, new ConcurrentHashMap<>());
+                this.queueGroupSave(playerUUID, activeGroup);
+                playerGroups.put(activeGroup.getName(), activeGroup);
+            }
 
-                this.sync(() -> {
-                    this.playerParticles.getManager(ParticleManager.class).addPPlayer(loadedPPlayer);
-                    callback.accept(loadedPPlayer);
-                });
-            });
-        });
+            // Players without any saved data use the default settings, they are saved once they are changed
+            PlayerDocument document = documents.get(playerUUID);
+            boolean particlesHidden = document != null && document.isParticlesHidden();
+
+            if (!playerUUID.equals(ConsolePPlayer.getUUID())) {
+                pplayers.put(playerUUID, new PPlayer(playerUUID, playerGroups, fixedParticles.get(playerUUID), particlesHidden));
+            } else {
+                pplayers.put(playerUUID, new ConsolePPlayer(playerGroups, fixedParticles.get(playerUUID)));
+            }
+        }
+
+        return pplayers;
     }
 
     /**
-     * Loads all PPlayers from the database that own FixedParticleEffects
+     * Loads FixedParticleEffects from the data store, either all of them in a single pass or only the ones
+     * in loaded chunks if fixed effects are loaded with their chunks
+     * PPlayers from the snapshot taken when the plugin was last disabled are published without waiting for a full load if
+     * the data store hasn't changed since, online players in full and everyone else as partial PPlayers
+     * The fixed effects are still loaded as well to fill in anything the snapshot didn't have
+     * Fixed effects are always loaded in a single pass if the data store can't look them up by location
+     * Owners that aren't loaded yet are given a partial PPlayer holding only their fixed effects,
+     * their groups and settings are loaded once they are requested through {@link #getPPlayer(UUID, Consumer)}
      */
     public void loadFixedEffects() {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String query = "SELECT DISTINCT owner_uuid FROM " + this.getTablePrefix() + "fixed";
-            try (PreparedStatement statement = connection.prepareStatement(query)) {
-                ResultSet result = statement.executeQuery();
-                while (result.next()) {
-                    UUID playerUUID = UUID.fromString(result.getString("owner_uuid"));
-                    this.sync(() -> this.getPPlayer(playerUUID, (pplayer) -> { }));
-                }
+        this.partialPPlayers.clear();
+        this.loadedFixedEffectChunks.clear();
+        this.pendingFixedEffectChunks.clear();
+        this.restoreSnapshot();
+
+        if (this.isLoadingFixedEffectsWithChunks()) {
+            for (World world : Bukkit.getWorlds())
+                this.loadFixedEffects(world, Arrays.asList(world.getLoadedChunks()));
+            return;
+        }
+
+        this.async(() -> {
+            Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles = new HashMap<>();
+            try {
+                this.addFixedEffects(this.dataStore.loadFixedEffects(), fixedParticles);
+            } catch (StorageException ex) {
+                this.playerParticles.getLogger().severe("An error occurred loading fixed effects: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+
+            this.sync(() -> this.publishFixedEffects(fixedParticles));
+        });
+    }
+
+    /**
+     * Loads the FixedParticleEffects in a chunk from the data store the first time the chunk loads, must be called
+     * from the main thread. The chunks that load in the same tick are looked up together on the next tick
+     *
+     * @param chunk The chunk that loaded
+     */
+    public void loadFixedEffects(Chunk chunk) {
+        if (!this.isLoadingFixedEffectsWithChunks())
+            return;
+
+        if (this.pendingFixedEffectChunks.isEmpty())
+            this.sync(this::loadPendingFixedEffectChunks);
+        this.pendingFixedEffectChunks.computeIfAbsent(chunk.getWorld(), k -> new ArrayList<>()).add(chunk);
+    }
+
+    /**
+     * Loads the FixedParticleEffects of the chunks that loaded since the last time this ran, one lookup per world
+     */
+    private void loadPendingFixedEffectChunks() {
+        Map<World, List<Chunk>> chunks = new HashMap<>(this.pendingFixedEffectChunks);
+        this.pendingFixedEffectChunks.clear();
+        for (Map.Entry<World, List<Chunk>> entry : chunks.entrySet())
+            this.loadFixedEffects(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * @return true if fixed effects are loaded as their chunks load, otherwise false if they are all loaded at once
+     */
+    private boolean isLoadingFixedEffectsWithChunks() {
+        return Setting.FIXED_EFFECTS_LOAD_WITH_CHUNKS.getBoolean() && this.dataStore.canLoadFixedEffectsByChunk();
+    }
+
+    /**
+     * Loads the FixedParticleEffects in chunks from the data store, skipping chunks that have already been loaded
+     *
+     * @param world The world the chunks are in
+     * @param chunks The chunks to load the fixed effects of
+     */
+    private void loadFixedEffects(World world, List<Chunk> chunks) {
+        Set<Long> loadedChunks = this.loadedFixedEffectChunks.computeIfAbsent(world.getName(), k -> ConcurrentHashMap.newKeySet());
+        List<Chunk> unloadedChunks = new ArrayList<>();
+        for (Chunk chunk : chunks)
+            if (loadedChunks.add(((long) chunk.getX() << 32) | (chunk.getZ() & 0xFFFFFFFFL)))
+                unloadedChunks.add(chunk);
+
+        if (unloadedChunks.isEmpty())
+            return;
+
+        this.asyncLoad(() -> {
+            Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles = new HashMap<>();
+            try {
+                this.addFixedEffects(this.dataStore.loadFixedEffects(world.getName(), unloadedChunks), fixedParticles);
+            } catch (StorageException ex) {
+                this.playerParticles.getLogger().severe("An error occurred loading fixed effects: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+
+            this.sync(() -> this.publishFixedEffects(fixedParticles));
+        }, () -> {
+            // The load never ran, let the chunks be loaded again the next time they load
+            for (Chunk chunk : unloadedChunks)
+                loadedChunks.remove(((long) chunk.getX() << 32) | (chunk.getZ() & 0xFFFFFFFFL));
+        });
+    }
+
+    /**
+     * Adds a loaded particle to its group, creating the group if it hasn't been loaded yet
+     * Particles that are no longer valid are left out and their group is marked as modified so it gets saved without them
+     *
+     * @param playerUUID The owner of the group
+     * @param groupName The name of the group
+     * @param particleData The stored particle
+     * @param groups The groups loaded so far, grouped by owner
+     * @param modifiedGroups The names of the groups that need to be saved, grouped by owner
+     */
+    private void addGroupParticle(UUID playerUUID, String groupName, ParticleData particleData, Map<UUID, Map<String, ParticleGroup>> groups, Map<UUID, Set<String>> modifiedGroups) {
+        Map<String, ParticleGroup> playerGroups = groups.get(playerUUID);
+        ParticlePair particle = this.createParticle(playerUUID, particleData);
+
+        boolean invalid = particle.getEffect() == null || particle.getStyle() == null;
+        if (invalid) // Effect or style is now missing or disabled, remove the particle
+            modifiedGroups.computeIfAbsent(playerUUID, k -> new HashSet<>()).add(groupName);
+
+        // Try to add particle to an existing group
+        ParticleGroup group = playerGroups.get(groupName.toLowerCase());
+        if (group != null) {
+            if (!invalid)
+                group.getParticles().put(particle.getId(), particle);
+        } else {
+            // Add the particle to a new group if one didn't already exist
+            Map<Integer, ParticlePair> particles = new ConcurrentHashMap<>();
+            if (!invalid)
+                particles.put(particle.getId(), particle);
+            ParticleGroup newGroup = new ParticleGroup(groupName, particles);
+            playerGroups.put(newGroup.getName().toLowerCase(), newGroup);
+        }
+    }
+
+    /**
+     * Adds loaded fixed effects to the fixed effects of their owners
+     *
+     * @param fixedEffects The stored fixed effects, grouped by owner
+     * @param fixedParticles The fixed effects read so far, grouped by owner
+     */
+    private void addFixedEffects(Map<UUID, List<FixedEffectData>> fixedEffects, Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles) {
+        for (Map.Entry<UUID, List<FixedEffectData>> entry : fixedEffects.entrySet())
+            for (FixedEffectData fixedEffect : entry.getValue())
+                this.addFixedEffect(entry.getKey(), fixedEffect, fixedParticles);
+    }
+
+    /**
+     * Adds a loaded fixed effect to the fixed effects of its owner
+     * Fixed effects that are no longer valid are removed from the data store instead
+     *
+     * @param playerUUID The owner of the fixed effect
+     * @param fixedEffectData The stored fixed effect
+     * @param fixedParticles The fixed effects read so far, grouped by owner
+     */
+    private void addFixedEffect(UUID playerUUID, FixedEffectData fixedEffectData, Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles) {
+        int fixedEffectId = fixedEffectData.getId();
+        World world = Bukkit.getWorld(fixedEffectData.getWorld());
+        if (world == null) {
+            // World was deleted, remove the fixed effect as it is no longer valid
+            this.removeFixedEffect(playerUUID, fixedEffectId);
+            return;
+        }
+
+        // Effect or style is now missing or disabled, remove the fixed effect
+        ParticlePair particle = this.createParticle(playerUUID, fixedEffectData.getParticle());
+        if (particle.getEffect() == null || particle.getStyle() == null) {
+            this.removeFixedEffect(playerUUID, fixedEffectId);
+            return;
+        }
+
+        Location location = new Location(world, fixedEffectData.getX(), fixedEffectData.getY(), fixedEffectData.getZ());
+        fixedParticles.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>())
+                .put(fixedEffectId, new FixedParticleEffect(playerUUID, fixedEffectId, location, particle));
+    }
+
+    /**
+     * Creates a ParticlePair from its stored values, the effect and style are null if they no longer exist or are disabled
+     *
+     * @param playerUUID The owner of the particle
+     * @param particleData The stored particle
+     * @return The ParticlePair
+     */
+    private ParticlePair createParticle(UUID playerUUID, ParticleData particleData) {
+        ParticleEffect effect = ParticleEffect.fromInternalName(particleData.getEffect());
+        ParticleStyle style = ParticleStyle.fromInternalName(particleData.getStyle());
+        Material itemMaterial = ParticleUtils.closestMatchWithFallback(true, particleData.getItemMaterial());
+        Material blockMaterial = ParticleUtils.closestMatchWithFallback(true, particleData.getBlockMaterial());
+        NoteColor noteColor = new NoteColor(particleData.getNote());
+        OrdinaryColor color = new OrdinaryColor(particleData.getR(), particleData.getG(), particleData.getB());
+        return new ParticlePair(playerUUID, particleData.getId(), effect, style, itemMaterial, blockMaterial, color, noteColor);
+    }
+
+    /**
+     * Gets the values of a ParticlePair to store
+     *
+     * @param particle The ParticlePair
+     * @return The values to store
+     */
+    private ParticleData toParticleData(ParticlePair particle) {
+        return new ParticleData(particle.getId(), particle.getEffect().getInternalName(), particle.getStyle().getInternalName(),
+                particle.getItemMaterial().name(), particle.getBlockMaterial().name(), particle.getNoteColor().getNote(),
+                particle.getColor().getRed(), particle.getColor().getGreen(), particle.getColor().getBlue());
+    }
+
+    /**
+     * Gets the values of the particles in a group to store
+     *
+     * @param particles The particles in the group
+     * @return The values to store
+     */
+    private List<ParticleData> toParticleData(Collection<ParticlePair> particles) {
+        List<ParticleData> particleData = new ArrayList<>(particles.size());
+        for (ParticlePair particle : particles)
+            particleData.add(this.toParticleData(particle));
+        return particleData;
+    }
+
+    /**
+     * Gets the values of a FixedParticleEffect to store
+     *
+     * @param fixedEffect The FixedParticleEffect
+     * @return The values to store
+     */
+    private FixedEffectData toFixedEffectData(FixedParticleEffect fixedEffect) {
+        Location location = fixedEffect.getLocation();
+        return new FixedEffectData(fixedEffect.getId(), location.getWorld().getName(), location.getX(), location.getY(), location.getZ(),
+                this.toParticleData(fixedEffect.getParticlePair()));
+    }
+
+    /**
+     * Attaches loaded fixed effects to their owners, must be called from the main thread
+     * Owners that aren't loaded yet are given a partial PPlayer
+     *
+     * @param fixedParticles The loaded fixed effects, grouped by owner
+     */
+    private void publishFixedEffects(Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles) {
+        ParticleManager particleManager = this.playerParticles.getManager(ParticleManager.class);
+        for (Map.Entry<UUID, Map<Integer, FixedParticleEffect>> entry : fixedParticles.entrySet()) {
+            UUID playerUUID = entry.getKey();
+            if (this.pendingLoads.containsKey(playerUUID))
+                continue; // Being loaded with everything else
+
+            PPlayer loadedPPlayer = particleManager.getPPlayer(playerUUID);
+            if (loadedPPlayer != null) {
+                for (FixedParticleEffect fixedEffect : entry.getValue().values())
+                    if (loadedPPlayer.getFixedEffectById(fixedEffect.getId()) == null)
+                        loadedPPlayer.addFixedEffect(fixedEffect);
+                continue;
+            }
+
+            // Only the active group is needed so the PPlayer can be ticked, it is never saved
+            Map<String, ParticleGroup> groups = new ConcurrentHashMap<>();
+            groups.put(ParticleGroup.DEFAULT_NAME, new ParticleGroup(ParticleGroup.DEFAULT_NAME, new ConcurrentHashMap<>()));
+
+            PPlayer partialPPlayer;
+            if (!playerUUID.equals(ConsolePPlayer.getUUID())) {
+                partialPPlayer = new PPlayer(playerUUID, groups, entry.getValue(), false);
+            } else {
+                partialPPlayer = new ConsolePPlayer(groups, entry.getValue());
             }
-        }));
+
+            this.partialPPlayers.add(playerUUID);
+            particleManager.addPPlayer(partialPPlayer);
+        }
+    }
+
+    /**
+     * Called by a PPlayer after it gains a fixed effect so the fixed effect starts being displayed,
+     * must be called from the main thread
+     *
+     * @param fixedEffect The fixed effect that was added
+     */
+    public void onFixedEffectAdded(FixedParticleEffect fixedEffect) {
+        this.playerParticles.getManager(ParticleManager.class).indexFixedEffect(fixedEffect);
+    }
+
+    /**
+     * Called by a PPlayer after it loses a fixed effect so the fixed effect stops being displayed,
+     * must be called from the main thread
+     *
+     * @param fixedEffect The fixed effect that was removed
+     */
+    public void onFixedEffectRemoved(FixedParticleEffect fixedEffect) {
+        this.playerParticles.getManager(ParticleManager.class).unindexFixedEffect(fixedEffect);
     }
 
     /**
-     * Updates the particles_hidden setting in the database and for the PPlayer
+     * Called by a FixedParticleEffect after its coordinates change so it is displayed at its new location,
+     * must be called from the main thread
+     *
+     * @param fixedEffect The fixed effect that was moved
+     * @param previousX The x coordinate the fixed effect was at
+     * @param previousZ The z coordinate the fixed effect was at
+     */
+    public void onFixedEffectMoved(FixedParticleEffect fixedEffect, double previousX, double previousZ) {
+        this.playerParticles.getManager(ParticleManager.class).reindexFixedEffect(fixedEffect, previousX, previousZ);
+    }
+
+    /**
+     * Updates the particles_hidden setting in the data store and for the PPlayer
      *
      * @param playerUUID The player to hide PlayerParticles from
      * @param particlesHidden True if the particles should be hidden, otherwise False
      */
     public void updateSettingParticlesHidden(UUID playerUUID, boolean particlesHidden) {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String updateQuery = "UPDATE " + this.getTablePrefix() + "settings SET particles_hidden = ? WHERE player_uuid = ?";
-            try (PreparedStatement updateStatement = connection.prepareStatement(updateQuery)) {
-                updateStatement.setBoolean(1, particlesHidden);
-                updateStatement.setString(2, playerUUID.toString());
+        if (this.rejectPartialSave(playerUUID))
+            return;
 
-                updateStatement.executeUpdate();
-            }
-        }));
+        this.queueWrite(this.getSettingsWriteKey(playerUUID), (writer) -> writer.saveSettings(playerUUID, particlesHidden));
     }
 
     /**
      * Saves a ParticleGroup. If it already exists, update it. If it's empty, delete it.
+     * The particles in the group are read when the save is written, so only the latest state of the group is saved
      *
      * @param playerUUID The owner of the group
      * @param group The group to create/update
      */
     public void saveParticleGroup(UUID playerUUID, ParticleGroup group) {
-        if (group.getParticles().isEmpty() && !group.getName().equals(ParticleGroup.DEFAULT_NAME)) {
-            this.removeParticleGroup(playerUUID, group.getName());
+        if (this.rejectPartialSave(playerUUID))
+            return;
+
+        this.queueGroupSave(playerUUID, group);
+    }
+
+    /**
+     * Queues a ParticleGroup to be saved without checking if its owner is partial,
+     * only used while the owner's full PPlayer is being created from their saved data
+     *
+     * @param playerUUID The owner of the group
+     * @param group The group to create/update
+     */
+    private void queueGroupSave(UUID playerUUID, ParticleGroup group) {
+        String groupName = group.getName();
+        if (group.getParticles().isEmpty() && !groupName.equals(ParticleGroup.DEFAULT_NAME)) {
+            this.queueWrite(this.getGroupWriteKey(playerUUID, groupName), (writer) -> writer.removeGroup(playerUUID, groupName));
             return;
         }
 
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String groupUUID;
-            boolean existingGroup;
+        this.queueWrite(this.getGroupWriteKey(playerUUID, groupName), (writer) -> writer.saveGroup(playerUUID, groupName, this.toParticleData(group.getParticles().values())));
+    }
 
-            String groupUUIDQuery = "SELECT uuid FROM " + this.getTablePrefix() + "group WHERE owner_uuid = ? AND name = ?";
-            try (PreparedStatement statement = connection.prepareStatement(groupUUIDQuery)) {
-                statement.setString(1, playerUUID.toString());
-                statement.setString(2, group.getName());
+    /**
+     * Removes a ParticleGroup
+     *
+     * @param playerUUID The owner of the group
+     * @param groupName The group to remove
+     */
+    public void removeParticleGroup(UUID playerUUID, String groupName) {
+        if (this.rejectPartialSave(playerUUID))
+            return;
 
-                ResultSet result = statement.executeQuery();
-                if (result.next()) { // Clear out particles from existing group
-                    groupUUID = result.getString("uuid");
-                    existingGroup = true;
-                } else { // Create new group
-                    groupUUID = UUID.randomUUID().toString();
-                    existingGroup = false;
-                }
-            }
+        this.queueWrite(this.getGroupWriteKey(playerUUID, groupName), (writer) -> writer.removeGroup(playerUUID, groupName));
+    }
 
-            if (existingGroup) {
-                String particlesDeleteQuery = "DELETE FROM " + this.getTablePrefix() + "particle WHERE group_uuid = ?";
-                try (PreparedStatement particlesDeleteStatement = connection.prepareStatement(particlesDeleteQuery)) {
-                    particlesDeleteStatement.setString(1, groupUUID);
-                    particlesDeleteStatement.executeUpdate();
-                }
-            } else {
-                String groupCreateQuery = "INSERT INTO " + this.getTablePrefix() + "group (uuid, owner_uuid, name) VALUES (?, ?, ?)";
-                try (PreparedStatement groupCreateStatement = connection.prepareStatement(groupCreateQuery)) {
-                    groupCreateStatement.setString(1, groupUUID);
-                    groupCreateStatement.setString(2, playerUUID.toString());
-                    groupCreateStatement.setString(3, group.getName());
-                    groupCreateStatement.executeUpdate();
+    /**
+     * Checks if a player's groups or settings can't be saved because only their fixed effects are loaded
+     * Saving them would replace the player's saved groups and settings with the empty ones of the partial PPlayer
+     *
+     * @param playerUUID The player being saved
+     * @return true if the save must be skipped, otherwise false
+     */
+    private boolean rejectPartialSave(UUID playerUUID) {
+        if (!this.partialPPlayers.contains(playerUUID))
+            return false;
+
+        this.playerParticles.getLogger().warning("Skipped saving the groups or settings of " + playerUUID + " since they have not finished loading.");
+        return true;
+    }
+
+    /**
+     * Saves a fixed effect to save data, replacing any fixed effect with the same id
+     *
+     * @param fixedEffect The fixed effect to save
+     */
+    public void saveFixedEffect(FixedParticleEffect fixedEffect) {
+        UUID playerUUID = fixedEffect.getOwnerUniqueId();
+        this.queueWrite(this.getFixedEffectWriteKey(playerUUID, fixedEffect.getId()), (writer) -> writer.saveFixedEffect(playerUUID, this.toFixedEffectData(fixedEffect)));
+    }
+
+    /**
+     * Updates a fixed effect's particle values
+     * The fixed effect is written in full so the update can be combined with a save that hasn't been written yet
+     *
+     * @param fixedEffect The fixed effect to update
+     */
+    public void updateFixedEffect(FixedParticleEffect fixedEffect) {
+        this.saveFixedEffect(fixedEffect);
+    }
+
+    /**
+     * Deletes a fixed effect from save data
+     * Does not perform a check to see if a fixed effect with this id already exists
+     *
+     * @param playerUUID The player who owns the effect
+     * @param id The id of the effect to remove
+     */
+    public void removeFixedEffect(UUID playerUUID, int id) {
+        this.queueWrite(this.getFixedEffectWriteKey(playerUUID, id), (writer) -> writer.removeFixedEffect(playerUUID, id));
+    }
+
+    /**
+     * Queues a write to the data store, replacing any queued write to the same entity that hasn't been flushed yet
+     * Writes are flushed together in a single batch every data save interval
+     *
+     * @param key The key of the entity being written
+     * @param write The write to perform
+     */
+    private void queueWrite(String key, Write write) {
+        synchronized (this.pendingWrites) {
+            this.pendingWrites.put(key, write);
+        }
+
+        if (this.writeTask == null)
+            this.scheduleFlush();
+    }
+
+    /**
+     * Queues a flush of the pending writes on the database executor, at most one flush waits in the queue at a time
+     * If the queue is full, the configured backpressure policy decides what happens to the pending writes
+     */
+    private void scheduleFlush() {
+        if (this.flushRetryScheduled.get() || !this.flushScheduled.compareAndSet(false, true))
+            return; // Already queued, or waiting to retry a failed save
+
+        Runnable flush = () -> {
+            this.flushScheduled.set(false);
+            this.flushWrites();
+        };
+        Runnable cancelFlush = () -> this.flushScheduled.set(false); // The writes stay pending, they are flushed on disable
+
+        if (this.databaseExecutor.tryExecute(flush, cancelFlush))
+            return;
+
+        switch (this.getBackpressurePolicy()) {
+            case COALESCE:
+            case REJECT:
+                // Keep the writes pending so they combine with later changes, the next save interval or retry writes them
+                // Only new loads are turned away under REJECT, changes that were already made are never discarded
+                if (this.writeTask == null) {
+                    Bukkit.getScheduler().runTaskLaterAsynchronously(this.playerParticles, () -> {
+                        this.flushScheduled.set(false);
+                        this.scheduleFlush();
+                    }, 20);
+                } else {
+                    this.flushScheduled.set(false);
                 }
+                break;
+            case DELAY:
+                this.databaseExecutor.execute(flush, cancelFlush);
+                break;
+        }
+    }
+
+    /**
+     * @return The configured policy for when the database queue is full
+     */
+    private BackpressurePolicy getBackpressurePolicy() {
+        return BackpressurePolicy.fromName(Setting.DATABASE_BACKPRESSURE_POLICY.getString());
+    }
+
+    /**
+     * Writes all queued writes to the data store in a single batch
+     * If the batch fails it is queued again and retried later, unless the plugin is being disabled
+     * Blocks until the writes have completed, must not be called from the main thread except while disabling
+     *
+     * @return true if there was nothing to write or the writes were saved, otherwise false
+     */
+    private boolean flushWrites() {
+        synchronized (this.flushLock) {
+            Map<String, Write> writes;
+            synchronized (this.pendingWrites) {
+                if (this.pendingWrites.isEmpty())
+                    return true;
+
+                writes = new LinkedHashMap<>(this.pendingWrites);
+                this.pendingWrites.clear();
             }
 
-            // Fill group with new particles
-            String createParticlesQuery = "INSERT INTO " + this.getTablePrefix() + "particle (uuid, group_uuid, id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement particlesStatement = connection.prepareStatement(createParticlesQuery)) {
-                for (ParticlePair particle : group.getParticles().values()) {
-                    particlesStatement.setString(1, UUID.randomUUID().toString());
-                    particlesStatement.setString(2, groupUUID);
-                    particlesStatement.setInt(3, particle.getId());
-                    particlesStatement.setString(4, particle.getEffect().getInternalName());
-                    particlesStatement.setString(5, particle.getStyle().getInternalName());
-                    particlesStatement.setString(6, particle.getItemMaterial().name());
-                    particlesStatement.setString(7, particle.getBlockMaterial().name());
-                    particlesStatement.setInt(8, particle.getNoteColor().getNote());
-                    particlesStatement.setInt(9, particle.getColor().getRed());
-                    particlesStatement.setInt(10, particle.getColor().getGreen());
-                    particlesStatement.setInt(11, particle.getColor().getBlue());
-                    particlesStatement.addBatch();
+            try {
+                this.dataStore.write(new ArrayList<>(writes.values()));
+                this.flushFailures.set(0);
+                return true;
+            } catch (StorageException ex) {
+                // Put the batch back, anything queued for the same entity since then is newer and is kept instead
+                synchronized (this.pendingWrites) {
+                    for (Map.Entry<String, Write> entry : writes.entrySet())
+                        this.pendingWrites.putIfAbsent(entry.getKey(), entry.getValue());
                 }
 
-                particlesStatement.executeBatch();
+                this.playerParticles.getLogger().severe("An error occurred saving player data: " + ex.getMessage());
+                ex.printStackTrace();
+                this.scheduleFlushRetry(this.flushFailures.incrementAndGet());
+                return false;
             }
-        }));
+        }
     }
 
     /**
-     * Removes a ParticleGroup
+     * Logs the state of the database queue if more tasks are waiting to run than the configured threshold,
+     * so a database that can't keep up with the server shows up in the console
+     */
+    private void logDatabaseLoad() {
+        DatabaseExecutor executor = this.databaseExecutor;
+        int waiting = executor.getQueueDepth() + executor.getOverflowDepth();
+        if (waiting < Setting.DATABASE_LOAD_WARNING_THRESHOLD.getInt())
+            return;
+
+        int unsavedWrites;
+        synchronized (this.pendingWrites) {
+            unsavedWrites = this.pendingWrites.size();
+        }
+
+        this.playerParticles.getLogger().warning(String.format("The database is falling behind: %d tasks queued, %d waiting for room in the queue, %d running, %d unsaved changes. " +
+                        "Tasks have waited %.1fms on average (%.1fms max) and run for %.1fms on average (%.1fms max), %d finished and %d found the queue full.",
+                executor.getQueueDepth(), executor.getOverflowDepth(), executor.getActiveTasks(), unsavedWrites,
+                executor.getAverageWaitTime(), executor.getMaxWaitTime(), executor.getAverageExecutionTime(), executor.getMaxExecutionTime(),
+                executor.getCompletedTasks(), executor.getRejectedTasks()));
+    }
+
+    /**
+     * Retries a failed save after a delay that doubles with each failure in a row
+     * Nothing is scheduled while the plugin is disabled, the pending writes are kept in the snapshot instead
      *
-     * @param playerUUID The owner of the group
-     * @param groupName The group to remove
+     * @param failures The number of saves in a row that have failed
      */
-    public void removeParticleGroup(UUID playerUUID, String groupName) {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String groupQuery = "SELECT * FROM " + this.getTablePrefix() + "group WHERE owner_uuid = ? AND name = ?";
-            String particleDeleteQuery = "DELETE FROM " + this.getTablePrefix() + "particle WHERE group_uuid = ?";
-            String groupDeleteQuery = "DELETE FROM " + this.getTablePrefix() + "group WHERE uuid = ?";
+    private void scheduleFlushRetry(int failures) {
+        if (!this.playerParticles.isEnabled() || !this.flushRetryScheduled.compareAndSet(false, true))
+            return;
 
-            // Execute group uuid query
-            String groupUUID = null;
-            try (PreparedStatement statement = connection.prepareStatement(groupQuery)) {
-                statement.setString(1, playerUUID.toString());
-                statement.setString(2, groupName);
+        long delay = Math.min(MAX_FLUSH_RETRY_DELAY, FLUSH_RETRY_DELAY << Math.min(failures - 1, 6));
+        this.playerParticles.getLogger().warning("Retrying the save in " + (delay / 20) + " seconds.");
+        Bukkit.getScheduler().runTaskLaterAsynchronously(this.playerParticles, () -> {
+            this.flushRetryScheduled.set(false);
+            this.scheduleFlush();
+        }, delay);
+    }
 
-                ResultSet result = statement.executeQuery();
-                if (result.next()) {
-                    groupUUID = result.getString("uuid");
-                }
+    /**
+     * Queues the changes that could not be saved before the snapshot was written again
+     * Fully loaded players are saved in full, which also removes any of their groups and fixed effects that were removed
+     * Only the fixed effects of partial players are ever saved, so they are saved one at a time
+     *
+     * @param snapshot The snapshot holding the changes
+     */
+    private void queueUnsavedWrites(PlayerSnapshot snapshot) {
+        Set<UUID> replacedPlayers = new HashSet<>();
+        for (String key : snapshot.getUnsavedWrites()) {
+            String[] parts = key.split(":", 3);
+            UUID playerUUID = UUID.fromString(parts[1]);
+
+            PlayerDocument document = snapshot.getPlayers().get(playerUUID);
+            if (document != null) {
+                if (replacedPlayers.add(playerUUID))
+                    this.queueWrite(this.getPlayerWriteKey(playerUUID), (writer) -> writer.replacePlayer(playerUUID, document));
+                continue;
             }
 
-            // Execute particle delete update
-            try (PreparedStatement statement = connection.prepareStatement(particleDeleteQuery)) {
-                statement.setString(1, groupUUID);
+            PlayerDocument partialDocument = snapshot.getPartialPlayers().get(playerUUID);
+            if (partialDocument == null || !key.startsWith("fixed:"))
+                continue;
 
-                statement.executeUpdate();
+            int id = Integer.parseInt(parts[2]);
+            FixedEffectData fixedEffect = partialDocument.getFixedEffects().stream().filter(x -> x.getId() == id).findFirst().orElse(null);
+            if (fixedEffect != null) {
+                this.queueWrite(key, (writer) -> writer.saveFixedEffect(playerUUID, fixedEffect));
+            } else {
+                this.queueWrite(key, (writer) -> writer.removeFixedEffect(playerUUID, id));
             }
+        }
+    }
+
+    private String getPlayerWriteKey(UUID playerUUID) {
+        return "player:" + playerUUID;
+    }
+
+    private String getSettingsWriteKey(UUID playerUUID) {
+        return "settings:" + playerUUID;
+    }
+
+    private String getGroupWriteKey(UUID playerUUID, String groupName) {
+        return "group:" + playerUUID + ":" + groupName.toLowerCase();
+    }
 
-            // Execute group delete update
-            try (PreparedStatement statement = connection.prepareStatement(groupDeleteQuery)) {
-                statement.setString(1, groupUUID);
+    private String getFixedEffectWriteKey(UUID playerUUID, int id) {
+        return "fixed:" + playerUUID + ":" + id;
+    }
 
-                statement.executeUpdate();
+    /**
+     * Copies player data between the database and the local log when the storage mode is changed to or from the log
+     * The log is filled from the database until one copy has completed, and an existing log is copied back into the database once another
+     * storage mode is chosen, then moved aside so it isn't copied again. Must be called once the database has been migrated.
+     */
+    public void migrateLocalStore() {
+        File logDirectory = this.getLogDirectory();
+        try {
+            if (this.storageMode == StorageMode.LOG) {
+                LogPlayerDataStore logStore = (LogPlayerDataStore) this.dataStore;
+                if (logStore.isImported())
+                    return;
+
+                // Players already in the log were copied by an earlier attempt that didn't finish, or have been saved to
+                // the log since, either way the log has their latest data
+                int copied = this.copyPlayers(this.createDatabaseStore(this.getDatabaseStorageMode()), logStore, playerUUID -> !logStore.hasPlayer(playerUUID));
+                logStore.markImported();
+                if (copied > 0)
+                    this.playerParticles.getLogger().info("Copied the data of " + copied + " players from the database into the local log.");
+            } else if (LogPlayerDataStore.exists(logDirectory)) {
+                LogPlayerDataStore logStore = new LogPlayerDataStore(logDirectory, this.playerParticles.getLogger());
+                int copied;
+                try {
+                    copied = this.copyPlayers(logStore, this.dataStore, playerUUID -> true);
+                } finally {
+                    logStore.close();
+                }
+
+                File movedDirectory = new File(logDirectory.getParentFile(), logDirectory.getName() + "-" + System.currentTimeMillis());
+                Files.move(logDirectory.toPath(), movedDirectory.toPath());
+                this.playerParticles.getLogger().info("Copied the data of " + copied + " players from the local log into the database, the log has been moved to " + movedDirectory.getName() + ".");
             }
-        }));
+        } catch (IOException | StorageException ex) {
+            this.playerParticles.getLogger().severe("An error occurred copying player data to or from the local log: " + ex.getMessage());
+            ex.printStackTrace();
+        }
     }
 
     /**
-     * Saves a fixed effect to save data
-     * Does not perform a check to see if a fixed effect with this id already exists
+     * Copies every player from one data store into another in batches, replacing any data the other store already has for them
      *
-     * @param fixedEffect The fixed effect to save
+     * @param source The store to copy from
+     * @param target The store to copy into
+     * @param filter Decides which players are copied
+     * @return The number of players copied
+     * @throws StorageException If the players could not be read or written
      */
-    public void saveFixedEffect(FixedParticleEffect fixedEffect) {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String particleUUID = UUID.randomUUID().toString();
-
-            String particleQuery = "INSERT INTO " + this.getTablePrefix() + "particle (uuid, id, effect, style, item_material, block_material, note, r, g, b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement statement = connection.prepareStatement(particleQuery)) {
-                ParticlePair particle = fixedEffect.getParticlePair();
-                statement.setString(1, particleUUID);
-                statement.setInt(2, fixedEffect.getId());
-                statement.setString(3, particle.getEffect().getInternalName());
-                statement.setString(4, particle.getStyle().getInternalName());
-                statement.setString(5, particle.getItemMaterial().name());
-                statement.setString(6, particle.getBlockMaterial().name());
-                statement.setInt(7, particle.getNoteColor().getNote());
-                statement.setInt(8, particle.getColor().getRed());
-                statement.setInt(9, particle.getColor().getGreen());
-                statement.setInt(10, particle.getColor().getBlue());
-                statement.executeUpdate();
+    private int copyPlayers(PlayerDataStore source, PlayerDataStore target, Predicate<UUID> filter) throws StorageException {
+        List<Write> batch = new ArrayList<>(COPY_BATCH_SIZE);
+        AtomicInteger copied = new AtomicInteger();
+        source.forEachPlayer((playerUUID, document) -> {
+            if (!filter.test(playerUUID))
+                return;
+
+            batch.add((writer) -> writer.replacePlayer(playerUUID, document));
+            if (batch.size() == COPY_BATCH_SIZE) {
+                target.write(batch);
+                copied.addAndGet(batch.size());
+                batch.clear();
             }
+        });
 
-            String fixedEffectQuery = "INSERT INTO " + this.getTablePrefix() + "fixed (owner_uuid, id, particle_uuid, world, xPos, yPos, zPos) VALUES (?, ?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement statement = connection.prepareStatement(fixedEffectQuery)) {
-                statement.setString(1, fixedEffect.getOwnerUniqueId().toString());
-                statement.setInt(2, fixedEffect.getId());
-                statement.setString(3, particleUUID);
-                statement.setString(4, fixedEffect.getLocation().getWorld().getName());
-                statement.setDouble(5, fixedEffect.getLocation().getX());
-                statement.setDouble(6, fixedEffect.getLocation().getY());
-                statement.setDouble(7, fixedEffect.getLocation().getZ());
-                statement.executeUpdate();
-            }
-        }));
+        if (!batch.isEmpty()) {
+            target.write(batch);
+            copied.addAndGet(batch.size());
+        }
+
+        return copied.get();
     }
 
     /**
-     * Updates a fixed effect's particle values
+     * Creates a data store for player data held in the database
      *
-     * @param fixedEffect The fixed effect to update
+     * @param storageMode The storage mode the database is in
+     * @return The data store
      */
-    public void updateFixedEffect(FixedParticleEffect fixedEffect) {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            // Update fixed effect
-            String fixedEffectQuery = "UPDATE " + this.getTablePrefix() + "fixed SET xPos = ?, yPos = ?, zPos = ? WHERE owner_uuid = ? AND id = ?";
-            try (PreparedStatement statement = connection.prepareStatement(fixedEffectQuery)) {
-                statement.setDouble(1, fixedEffect.getLocation().getX());
-                statement.setDouble(2, fixedEffect.getLocation().getY());
-                statement.setDouble(3, fixedEffect.getLocation().getZ());
-                statement.setString(4, fixedEffect.getOwnerUniqueId().toString());
-                statement.setInt(5, fixedEffect.getId());
-                statement.executeUpdate();
+    private PlayerDataStore createDatabaseStore(StorageMode storageMode) {
+        if (storageMode == StorageMode.DOCUMENT)
+            return new DocumentPlayerDataStore(this.databaseConnector, this.queries);
+        return new TablePlayerDataStore(this.databaseConnector, this.queries);
+    }
+
+    /**
+     * @return The storage mode the data in the database was last converted to
+     */
+    private StorageMode getDatabaseStorageMode() {
+        AtomicReference<StorageMode> storageMode = new AtomicReference<>(StorageMode.TABLES);
+        this.databaseConnector.read((connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(this.queries.get(Query.SELECT_STORAGE_MODE))) {
+                ResultSet result = statement.executeQuery();
+                if (result.next())
+                    storageMode.set(StorageMode.fromName(result.getString("mode")));
             }
+        });
+        return storageMode.get();
+    }
 
-            // Update particle
-            String particleUpdateQuery = "UPDATE " + this.getTablePrefix() + "particle " +
-                                         "SET effect = ?, style = ?, item_material = ?, block_material = ?, note = ?, r = ?, g = ?, b = ? " +
-                                         "WHERE uuid = (SELECT particle_uuid FROM " + this.getTablePrefix() + "fixed WHERE owner_uuid = ? AND id = ?)";
-            try (PreparedStatement statement = connection.prepareStatement(particleUpdateQuery)) {
-                ParticlePair particle = fixedEffect.getParticlePair();
-                statement.setString(1, particle.getEffect().getInternalName());
-                statement.setString(2, particle.getStyle().getInternalName());
-                statement.setString(3, particle.getItemMaterial().name());
-                statement.setString(4, particle.getBlockMaterial().name());
-                statement.setInt(5, particle.getNoteColor().getNote());
-                statement.setInt(6, particle.getColor().getRed());
-                statement.setInt(7, particle.getColor().getGreen());
-                statement.setInt(8, particle.getColor().getBlue());
-                statement.setString(9, fixedEffect.getOwnerUniqueId().toString());
-                statement.setInt(10, fixedEffect.getId());
-                statement.executeUpdate();
+    /**
+     * @return The directory holding the local log
+     */
+    private File getLogDirectory() {
+        return new File(this.playerParticles.getDataFolder(), "playerdata");
+    }
+
+    /**
+     * Writes the loaded PPlayers to the snapshot file along with the current change marker of the data store
+     * and the keys of any changes that are still waiting to be saved
+     */
+    private void writeSnapshot() {
+        Map<UUID, PlayerDocument> players = new LinkedHashMap<>();
+        Map<UUID, PlayerDocument> partialPlayers = new LinkedHashMap<>();
+        for (PPlayer pplayer : this.playerParticles.getManager(ParticleManager.class).getPPlayers()) {
+            if (this.partialPPlayers.contains(pplayer.getUniqueId())) {
+                partialPlayers.put(pplayer.getUniqueId(), this.toDocument(pplayer, true));
+            } else {
+                players.put(pplayer.getUniqueId(), this.toDocument(pplayer, false));
+            }
+        }
+
+        List<String> unsavedWrites;
+        synchronized (this.pendingWrites) {
+            unsavedWrites = new ArrayList<>(this.pendingWrites.keySet());
+        }
+
+        String changeMarker;
+        try {
+            changeMarker = this.dataStore.getChangeMarker();
+        } catch (StorageException ex) {
+            if (unsavedWrites.isEmpty()) {
+                this.playerParticles.getLogger().warning("Unable to write the particle snapshot, player data will be loaded from the data store on the next start: " + ex.getMessage());
+                return;
             }
-        }));
+
+            changeMarker = ""; // Never matches, only the unsaved changes will be used
+        }
+
+        try {
+            new PlayerSnapshot(changeMarker, players, partialPlayers, unsavedWrites).write(this.getSnapshotFile());
+            if (!unsavedWrites.isEmpty())
+                this.playerParticles.getLogger().warning(unsavedWrites.size() + " unsaved changes were kept in the particle snapshot, they will be saved on the next start.");
+        } catch (IOException ex) {
+            this.playerParticles.getLogger().warning("Unable to write the particle snapshot, player data will be loaded from the data store on the next start: " + ex.getMessage());
+            if (!unsavedWrites.isEmpty())
+                this.playerParticles.getLogger().severe(unsavedWrites.size() + " unsaved changes were lost.");
+        }
     }
 
     /**
-     * Deletes a fixed effect from save data
-     * Does not perform a check to see if a fixed effect with this id already exists
-     *
-     * @param playerUUID The player who owns the effect
-     * @param id The id of the effect to remove
+     * Restores the PPlayers from the snapshot file if the data store hasn't changed since it was written
+     * Any changes the snapshot holds that could not be saved are queued to be saved again either way
+     * The snapshot is read and checked on the database executor, then published on the main thread
      */
-    public void removeFixedEffect(UUID playerUUID, int id) {
-        this.async(() -> this.databaseConnector.connect((connection) -> {
-            String particleUUID = null;
+    private void restoreSnapshot() {
+        File snapshotFile = this.getSnapshotFile();
+        if (!snapshotFile.exists())
+            return;
+
+        this.async(() -> {
+            PlayerSnapshot snapshot;
+            try {
+                snapshot = PlayerSnapshot.read(snapshotFile);
+            } catch (IOException ex) {
+                this.playerParticles.getLogger().warning("Unable to read the particle snapshot, player data will be loaded from the data store instead: " + ex.getMessage());
+                return;
+            }
+
+            // Checked before the unsaved changes are queued, saving them changes the change marker
+            boolean current;
+            try {
+                current = snapshot.getChangeMarker().equals(this.dataStore.getChangeMarker());
+            } catch (StorageException ex) {
+                this.playerParticles.getLogger().warning("Unable to read the particle snapshot, player data will be loaded from the data store instead: " + ex.getMessage());
+                current = false;
+            }
 
-            String particleUUIDQuery = "SELECT particle_uuid FROM " + this.getTablePrefix() + "fixed WHERE owner_uuid = ? AND id = ?";
-            try (PreparedStatement statement = connection.prepareStatement(particleUUIDQuery)) {
-                statement.setString(1, playerUUID.toString());
-                statement.setInt(2, id);
+            if (!snapshot.getUnsavedWrites().isEmpty()) {
+                this.playerParticles.getLogger().info("Saving " + snapshot.getUnsavedWrites().size() + " changes that could not be saved before the last shutdown.");
+                this.queueUnsavedWrites(snapshot);
 
-                ResultSet result = statement.executeQuery();
-                if (result.next()) {
-                    particleUUID = result.getString("particle_uuid");
+                // The changes are pending now, they must not be queued again if the snapshot is read again later
+                try {
+                    Files.deleteIfExists(snapshotFile.toPath());
+                } catch (IOException ex) {
+                    this.playerParticles.getLogger().warning("Unable to delete the particle snapshot: " + ex.getMessage());
                 }
             }
 
-            String particleDeleteQuery = "DELETE FROM " + this.getTablePrefix() + "particle WHERE uuid = ?";
-            try (PreparedStatement statement = connection.prepareStatement(particleDeleteQuery)) {
-                statement.setString(1, particleUUID);
+            if (current) // Otherwise player data has been saved since the snapshot was written
+                this.sync(() -> this.publishSnapshot(snapshot));
+        });
+    }
 
-                statement.executeUpdate();
+    /**
+     * Publishes the PPlayers from a snapshot, must be called from the main thread
+     * Only players that are online are published in full, completing their pending loads, everyone else only has their
+     * fixed effects published as a partial PPlayer so they don't stay loaded with groups and settings nobody is using
+     *
+     * @param snapshot The snapshot to publish
+     */
+    private void publishSnapshot(PlayerSnapshot snapshot) {
+        List<UUID> onlinePlayers = new ArrayList<>();
+        Map<UUID, List<FixedEffectData>> partialFixedEffects = new HashMap<>();
+        for (Map.Entry<UUID, PlayerDocument> entry : snapshot.getPlayers().entrySet()) {
+            UUID playerUUID = entry.getKey();
+            if (!playerUUID.equals(ConsolePPlayer.getUUID()) && Bukkit.getPlayer(playerUUID) == null) {
+                partialFixedEffects.put(playerUUID, new ArrayList<>(entry.getValue().getFixedEffects()));
+            } else if (this.getPPlayer(playerUUID) == null) { // Skip anyone who has already been loaded from the data store
+                onlinePlayers.add(playerUUID);
             }
+        }
 
-            String fixedEffectDeleteQuery = "DELETE FROM " + this.getTablePrefix() + "fixed WHERE owner_uuid = ? AND id = ?";
-            try (PreparedStatement statement = connection.prepareStatement(fixedEffectDeleteQuery)) {
-                statement.setString(1, playerUUID.toString());
-                statement.setInt(2, id);
+        for (Map.Entry<UUID, PlayerDocument> entry : snapshot.getPartialPlayers().entrySet())
+            partialFixedEffects.put(entry.getKey(), new ArrayList<>(entry.getValue().getFixedEffects()));
 
-                statement.executeUpdate();
-            }
-        }));
+        ParticleManager particleManager = this.playerParticles.getManager(ParticleManager.class);
+        onlinePlayers.forEach(this.partialPPlayers::remove);
+        for (PPlayer pplayer : this.createPPlayers(onlinePlayers, snapshot.getPlayers()).values()) {
+            particleManager.addPPlayer(pplayer);
+
+            // A load from the data store that finishes later keeps this PPlayer since it is already published
+            CompletableFuture<PPlayer> pendingLoad = this.pendingLoads.remove(pplayer.getUniqueId());
+            if (pendingLoad != null)
+                pendingLoad.complete(pplayer);
+        }
+
+        Map<UUID, Map<Integer, FixedParticleEffect>> fixedParticles = new HashMap<>();
+        this.addFixedEffects(partialFixedEffects, fixedParticles);
+        this.publishFixedEffects(fixedParticles);
     }
 
     /**
-     * Asynchronizes the callback with it's own thread unless it is already not on the main thread
+     * Gets the values of a PPlayer to store
      *
-     * @param asyncCallback The callback to run on a separate thread
+     * @param pplayer The PPlayer
+     * @param partial true to only include the fixed effects, for partial PPlayers that never loaded their groups and settings
+     * @return The values to store
+     */
+    private PlayerDocument toDocument(PPlayer pplayer, boolean partial) {
+        PlayerDocument document = new PlayerDocument();
+        if (!partial) {
+            document.setParticlesHidden(!pplayer.canSeeParticles());
+            for (ParticleGroup group : pplayer.getParticleGroups().values())
+                document.setGroup(group.getName(), this.toParticleData(group.getParticles().values()));
+        }
+
+        for (FixedParticleEffect fixedEffect : pplayer.getFixedParticles())
+            document.setFixedEffect(this.toFixedEffectData(fixedEffect));
+        return document;
+    }
+
+    /**
+     * @return The file the snapshot of loaded PPlayers is written to
+     */
+    private File getSnapshotFile() {
+        return new File(this.playerParticles.getDataFolder(), "snapshot.dat");
+    }
+
+    /**
+     * Runs the callback on the database executor, waiting in the overflow lane if the queue is full
+     *
+     * @param asyncCallback The callback to run on a database thread
      */
     private void async(Runnable asyncCallback) {
-        Bukkit.getScheduler().runTaskAsynchronously(this.playerParticles, asyncCallback);
+        this.databaseExecutor.execute(asyncCallback);
+    }
+
+    /**
+     * Runs a load on the database executor, waiting for room in the queue if it is full
+     * Under the REJECT backpressure policy the load is turned away instead while the queue is full
+     *
+     * @param asyncCallback The load to run on a database thread
+     * @param onCancel The callback to run instead if the load is turned away or never gets to run
+     */
+    private void asyncLoad(Runnable asyncCallback, Runnable onCancel) {
+        if (this.getBackpressurePolicy() != BackpressurePolicy.REJECT) {
+            this.databaseExecutor.execute(asyncCallback, onCancel);
+        } else if (!this.databaseExecutor.tryExecute(asyncCallback, onCancel)) {
+            this.playerParticles.getLogger().warning("The database queue is full, a load was turned away.");
+            onCancel.run();
+        }
     }
 
     /**
@@ -543,15 +1314,18 @@ public class DataManager extends Manager {
         return this.databaseConnector;
     }
 
+    /**
+     * @return The store player data is loaded from and saved to
+     */
+    public PlayerDataStore getDataStore() {
+        return this.dataStore;
+    }
+
     /**
      * @return the prefix to be used by all table names
      */
     public String getTablePrefix() {
-        if (this.databaseConnector instanceof MySQLConnector) {
-            return Setting.MYSQL_TABLE_PREFIX.getString();
-        } else {
-            return this.playerParticles.getDescription().getName().toLowerCase() + '_';
-        }
+        return this.tablePrefix;
     }
 
 }
@@ -5,6 +5,10 @@ import dev.esophose.playerparticles.database.DataMigration;
 import dev.esophose.playerparticles.database.DatabaseConnector;
 import dev.esophose.playerparticles.database.SQLiteConnector;
 import dev.esophose.playerparticles.database.migrations._1_InitialMigration;
+import dev.esophose.playerparticles.database.migrations._2_AddIndexesMigration;
+import dev.esophose.playerparticles.database.migrations._3_CompactKeysMigration;
+import dev.esophose.playerparticles.database.migrations._4_StorageModeMigration;
+import dev.esophose.playerparticles.database.migrations._5_ChangeMarkerMigration;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.Arrays;
@@ -15,12 +19,18 @@ import java.util.stream.Collectors;
 public class DataMigrationManager extends Manager {
 
     private List<DataMigration> migrations;
+    private DataMigration storageModeMigration;
 
     public DataMigrationManager(PlayerParticles playerParticles) {
         super(playerParticles);
 
+        this.storageModeMigration = new _4_StorageModeMigration();
         this.migrations = Arrays.asList(
-                new _1_InitialMigration()
+                new _1_InitialMigration(),
+                new _2_AddIndexesMigration(),
+                new _3_CompactKeysMigration(),
+                this.storageModeMigration,
+                new _5_ChangeMarkerMigration()
         );
     }
 
@@ -76,27 +86,28 @@ public class DataMigrationManager extends Manager {
                     .sorted(Comparator.comparingInt(DataMigration::getRevision))
                     .collect(Collectors.toList());
 
-            // Nothing to migrate, abort
-            if (requiredMigrations.isEmpty())
-                return;
-
-            // Migrate the data
-            for (DataMigration dataMigration : requiredMigrations)
+            // Migrate the data, the version is updated after each migration so a migration that fails or is interrupted
+            // doesn't cause the ones before it to run again
+            String updateVersion = "UPDATE " + this.getMigrationsTableName() + " SET migration_version = ?";
+            for (DataMigration dataMigration : requiredMigrations) {
+                this.playerParticles.getLogger().info("Migrating player data to revision " + dataMigration.getRevision() + "...");
+                long startTime = System.currentTimeMillis();
                 dataMigration.migrate(databaseConnector, connection, dataManager.getTablePrefix());
 
-            // Set the new current migration to be the highest migrated to
-            currentMigration = requiredMigrations
-                    .stream()
-                    .map(DataMigration::getRevision)
-                    .max(Integer::compareTo)
-                    .orElse(-1);
+                try (PreparedStatement statement = connection.prepareStatement(updateVersion)) {
+                    statement.setInt(1, dataMigration.getRevision());
+                    statement.execute();
+                }
 
-            String updateVersion = "UPDATE " + this.getMigrationsTableName() + " SET migration_version = ?";
-            try (PreparedStatement statement = connection.prepareStatement(updateVersion)) {
-                statement.setInt(1, currentMigration);
-                statement.execute();
+                this.playerParticles.getLogger().info("Migrated player data to revision " + dataMigration.getRevision() + " in " + (System.currentTimeMillis() - startTime) + "ms.");
             }
+
+            // The storage mode can be changed at any time, convert the data if it isn't stored in the configured mode
+            if (!requiredMigrations.contains(this.storageModeMigration))
+                this.storageModeMigration.migrate(databaseConnector, connection, dataManager.getTablePrefix());
         }));
+
+        dataManager.migrateLocalStore();
     }
 
     @Override
@@ -6,20 +6,34 @@ import dev.esophose.playerparticles.particles.ConsolePPlayer;
 import dev.esophose.playerparticles.particles.FixedParticleEffect;
 import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticleEffect;
 import dev.esophose.playerparticles.particles.ParticleEffect.NoteColor;
 import dev.esophose.playerparticles.particles.ParticleEffect.OrdinaryColor;
+import dev.esophose.playerparticles.particles.ParticleFrameCache;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSnapshot;
 import dev.esophose.playerparticles.styles.DefaultStyles;
+import dev.esophose.playerparticles.styles.ParticleStyle;
+import dev.esophose.playerparticles.util.SpatialIndex;
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.bukkit.Bukkit;
-import org.bukkit.GameMode;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -28,6 +42,9 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.scheduler.BukkitTask;
 
 public class ParticleManager extends Manager implements Listener, Runnable {
@@ -42,6 +59,41 @@ public class ParticleManager extends Manager implements Listener, Runnable {
      */
     private BukkitTask particleTask;
 
+    /**
+     * The state of the loaded PPlayers captured on the main thread for the current particle tick
+     */
+    private volatile ParticleSnapshot snapshot;
+
+    /**
+     * If the particles for the last captured snapshot are still being computed
+     */
+    private final AtomicBoolean ticking;
+
+    /**
+     * The pool used to calculate particle styles in parallel, null if particles are calculated on a single thread
+     */
+    private volatile ForkJoinPool workerPool;
+
+    /**
+     * The buffer the particle task writes each emitter's particles to when they are calculated on a single thread
+     */
+    private final ParticleBuffer particleBuffer;
+
+    /**
+     * The positions of all loaded fixed effects, kept up to date as fixed effects are added, removed and moved
+     */
+    private SpatialIndex<FixedParticleEffect> fixedEffectIndex;
+
+    /**
+     * The loaded chunks of each world, only fixed effects in these chunks are displayed
+     */
+    private final Map<World, Set<Long>> activeChunks;
+
+    /**
+     * The number of particle ticks displayed so far, used to tell which emitters are due to be displayed
+     */
+    private long tick;
+
     /**
      * Rainbow particle effect hue and note color used for rainbow colorable effects
      */
@@ -54,6 +106,13 @@ public class ParticleManager extends Manager implements Listener, Runnable {
 
         this.particlePlayers = new ConcurrentHashMap<>();
         this.particleTask = null;
+        this.snapshot = null;
+        this.ticking = new AtomicBoolean(false);
+        this.workerPool = null;
+        this.particleBuffer = new ParticleBuffer();
+        this.fixedEffectIndex = new SpatialIndex<>();
+        this.activeChunks = new HashMap<>();
+        this.tick = 0;
         this.hue = 0;
         this.note = 0;
         this.random = new Random();
@@ -66,12 +125,27 @@ public class ParticleManager extends Manager implements Listener, Runnable {
         if (this.particleTask != null)
             this.particleTask.cancel();
 
+        this.shutdownWorkerPool();
+        int workerThreads = Setting.PARTICLE_WORKER_THREADS.getInt();
+        if (workerThreads > 0)
+            this.workerPool = new ForkJoinPool(workerThreads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("PlayerParticles-Worker-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+
         Bukkit.getScheduler().runTaskLater(this.playerParticles, () -> {
             long ticks = Setting.TICKS_PER_PARTICLE.getLong();
-            this.particleTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this.playerParticles, this, 5, ticks);
+            this.particleTask = Bukkit.getScheduler().runTaskTimer(this.playerParticles, this, 5, ticks);
         }, 1);
 
         this.particlePlayers.clear();
+        this.snapshot = null;
+        this.fixedEffectIndex = new SpatialIndex<>();
+        this.activeChunks.clear();
+        for (World world : Bukkit.getWorlds())
+            for (Chunk chunk : world.getLoadedChunks())
+                this.activateChunk(chunk);
         DataManager dataManager = this.playerParticles.getManager(DataManager.class);
         dataManager.loadFixedEffects();
         for (Player player : Bukkit.getOnlinePlayers())
@@ -83,6 +157,18 @@ public class ParticleManager extends Manager implements Listener, Runnable {
     public void disable() {
         if (this.particleTask != null)
             this.particleTask.cancel();
+
+        this.shutdownWorkerPool();
+    }
+
+    /**
+     * Shuts down the worker pool if there is one, any ticks still being calculated on it are allowed to finish
+     */
+    private void shutdownWorkerPool() {
+        if (this.workerPool != null) {
+            this.workerPool.shutdown();
+            this.workerPool = null;
+        }
     }
 
     /**
@@ -110,6 +196,79 @@ public class ParticleManager extends Manager implements Listener, Runnable {
         }
     }
 
+    /**
+     * Starts displaying the fixed effects in a chunk when it loads
+     *
+     * @param e The event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        this.activateChunk(e.getChunk());
+        if (Setting.FIXED_EFFECTS_LOAD_WITH_CHUNKS.getBoolean())
+            this.playerParticles.getManager(DataManager.class).loadFixedEffects(e.getChunk());
+    }
+
+    /**
+     * Stops displaying the fixed effects in a chunk when it unloads
+     *
+     * @param e The event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Set<Long> chunks = this.activeChunks.get(e.getWorld());
+        if (chunks != null)
+            chunks.remove(getChunkKey(e.getChunk().getX(), e.getChunk().getZ()));
+    }
+
+    /**
+     * Forgets the loaded chunks of a world when it unloads
+     *
+     * @param e The event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        this.activeChunks.remove(e.getWorld());
+    }
+
+    /**
+     * Marks a chunk as loaded so the fixed effects in it are displayed
+     *
+     * @param chunk The chunk
+     */
+    private void activateChunk(Chunk chunk) {
+        this.activeChunks.computeIfAbsent(chunk.getWorld(), k -> new HashSet<>()).add(getChunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Gets the fixed effects that are in loaded chunks, must be called from the main thread
+     *
+     * @return The fixed effects in loaded chunks
+     */
+    private List<FixedParticleEffect> getActiveFixedEffects() {
+        List<FixedParticleEffect> fixedEffects = new ArrayList<>();
+        if (this.fixedEffectIndex.isEmpty())
+            return fixedEffects;
+
+        // Only the cells holding fixed effects are checked, there are usually far fewer of them than loaded chunks
+        for (Map.Entry<World, Set<Long>> entry : this.activeChunks.entrySet()) {
+            Set<Long> chunks = entry.getValue();
+            this.fixedEffectIndex.forEachInCells(entry.getKey(), (cellX, cellZ) -> chunks.contains(getChunkKey(cellX, cellZ)), (fixedEffect, x, y, z) -> fixedEffects.add(fixedEffect));
+        }
+
+        return fixedEffects;
+    }
+
+    /**
+     * Packs chunk coordinates into a single key
+     *
+     * @param chunkX The x coordinate of the chunk
+     * @param chunkZ The z coordinate of the chunk
+     * @return The chunk key
+     */
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     /**
      * Gets the PPlayers that are loaded
      * 
@@ -120,21 +279,125 @@ public class ParticleManager extends Manager implements Listener, Runnable {
     }
 
     /**
-     * Adds a PPlayer to the loaded map
+     * Gets a loaded PPlayer by their UUID without iterating the loaded PPlayers
+     *
+     * @param playerUUID The UUID of the PPlayer
+     * @return The loaded PPlayer, or null if they are not loaded
+     */
+    public PPlayer getPPlayer(UUID playerUUID) {
+        return this.particlePlayers.get(playerUUID);
+    }
+
+    /**
+     * Adds a PPlayer to the loaded map, replacing the fixed effects of any PPlayer it replaces in the fixed effect index.
+     * Must be called from the main thread
      *
      * @param pplayer The PPlayer to add
      */
     public void addPPlayer(PPlayer pplayer) {
-        this.particlePlayers.put(pplayer.getUniqueId(), pplayer);
+        PPlayer replaced = this.particlePlayers.put(pplayer.getUniqueId(), pplayer);
+        if (replaced != null)
+            for (FixedParticleEffect fixedEffect : replaced.getFixedParticles())
+                this.fixedEffectIndex.remove(fixedEffect.getLocation(), fixedEffect);
+
+        for (FixedParticleEffect fixedEffect : pplayer.getFixedParticles())
+            this.fixedEffectIndex.add(fixedEffect.getLocation(), fixedEffect);
     }
 
     /**
-     * The main loop to display all the particles
-     * Does not display particles if the world is disabled or if the player is in spectator mode
+     * Gets the index of players that can see particles, built at the start of the last particle tick
+     *
+     * @return The viewer index, or null if no particle tick has run yet
+     */
+    public SpatialIndex<Player> getViewerIndex() {
+        ParticleSnapshot snapshot = this.snapshot;
+        return snapshot != null ? snapshot.getViewerIndex() : null;
+    }
+
+    /**
+     * Gets the state of the loaded PPlayers captured at the start of the last particle tick
+     *
+     * @return The snapshot, or null if no particle tick has run yet
+     */
+    public ParticleSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Gets the index of all loaded fixed effects, must only be used from the main thread
+     *
+     * @return The fixed effect index
+     */
+    public SpatialIndex<FixedParticleEffect> getFixedEffectIndex() {
+        return this.fixedEffectIndex;
+    }
+
+    /**
+     * Adds a fixed effect to the fixed effect index if its owner is loaded, must be called from the main thread
+     * after the fixed effect has been added to its owner
+     *
+     * @param fixedEffect The fixed effect that was added
+     */
+    public void indexFixedEffect(FixedParticleEffect fixedEffect) {
+        PPlayer owner = this.particlePlayers.get(fixedEffect.getOwnerUniqueId());
+        if (owner != null && owner.getFixedEffectById(fixedEffect.getId()) == fixedEffect)
+            this.fixedEffectIndex.add(fixedEffect.getLocation(), fixedEffect);
+    }
+
+    /**
+     * Removes a fixed effect from the fixed effect index, must be called from the main thread
+     *
+     * @param fixedEffect The fixed effect that was removed
+     */
+    public void unindexFixedEffect(FixedParticleEffect fixedEffect) {
+        this.fixedEffectIndex.remove(fixedEffect.getLocation(), fixedEffect);
+    }
+
+    /**
+     * Moves a fixed effect in the fixed effect index to its current location, must be called from the main thread
+     *
+     * @param fixedEffect The fixed effect that was moved
+     * @param previousX The x coordinate the fixed effect was at
+     * @param previousZ The z coordinate the fixed effect was at
+     */
+    public void reindexFixedEffect(FixedParticleEffect fixedEffect, double previousX, double previousZ) {
+        Location location = fixedEffect.getLocation();
+        if (this.fixedEffectIndex.remove(location.getWorld(), previousX, previousZ, fixedEffect))
+            this.fixedEffectIndex.add(location, fixedEffect);
+    }
+
+    /**
+     * Updates the style timers and captures the state of all loaded PPlayers on the main thread, then computes and
+     * displays the particles for it asynchronously. If the previous tick is still being computed, this tick is skipped.
      */
     public void run() {
+        if (!this.ticking.compareAndSet(false, true))
+            return;
+
+        // Timers are updated before the capture so every style sees the same frame for the whole tick
         this.playerParticles.getManager(ParticleStyleManager.class).updateTimers();
 
+        ParticleSnapshot snapshot = ParticleSnapshot.capture(this.particlePlayers.values(), this.getActiveFixedEffects(), this.playerParticles.getManager(PermissionManager.class));
+        this.snapshot = snapshot;
+
+        Bukkit.getScheduler().runTaskAsynchronously(this.playerParticles, () -> {
+            try {
+                this.displayParticles(snapshot);
+            } finally {
+                this.ticking.set(false);
+            }
+        });
+    }
+
+    /**
+     * The main loop to display all the particles, only reads player state from the given snapshot
+     * Does not display particles if the world is disabled or if the player is in spectator mode
+     *
+     * @param snapshot The snapshot to display the particles for
+     */
+    private void displayParticles(ParticleSnapshot snapshot) {
+        long tick = this.tick++;
+
         this.hue += Setting.RAINBOW_CYCLE_SPEED.getInt();
         this.hue %= 360;
 
@@ -143,46 +406,142 @@ public class ParticleManager extends Manager implements Listener, Runnable {
             this.note %= 25;
         }
 
-        PermissionManager permissionManager = this.playerParticles.getManager(PermissionManager.class);
-
-        // Spawn particles for each player
-        for (PPlayer pplayer : this.particlePlayers.values()) {
-            Player player = pplayer.getPlayer();
-
-            // Don't show their particles if they are in spectator mode
-            // Don't spawn particles if the world doesn't allow it
-            if (player != null && player.getGameMode() != GameMode.SPECTATOR && permissionManager.isWorldEnabled(player.getWorld().getName()))
-                for (ParticlePair particles : pplayer.getActiveParticles())
-                    this.displayParticles(pplayer, particles, player.getLocation().clone().add(0, 1, 0));
-            
-            // Loop for FixedParticleEffects
-            // Don't spawn particles if the world doesn't allow it
-            for (FixedParticleEffect effect : pplayer.getFixedParticles())
-                if (effect.getLocation().getWorld() != null && permissionManager.isWorldEnabled(effect.getLocation().getWorld().getName()))
-                    this.displayFixedParticleEffect(effect);
+        // Gather every emitter that is due this tick, an emitter is either one active particle of a player or a fixed effect
+        // Don't show their particles if they are in spectator mode
+        // Don't spawn particles if the world doesn't allow it
+        int maxEmitters = 0;
+        for (int i = 0; i < snapshot.getPlayerCount(); i++)
+            if (this.canEmit(snapshot, i))
+                maxEmitters += snapshot.getActiveParticles(i).length;
+        for (int i = 0; i < snapshot.getFixedEffectCount(); i++)
+            if (snapshot.isFixedEffectWorldEnabled(i))
+                maxEmitters++;
+
+        int[] emitterSources = new int[maxEmitters];
+        int[] emitterIndices = new int[maxEmitters];
+        int emitterCount = 0;
+        for (int i = 0; i < snapshot.getPlayerCount(); i++) {
+            if (!this.canEmit(snapshot, i))
+                continue;
+
+            ParticlePair[] particles = snapshot.getActiveParticles(i);
+            for (int j = 0; j < particles.length; j++) {
+                if (this.isDue(this.getDisplayedStyle(snapshot, i, particles[j]), particles[j], tick)) {
+                    emitterSources[emitterCount] = i;
+                    emitterIndices[emitterCount++] = j;
+                }
+            }
+        }
+        for (int i = 0; i < snapshot.getFixedEffectCount(); i++) {
+            ParticlePair particle = snapshot.getFixedEffect(i).getParticlePair();
+            if (snapshot.isFixedEffectWorldEnabled(i) && this.isDue(particle.getStyle(), particle, tick)) {
+                emitterSources[emitterCount] = -1;
+                emitterIndices[emitterCount++] = i;
+            }
         }
+
+        // Style timers were already updated on the main thread, so every worker sees the same frame for every style
+        // Styles that can share their frames are only calculated once for this tick, then moved to each emitter
+        ParticleFrameCache frames = new ParticleFrameCache();
+        ForkJoinPool workerPool = this.workerPool;
+        boolean displayed = false;
+        if (workerPool != null && emitterCount > 1) {
+            ParticleEmission[] emissions = new ParticleEmission[emitterCount];
+            try {
+                workerPool.invoke(new EmissionTask(snapshot, frames, emitterSources, emitterIndices, emissions, 0, emitterCount, Math.max(1, emitterCount / (workerPool.getParallelism() * 4))));
+
+                // Merge the results in emitter order so the output doesn't depend on how the work was split
+                for (ParticleEmission emission : emissions)
+                    if (emission != null)
+                        emission.display();
+                displayed = true;
+            } catch (RejectedExecutionException ignored) {
+                // The pool was shut down by a reload, calculate this tick on the current thread instead
+            }
+        }
+
+        if (!displayed) {
+            for (int i = 0; i < emitterCount; i++) {
+                this.particleBuffer.clear();
+                ParticleEmission emission = this.calculateEmission(snapshot, frames, emitterSources[i], emitterIndices[i], this.particleBuffer);
+                if (emission != null)
+                    emission.display();
+            }
+        }
+
+        // Particles that outlive their emitters are displayed last, so the ones spawned this tick are shown right away
+        this.playerParticles.getManager(ParticleStyleManager.class).displayLingeringParticles(snapshot);
     }
 
     /**
-     * Displays particles at the given player location with their settings
-     * 
-     * @param pplayer The PPlayer to spawn the particles for
-     * @param particle The ParticlePair to use for getting particle settings
-     * @param location The location to display at
+     * Checks if a player in a snapshot should have their active particles displayed
+     *
+     * @param snapshot The snapshot containing the player
+     * @param index The index of the player in the snapshot
+     * @return true if the player's particles should be displayed, otherwise false
      */
-    private void displayParticles(PPlayer pplayer, ParticlePair particle, Location location) {
-        if (!this.playerParticles.getManager(ParticleStyleManager.class).isEventHandled(particle.getStyle())) {
-            if (Setting.TOGGLE_ON_COMBAT.getBoolean() && pplayer.isInCombat())
-                return;
+    private boolean canEmit(ParticleSnapshot snapshot, int index) {
+        return !snapshot.hasFlag(index, ParticleSnapshot.FLAG_SPECTATOR) && snapshot.hasFlag(index, ParticleSnapshot.FLAG_WORLD_ENABLED);
+    }
 
-            if (Setting.TOGGLE_ON_MOVE.getBoolean() && particle.getStyle().canToggleWithMovement() && pplayer.isMoving()) {
-                for (PParticle pparticle : DefaultStyles.FEET.getParticles(particle, location))
-                    ParticleEffect.display(particle, pparticle, particle.getStyle().hasLongRangeVisibility(), pplayer.getPlayer());
-            } else {
-                for (PParticle pparticle : particle.getStyle().getParticles(particle, location))
-                    ParticleEffect.display(particle, pparticle, particle.getStyle().hasLongRangeVisibility(), pplayer.getPlayer());
-            }
-        }  
+    /**
+     * Gets the style a player's active particle is displayed with, the feet style is used instead while the player
+     * is moving if toggle-on-move is enabled
+     *
+     * @param snapshot The snapshot containing the player
+     * @param index The index of the player in the snapshot
+     * @param particle The active particle
+     * @return The style to display the particle with
+     */
+    private ParticleStyle getDisplayedStyle(ParticleSnapshot snapshot, int index, ParticlePair particle) {
+        if (Setting.TOGGLE_ON_MOVE.getBoolean() && particle.getStyle().canToggleWithMovement() && snapshot.hasFlag(index, ParticleSnapshot.FLAG_MOVING))
+            return DefaultStyles.FEET;
+        return particle.getStyle();
+    }
+
+    /**
+     * Checks if an emitter should be displayed on a tick, based on the emission period of its style and its phase
+     *
+     * @param style The style the emitter is displayed with
+     * @param particle The particle of the emitter
+     * @param tick The particle tick
+     * @return true if the emitter is due, otherwise false
+     */
+    private boolean isDue(ParticleStyle style, ParticlePair particle, long tick) {
+        int period = style.getEmissionPeriod();
+        return period <= 1 || (tick + style.getPhase(particle)) % period == 0;
+    }
+
+    /**
+     * Calculates the particles for a single emitter
+     *
+     * @param snapshot The snapshot containing the emitter
+     * @param frames The shared style frames for the current tick
+     * @param source The index of the player in the snapshot, or -1 for a fixed effect
+     * @param index The index of the active particle of the player, or the index of the fixed effect in the snapshot
+     * @param buffer The buffer to write the particles to, the emission refers to the range of particles it added
+     * @return The particles to display, or null if nothing should be displayed
+     */
+    private ParticleEmission calculateEmission(ParticleSnapshot snapshot, ParticleFrameCache frames, int source, int index, ParticleBuffer buffer) {
+        int start = buffer.size();
+        if (source == -1) {
+            ParticlePair particle = snapshot.getFixedEffect(index).getParticlePair();
+            Location location = snapshot.getFixedEffectLocation(index, particle.getStyle().getFixedEffectOffset());
+            frames.emit(particle.getStyle(), particle, location, buffer);
+            return new ParticleEmission(particle, location.getWorld(), buffer, start, buffer.size(), true, null);
+        }
+
+        ParticlePair particle = snapshot.getActiveParticles(source)[index];
+        if (this.playerParticles.getManager(ParticleStyleManager.class).isEventHandled(particle.getStyle()))
+            return null;
+
+        if (Setting.TOGGLE_ON_COMBAT.getBoolean() && snapshot.hasFlag(source, ParticleSnapshot.FLAG_IN_COMBAT))
+            return null;
+
+        Location location = snapshot.getLocation(source, 1);
+        frames.emit(this.getDisplayedStyle(snapshot, source, particle), particle, location, buffer);
+
+        return new ParticleEmission(particle, location.getWorld(), buffer, start, buffer.size(), particle.getStyle().hasLongRangeVisibility(), snapshot.getPlayer(source));
     }
 
     /**
@@ -195,23 +554,45 @@ public class ParticleManager extends Manager implements Listener, Runnable {
      * @param isLongRange If the particle can be viewed from long range
      */
     public void displayParticles(Player player, World world, ParticlePair particle, List<PParticle> particles, boolean isLongRange) {
-        PermissionManager permissionManager = this.playerParticles.getManager(PermissionManager.class);
-        if ((player != null && player.getGameMode() == GameMode.SPECTATOR) || !permissionManager.isWorldEnabled(world.getName()))
+        if (!this.canDisplay(player, world))
             return;
 
-        for (PParticle pparticle : particles)
-            ParticleEffect.display(particle, pparticle, isLongRange, player);
+        ParticleEffect.display(particle, particles, isLongRange, player);
     }
 
     /**
-     * Displays particles at the given fixed effect location
-     * 
-     * @param fixedEffect The fixed effect to display
+     * An alternative method used for event styles that write their particles to a buffer
+     *
+     * @param player The player the particles are spawning from, nullable for special cases
+     * @param world The world the particles are spawning in
+     * @param particle The ParticlePair to use for getting particle settings
+     * @param particles The particles to display
+     * @param isLongRange If the particle can be viewed from long range
+     */
+    public void displayParticles(Player player, World world, ParticlePair particle, ParticleBuffer particles, boolean isLongRange) {
+        if (!this.canDisplay(player, world))
+            return;
+
+        ParticleEffect.display(particle, world, particles, isLongRange, player);
+    }
+
+    /**
+     * Checks if particles from a player can be displayed in a world, using the player's state from the last particle tick
+     *
+     * @param player The player the particles are spawning from, nullable for special cases
+     * @param world The world the particles are spawning in
+     * @return true if the particles can be displayed, otherwise false
      */
-    private void displayFixedParticleEffect(FixedParticleEffect fixedEffect) {
-        ParticlePair particle = fixedEffect.getParticlePair();
-        for (PParticle pparticle : particle.getStyle().getParticles(particle, fixedEffect.getLocation().clone().add(0, particle.getStyle().getFixedEffectOffset(), 0)))
-            ParticleEffect.display(particle, pparticle, true, null);
+    private boolean canDisplay(Player player, World world) {
+        if (!this.playerParticles.getManager(PermissionManager.class).isWorldEnabled(world.getName()))
+            return false;
+
+        if (player == null)
+            return true;
+
+        ParticleSnapshot snapshot = this.snapshot;
+        int index = snapshot != null ? snapshot.indexOf(player) : -1;
+        return index != -1 && !snapshot.hasFlag(index, ParticleSnapshot.FLAG_SPECTATOR);
     }
 
     /**
@@ -251,4 +632,73 @@ public class ParticleManager extends Manager implements Listener, Runnable {
     public NoteColor getRandomNoteParticleColor() {
         return new NoteColor(this.random.nextInt(25));
     }
+
+    /**
+     * The calculated particles of a single emitter, waiting to be displayed
+     */
+    private static class ParticleEmission {
+
+        private final ParticlePair particle;
+        private final World world;
+        private final ParticleBuffer particles;
+        private final int start, end;
+        private final boolean isLongRange;
+        private final Player owner;
+
+        private ParticleEmission(ParticlePair particle, World world, ParticleBuffer particles, int start, int end, boolean isLongRange, Player owner) {
+            this.particle = particle;
+            this.world = world;
+            this.particles = particles;
+            this.start = start;
+            this.end = end;
+            this.isLongRange = isLongRange;
+            this.owner = owner;
+        }
+
+        private void display() {
+            ParticleEffect.display(this.particle, this.world, this.particles, this.start, this.end, this.isLongRange, this.owner);
+        }
+
+    }
+
+    /**
+     * Calculates the particles for a range of emitters, splitting the range between the workers of the pool.
+     * Each emitter writes to its own slot of the output array and each leaf task to its own buffer,
+     * so no synchronization is needed between workers.
+     */
+    private class EmissionTask extends RecursiveAction {
+
+        private final ParticleSnapshot snapshot;
+        private final ParticleFrameCache frames;
+        private final int[] emitterSources, emitterIndices;
+        private final ParticleEmission[] emissions;
+        private final int from, to, threshold;
+
+        private EmissionTask(ParticleSnapshot snapshot, ParticleFrameCache frames, int[] emitterSources, int[] emitterIndices, ParticleEmission[] emissions, int from, int to, int threshold) {
+            this.snapshot = snapshot;
+            this.frames = frames;
+            this.emitterSources = emitterSources;
+            this.emitterIndices = emitterIndices;
+            this.emissions = emissions;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.threshold) {
+                ParticleBuffer buffer = new ParticleBuffer();
+                for (int i = this.from; i < this.to; i++)
+                    this.emissions[i] = ParticleManager.this.calculateEmission(this.snapshot, this.frames, this.emitterSources[i], this.emitterIndices[i], buffer);
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new EmissionTask(this.snapshot, this.frames, this.emitterSources, this.emitterIndices, this.emissions, this.from, middle, this.threshold),
+                      new EmissionTask(this.snapshot, this.frames, this.emitterSources, this.emitterIndices, this.emissions, middle, this.to, this.threshold));
+        }
+
+    }
+
 }
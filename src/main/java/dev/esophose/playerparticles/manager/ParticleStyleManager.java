@@ -1,6 +1,7 @@
 package dev.esophose.playerparticles.manager;
 
 import dev.esophose.playerparticles.PlayerParticles;
+import dev.esophose.playerparticles.particles.ParticleSnapshot;
 import dev.esophose.playerparticles.styles.DefaultStyles;
 import dev.esophose.playerparticles.styles.ParticleStyle;
 import java.util.ArrayList;
@@ -30,7 +31,8 @@ public class ParticleStyleManager extends Manager {
 
     @Override
     public void disable() {
-
+        for (ParticleStyle style : this.styles)
+            style.clearLingeringParticles();
     }
 
     /**
@@ -102,4 +104,16 @@ public class ParticleStyleManager extends Manager {
             style.updateTimers();
     }
 
+    /**
+     * Displays the particles that styles keep showing after their emitters, such as the fireworks of celebration
+     *
+     * Do not call this in your plugin, it will display the particles twice for the tick
+     *
+     * @param snapshot The snapshot of the current particle tick
+     */
+    public void displayLingeringParticles(ParticleSnapshot snapshot) {
+        for (ParticleStyle style : this.styles)
+            style.displayLingeringParticles(snapshot);
+    }
+
 }
@@ -1,5 +1,7 @@
 package dev.esophose.playerparticles.particles;
 
+import dev.esophose.playerparticles.PlayerParticles;
+import dev.esophose.playerparticles.manager.DataManager;
 import java.util.UUID;
 import org.bukkit.Location;
 
@@ -85,9 +87,11 @@ public class FixedParticleEffect {
      * @param z The new Z coordinate
      */
     public void setCoordinates(double x, double y, double z) {
+        double previousX = this.location.getX(), previousZ = this.location.getZ();
         this.location.setX(x);
         this.location.setY(y);
         this.location.setZ(z);
+        PlayerParticles.getInstance().getManager(DataManager.class).onFixedEffectMoved(this, previousX, previousZ);
     }
 
 }
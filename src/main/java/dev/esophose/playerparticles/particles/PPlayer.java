@@ -1,5 +1,7 @@
 package dev.esophose.playerparticles.particles;
 
+import dev.esophose.playerparticles.PlayerParticles;
+import dev.esophose.playerparticles.manager.DataManager;
 import dev.esophose.playerparticles.styles.ParticleStyle;
 import dev.esophose.playerparticles.util.ParticleUtils;
 import java.util.Collection;
@@ -254,7 +256,11 @@ public class PPlayer {
      * @param fixedEffect The fixed effect to add
      */
     public void addFixedEffect(FixedParticleEffect fixedEffect) {
-        this.fixedParticles.put(fixedEffect.getId(), fixedEffect);
+        FixedParticleEffect replaced = this.fixedParticles.put(fixedEffect.getId(), fixedEffect);
+        DataManager dataManager = PlayerParticles.getInstance().getManager(DataManager.class);
+        if (replaced != null)
+            dataManager.onFixedEffectRemoved(replaced);
+        dataManager.onFixedEffectAdded(fixedEffect);
     }
 
     /**
@@ -263,7 +269,9 @@ public class PPlayer {
      * @param id The id of the fixed effect to remove
      */
     public void removeFixedEffect(int id) {
-        this.fixedParticles.remove(id);
+        FixedParticleEffect fixedEffect = this.fixedParticles.remove(id);
+        if (fixedEffect != null)
+            PlayerParticles.getInstance().getManager(DataManager.class).onFixedEffectRemoved(fixedEffect);
     }
 
     /**
@@ -0,0 +1,144 @@
+package dev.esophose.playerparticles.particles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A growable ParticleSink backed by primitive arrays, can be cleared and reused between ticks
+ */
+public final class ParticleBuffer implements ParticleSink {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private double[] x, y, z;
+    private double[] xOff, yOff, zOff;
+    private double[] speed;
+    private boolean[] directional;
+    private int size;
+
+    /**
+     * Creates a new empty ParticleBuffer
+     */
+    public ParticleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty ParticleBuffer
+     *
+     * @param capacity The number of particles the buffer can hold before it needs to grow
+     */
+    public ParticleBuffer(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.z = new double[capacity];
+        this.xOff = new double[capacity];
+        this.yOff = new double[capacity];
+        this.zOff = new double[capacity];
+        this.speed = new double[capacity];
+        this.directional = new boolean[capacity];
+        this.size = 0;
+    }
+
+    @Override
+    public void emit(double x, double y, double z, double xOff, double yOff, double zOff, double speed, boolean directional) {
+        if (this.size == this.x.length)
+            this.grow();
+
+        int index = this.size++;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.z[index] = z;
+        this.xOff[index] = xOff;
+        this.yOff[index] = yOff;
+        this.zOff[index] = zOff;
+        this.speed[index] = speed;
+        this.directional[index] = directional;
+    }
+
+    /**
+     * Adds a PParticle to the buffer
+     *
+     * @param pparticle The PParticle to add
+     */
+    public void add(PParticle pparticle) {
+        Location location = pparticle.getLocation(false);
+        this.emit(location.getX(), location.getY(), location.getZ(), pparticle.getXOff(), pparticle.getYOff(), pparticle.getZOff(), pparticle.getSpeed(), pparticle.isDirectional());
+    }
+
+    /**
+     * Removes all particles from the buffer, keeping the allocated capacity
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return The number of particles in the buffer
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public double getX(int index) {
+        return this.x[index];
+    }
+
+    public double getY(int index) {
+        return this.y[index];
+    }
+
+    public double getZ(int index) {
+        return this.z[index];
+    }
+
+    public double getXOff(int index) {
+        return this.xOff[index];
+    }
+
+    public double getYOff(int index) {
+        return this.yOff[index];
+    }
+
+    public double getZOff(int index) {
+        return this.zOff[index];
+    }
+
+    public double getSpeed(int index) {
+        return this.speed[index];
+    }
+
+    public boolean isDirectional(int index) {
+        return this.directional[index];
+    }
+
+    /**
+     * Converts the particles in the buffer to PParticles
+     *
+     * @param world The world the particles are in
+     * @return A new List of PParticles
+     */
+    public List<PParticle> toPParticles(World world) {
+        List<PParticle> pparticles = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++)
+            pparticles.add(new PParticle(new Location(world, this.x[i], this.y[i], this.z[i]), this.xOff[i], this.yOff[i], this.zOff[i], this.speed[i], this.directional[i]));
+        return pparticles;
+    }
+
+    private void grow() {
+        int capacity = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.z = Arrays.copyOf(this.z, capacity);
+        this.xOff = Arrays.copyOf(this.xOff, capacity);
+        this.yOff = Arrays.copyOf(this.yOff, capacity);
+        this.zOff = Arrays.copyOf(this.zOff, capacity);
+        this.speed = Arrays.copyOf(this.speed, capacity);
+        this.directional = Arrays.copyOf(this.directional, capacity);
+    }
+
+}
@@ -7,6 +7,7 @@ import dev.esophose.playerparticles.manager.ConfigurationManager.Setting;
 import dev.esophose.playerparticles.manager.ParticleManager;
 import dev.esophose.playerparticles.util.NMSUtil;
 import dev.esophose.playerparticles.util.ParticleUtils;
+import dev.esophose.playerparticles.util.SpatialIndex;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -18,10 +19,10 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Particle.DustOptions;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.material.MaterialData;
-import org.bukkit.metadata.MetadataValue;
 
 @SuppressWarnings("deprecation")
 public enum ParticleEffect {
@@ -278,17 +279,152 @@ public enum ParticleEffect {
      */
     public static void display(ParticlePair particle, PParticle pparticle, boolean isLongRange, Player owner) {
         ParticleEffect effect = particle.getEffect();
-        int count = pparticle.isDirectional() ? 0 : 1;
-        
-        if (effect.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA)) {
-            effect.display(particle.getSpawnMaterial(), pparticle.getXOff(), pparticle.getYOff(), pparticle.getZOff(), pparticle.getSpeed(), 1, pparticle.getLocation(false), isLongRange, owner);
-        } else if (effect.hasProperty(ParticleProperty.COLORABLE)) {
-            effect.display(particle.getSpawnColor(), pparticle.getLocation(true), isLongRange, owner);
+        Location location = pparticle.getLocation(effect.isColorSpawned());
+        List<Player> players = effect.getPlayersInRange(location, isLongRange, owner);
+        if (players.isEmpty())
+            return;
+
+        Object extraData = effect.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA) ? effect.getExtraData(particle.getSpawnMaterial()) : null;
+        effect.spawn(particle, pparticle.getXOff(), pparticle.getYOff(), pparticle.getZOff(), pparticle.getSpeed(), pparticle.isDirectional(), extraData, location.getX(), location.getY(), location.getZ(), players);
+    }
+
+    /**
+     * Invokes the correct spawn method for a group of particles emitted together.
+     * The players that can see the particles are only resolved once for the whole group.
+     *
+     * @param particle The ParticlePair, given the effect/style/data
+     * @param pparticles The particles to spawn
+     * @param isLongRange If the particles can be viewed from long range
+     * @param owner The player that owns the particles
+     */
+    public static void display(ParticlePair particle, List<PParticle> pparticles, boolean isLongRange, Player owner) {
+        if (pparticles.isEmpty())
+            return;
+
+        if (pparticles.size() == 1) {
+            display(particle, pparticles.get(0), isLongRange, owner);
+            return;
+        }
+
+        World world = pparticles.get(0).getLocation(false).getWorld();
+        ParticleBuffer buffer = new ParticleBuffer(pparticles.size());
+        for (PParticle pparticle : pparticles) {
+            if (pparticle.getLocation(false).getWorld() != world) {
+                // Particles are spread over multiple worlds, resolve each one separately
+                for (PParticle other : pparticles)
+                    display(particle, other, isLongRange, owner);
+                return;
+            }
+
+            buffer.add(pparticle);
+        }
+
+        display(particle, world, buffer, isLongRange, owner);
+    }
+
+    /**
+     * Invokes the correct spawn method for every particle in a buffer.
+     * The players that can see the particles are only resolved once for the whole buffer.
+     *
+     * @param particle The ParticlePair, given the effect/style/data
+     * @param world The world the particles are in
+     * @param particles The particles to spawn
+     * @param isLongRange If the particles can be viewed from long range
+     * @param owner The player that owns the particles
+     */
+    public static void display(ParticlePair particle, World world, ParticleBuffer particles, boolean isLongRange, Player owner) {
+        display(particle, world, particles, 0, particles.size(), isLongRange, owner);
+    }
+
+    /**
+     * Invokes the correct spawn method for a range of particles in a buffer.
+     * The players that can see the particles are only resolved once for the whole range.
+     *
+     * @param particle The ParticlePair, given the effect/style/data
+     * @param world The world the particles are in
+     * @param particles The buffer holding the particles
+     * @param start The index of the first particle to spawn, inclusive
+     * @param end The index of the last particle to spawn, exclusive
+     * @param isLongRange If the particles can be viewed from long range
+     * @param owner The player that owns the particles
+     */
+    public static void display(ParticlePair particle, World world, ParticleBuffer particles, int start, int end, boolean isLongRange, Player owner) {
+        if (world == null || start >= end)
+            return;
+
+        ParticleEffect effect = particle.getEffect();
+        boolean colorSpawned = effect.isColorSpawned();
+
+        // Colored particles are randomized within their offsets, widen the bounds so they stay covered
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            double spreadX = colorSpawned ? Math.abs(particles.getXOff(i)) * 1.75D : 0;
+            double spreadY = colorSpawned ? Math.abs(particles.getYOff(i)) * 1.75D : 0;
+            double spreadZ = colorSpawned ? Math.abs(particles.getZOff(i)) * 1.75D : 0;
+            minX = Math.min(minX, particles.getX(i) - spreadX);
+            minY = Math.min(minY, particles.getY(i) - spreadY);
+            minZ = Math.min(minZ, particles.getZ(i) - spreadZ);
+            maxX = Math.max(maxX, particles.getX(i) + spreadX);
+            maxY = Math.max(maxY, particles.getY(i) + spreadY);
+            maxZ = Math.max(maxZ, particles.getZ(i) + spreadZ);
+        }
+
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        double margin = Math.sqrt(dx * dx + dy * dy + dz * dz) / 2;
+
+        ParticleAudience audience = effect.getAudience(world, (minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2, margin, isLongRange, owner);
+        if (audience.isEmpty())
+            return;
+
+        Object extraData = effect.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA) ? effect.getExtraData(particle.getSpawnMaterial()) : null;
+        for (int i = start; i < end; i++) {
+            double x = particles.getX(i), y = particles.getY(i), z = particles.getZ(i);
+            if (colorSpawned) {
+                x += particles.getXOff(i) * 1.75D * (Math.random() > 0.5 ? Math.random() : -Math.random());
+                y += particles.getYOff(i) * 1.75D * (Math.random() > 0.5 ? Math.random() : -Math.random());
+                z += particles.getZOff(i) * 1.75D * (Math.random() > 0.5 ? Math.random() : -Math.random());
+            }
+
+            List<Player> players = audience.getRecipients(x, y, z);
+            if (!players.isEmpty())
+                effect.spawn(particle, particles.getXOff(i), particles.getYOff(i), particles.getZOff(i), particles.getSpeed(i), particles.isDirectional(i), extraData, x, y, z, players);
+        }
+    }
+
+    /**
+     * Spawns a particle for the given players using the data from the ParticlePair
+     *
+     * @param particle The ParticlePair, given the effect/style/data
+     * @param xOff The offset for the x-axis
+     * @param yOff The offset for the y-axis
+     * @param zOff The offset for the z-axis
+     * @param speed The speed the particle will move at
+     * @param directional If the particle should use the offsets as a direction to move in
+     * @param extraData The material data of the particle, only used if the effect requires material data
+     * @param x The resolved x coordinate of the particle
+     * @param y The resolved y coordinate of the particle
+     * @param z The resolved z coordinate of the particle
+     * @param players The players to spawn the particle for
+     */
+    private void spawn(ParticlePair particle, double xOff, double yOff, double zOff, double speed, boolean directional, Object extraData, double x, double y, double z, List<Player> players) {
+        if (this.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA)) {
+            this.spawn(xOff, yOff, zOff, speed, 1, extraData, x, y, z, players);
+        } else if (this.hasProperty(ParticleProperty.COLORABLE)) {
+            this.spawn(particle.getSpawnColor(), x, y, z, players);
         } else {
-            effect.display(pparticle.getXOff(), pparticle.getYOff(), pparticle.getZOff(), pparticle.getSpeed(), count, pparticle.getLocation(false), isLongRange, owner);
+            int count = directional ? 0 : 1;
+            this.spawn(xOff, yOff, zOff, speed, count, x, y, z, players);
         }
     }
 
+    /**
+     * @return true if this effect is spawned with a color, which uses randomized particle locations instead of offsets
+     */
+    private boolean isColorSpawned() {
+        return !this.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA) && this.hasProperty(ParticleProperty.COLORABLE);
+    }
+
     /**
      * Displays a particle effect
      * 
@@ -306,8 +442,12 @@ public enum ParticleEffect {
         if (this.hasProperty(ParticleProperty.REQUIRES_MATERIAL_DATA))
             throw new ParticleDataException("This particle effect requires additional data");
 
-        for (Player player : this.getPlayersInRange(center, isLongRange, owner))
-            player.spawnParticle(this.internalEnum, center.getX(), center.getY(), center.getZ(), amount, offsetX, offsetY, offsetZ, speed);
+        this.spawn(offsetX, offsetY, offsetZ, speed, amount, center.getX(), center.getY(), center.getZ(), this.getPlayersInRange(center, isLongRange, owner));
+    }
+
+    private void spawn(double offsetX, double offsetY, double offsetZ, double speed, int amount, double x, double y, double z, List<Player> players) {
+        for (Player player : players)
+            player.spawnParticle(this.internalEnum, x, y, z, amount, offsetX, offsetY, offsetZ, speed);
     }
 
     /**
@@ -323,15 +463,19 @@ public enum ParticleEffect {
         if (!this.hasProperty(ParticleProperty.COLORABLE))
             throw new ParticleColorException("This particle effect is not colorable");
 
+        this.spawn(color, center.getX(), center.getY(), center.getZ(), this.getPlayersInRange(center, isLongRange, owner));
+    }
+
+    private void spawn(ParticleColor color, double x, double y, double z, List<Player> players) {
         if (this == DUST && NMSUtil.getVersionNumber() >= 13) { // DUST uses a special data object for spawning in 1.13+
             OrdinaryColor dustColor = (OrdinaryColor) color;
             DustOptions dustOptions = new DustOptions(Color.fromRGB(dustColor.getRed(), dustColor.getGreen(), dustColor.getBlue()), Setting.DUST_SIZE.getFloat());
-            for (Player player : this.getPlayersInRange(center, isLongRange, owner))
-                player.spawnParticle(this.internalEnum, center.getX(), center.getY(), center.getZ(), 1, 0, 0, 0, 0, dustOptions);
+            for (Player player : players)
+                player.spawnParticle(this.internalEnum, x, y, z, 1, 0, 0, 0, 0, dustOptions);
         } else {
-            for (Player player : this.getPlayersInRange(center, isLongRange, owner)) {
+            for (Player player : players) {
                 // Minecraft clients require that you pass a non-zero value if the Red value should be zero
-                player.spawnParticle(this.internalEnum, center.getX(), center.getY(), center.getZ(), 0, this == ParticleEffect.DUST && color.getValueX() == 0 ? Float.MIN_VALUE : color.getValueX(), color.getValueY(), color.getValueZ(), 1);
+                player.spawnParticle(this.internalEnum, x, y, z, 0, this == ParticleEffect.DUST && color.getValueX() == 0 ? Float.MIN_VALUE : color.getValueX(), color.getValueY(), color.getValueZ(), 1);
             }
         }
     }
@@ -357,17 +501,29 @@ public enum ParticleEffect {
             throw new ParticleDataException("This particle effect does not require additional data");
         }
 
-        Object extraData = null;
+        this.spawn(offsetX, offsetY, offsetZ, speed, amount, this.getExtraData(spawnMaterial), center.getX(), center.getY(), center.getZ(), this.getPlayersInRange(center, isLongRange, owner));
+    }
+
+    private void spawn(double offsetX, double offsetY, double offsetZ, double speed, int amount, Object extraData, double x, double y, double z, List<Player> players) {
+        for (Player player : players)
+            player.spawnParticle(this.internalEnum, x, y, z, amount, offsetX, offsetY, offsetZ, speed, extraData);
+    }
+
+    /**
+     * Creates the data object this effect needs to be spawned with a material
+     *
+     * @param spawnMaterial Material of the effect
+     * @return The data object for the material
+     */
+    private Object getExtraData(Material spawnMaterial) {
         if (this.internalEnum.getDataType().getTypeName().equals("org.bukkit.block.data.BlockData")) {
-            extraData = spawnMaterial.createBlockData();
+            return spawnMaterial.createBlockData();
         } else if (this.internalEnum.getDataType() == ItemStack.class) {
-            extraData = new ItemStack(spawnMaterial);
+            return new ItemStack(spawnMaterial);
         } else if (this.internalEnum.getDataType() == MaterialData.class) {
-            extraData = new MaterialData(spawnMaterial); // Deprecated, only used in versions < 1.13
+            return new MaterialData(spawnMaterial); // Deprecated, only used in versions < 1.13
         }
-
-        for (Player player : this.getPlayersInRange(center, isLongRange, owner))
-            player.spawnParticle(this.internalEnum, center.getX(), center.getY(), center.getZ(), amount, offsetX, offsetY, offsetZ, speed, extraData);
+        return null;
     }
 
     /**
@@ -381,36 +537,141 @@ public enum ParticleEffect {
     private List<Player> getPlayersInRange(Location center, boolean isLongRange, Player owner) {
         List<Player> players = new ArrayList<>();
         int range = !isLongRange ? Setting.PARTICLE_RENDER_RANGE_PLAYER.getInt() : Setting.PARTICLE_RENDER_RANGE_FIXED_EFFECT.getInt();
-        range *= range;
+        double rangeSquared = range * range;
 
-        for (PPlayer pplayer : PlayerParticles.getInstance().getManager(ParticleManager.class).getPPlayers()) {
-            Player p = pplayer.getPlayer();
-            if (!this.canSee(p, owner))
-                continue;
-
-            if (p != null && pplayer.canSeeParticles() && p.getWorld().equals(center.getWorld()) && center.distanceSquared(p.getLocation()) <= range)
+        this.forEachCandidate(center.getWorld(), center.getX(), center.getY(), center.getZ(), range, owner, (p, x, y, z) -> {
+            double dx = center.getX() - x, dy = center.getY() - y, dz = center.getZ() - z;
+            if (dx * dx + dy * dy + dz * dz <= rangeSquared)
                 players.add(p);
-        }
+        });
 
         return players;
     }
 
     /**
-     * Checks if a player can see another player
+     * Resolves the players that can see a group of particles all lying within a margin of a center point
      *
-     * @param player The player
-     * @param target The target
-     * @return True if player can see target, otherwise false
+     * @param world The world the particles are in
+     * @param centerX The x coordinate of the center of the particles
+     * @param centerY The y coordinate of the center of the particles
+     * @param centerZ The z coordinate of the center of the particles
+     * @param margin The furthest distance any particle is from the center
+     * @param isLongRange If the particles can be viewed from long range
+     * @param owner The player that owns the particles
+     * @return The audience for the particles
      */
-    private boolean canSee(Player player, Player target) {
-        if (player == null || target == null)
-            return true;
+    private ParticleAudience getAudience(World world, double centerX, double centerY, double centerZ, double margin, boolean isLongRange, Player owner) {
+        int range = !isLongRange ? Setting.PARTICLE_RENDER_RANGE_PLAYER.getInt() : Setting.PARTICLE_RENDER_RANGE_FIXED_EFFECT.getInt();
+        double innerRange = range - margin;
+        double innerRangeSquared = innerRange > 0 ? innerRange * innerRange : -1;
+
+        ParticleAudience audience = new ParticleAudience(range * range);
+        this.forEachCandidate(world, centerX, centerY, centerZ, range + margin, owner, (p, x, y, z) -> {
+            double dx = centerX - x, dy = centerY - y, dz = centerZ - z;
+            if (dx * dx + dy * dy + dz * dz <= innerRangeSquared) {
+                audience.inner.add(p); // Every particle is in range of this player
+            } else {
+                audience.addBoundary(p, x, y, z); // Only some particles may be in range of this player
+            }
+        });
 
-        for (MetadataValue meta : target.getMetadata("vanished"))
-            if (meta.asBoolean())
-                return false;
+        return audience;
+    }
+
+    /**
+     * Visits the players that can see particles owned by the given player and that may be within a radius of a point
+     *
+     * @param world The world to check in
+     * @param centerX The x coordinate of the center of the radius
+     * @param centerY The y coordinate of the center of the radius
+     * @param centerZ The z coordinate of the center of the radius
+     * @param radius The radius to check, distances are not guaranteed to be within it
+     * @param owner The player that owns the particles
+     * @param visitor The visitor to call with each candidate and their position
+     */
+    private void forEachCandidate(World world, double centerX, double centerY, double centerZ, double radius, Player owner, SpatialIndex.Visitor<Player> visitor) {
+        // Only the state captured in the last particle tick is used, so this is safe to call from any thread
+        ParticleSnapshot snapshot = PlayerParticles.getInstance().getManager(ParticleManager.class).getSnapshot();
+        if (snapshot == null)
+            return; // Nobody has been captured as a viewer yet
+
+        int ownerIndex = owner != null ? snapshot.indexOf(owner) : -1;
+        if (ownerIndex != -1 && snapshot.hasFlag(ownerIndex, ParticleSnapshot.FLAG_VANISHED))
+            return;
+
+        snapshot.getViewerIndex().forEachInRange(world, centerX, centerY, centerZ, radius, (p, x, y, z) -> {
+            if (ownerIndex == -1 || snapshot.canSee(p, ownerIndex))
+                visitor.visit(p, x, y, z);
+        });
+    }
+
+    /**
+     * The players that can see a group of particles that were emitted together
+     */
+    private static class ParticleAudience {
+
+        private final double rangeSquared;
+        private final List<Player> inner;
+        private final List<Player> boundary;
+        private double[] boundaryPositions;
+
+        private ParticleAudience(double rangeSquared) {
+            this.rangeSquared = rangeSquared;
+            this.inner = new ArrayList<>();
+            this.boundary = new ArrayList<>();
+            this.boundaryPositions = new double[0];
+        }
+
+        /**
+         * Adds a player that is only in range of some of the particles
+         *
+         * @param player The player
+         * @param x The x coordinate of the player
+         * @param y The y coordinate of the player
+         * @param z The z coordinate of the player
+         */
+        private void addBoundary(Player player, double x, double y, double z) {
+            int offset = this.boundary.size() * 3;
+            if (offset + 3 > this.boundaryPositions.length)
+                this.boundaryPositions = Arrays.copyOf(this.boundaryPositions, Math.max(12, this.boundaryPositions.length * 2));
+
+            this.boundaryPositions[offset] = x;
+            this.boundaryPositions[offset + 1] = y;
+            this.boundaryPositions[offset + 2] = z;
+            this.boundary.add(player);
+        }
+
+        /**
+         * @return true if nobody can see any of the particles, otherwise false
+         */
+        private boolean isEmpty() {
+            return this.inner.isEmpty() && this.boundary.isEmpty();
+        }
+
+        /**
+         * Gets the players that can see a particle at the given coordinates
+         *
+         * @param x The x coordinate of the particle
+         * @param y The y coordinate of the particle
+         * @param z The z coordinate of the particle
+         * @return The players that can see the particle
+         */
+        private List<Player> getRecipients(double x, double y, double z) {
+            if (this.boundary.isEmpty())
+                return this.inner;
+
+            List<Player> players = new ArrayList<>(this.inner);
+            for (int i = 0; i < this.boundary.size(); i++) {
+                double dx = x - this.boundaryPositions[i * 3];
+                double dy = y - this.boundaryPositions[i * 3 + 1];
+                double dz = z - this.boundaryPositions[i * 3 + 2];
+                if (dx * dx + dy * dy + dz * dz <= this.rangeSquared)
+                    players.add(this.boundary.get(i));
+            }
+
+            return players;
+        }
 
-        return player.canSee(target);
     }
 
     /**
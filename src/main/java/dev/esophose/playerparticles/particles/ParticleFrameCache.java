@@ -0,0 +1,76 @@
+package dev.esophose.playerparticles.particles;
+
+import dev.esophose.playerparticles.styles.ParticleStyle;
+import dev.esophose.playerparticles.util.MathL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Location;
+
+/**
+ * Holds the frames of the styles that can share them for a single particle tick.
+ * A frame is the particles of a style calculated once at the origin for each effect, it is then moved to the location
+ * of every emitter using the style instead of calculating the style again for each of them.
+ * <p>
+ * Frames are calculated the first time they are needed, and can be used from multiple threads.
+ * A new cache must be created for each tick, after the style timers have been updated.
+ */
+public final class ParticleFrameCache {
+
+    private final Map<ParticleStyle, Map<ParticleEffect, ParticleBuffer>> frames;
+    private final Location origin;
+
+    /**
+     * Creates a new empty ParticleFrameCache
+     */
+    public ParticleFrameCache() {
+        this.frames = new ConcurrentHashMap<>();
+        this.origin = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Writes the particles of a style into a sink, using the shared frame of the style if it has one
+     *
+     * @param style The style to emit the particles of
+     * @param particle The ParticlePair that contains the particle's data
+     * @param location The central location of the particles
+     * @param sink The sink to write the particles to
+     */
+    public void emit(ParticleStyle style, ParticlePair particle, Location location, ParticleSink sink) {
+        if (!style.canShareFrames()) {
+            style.emitParticles(particle, location, sink);
+            return;
+        }
+
+        ParticleBuffer frame = this.getFrame(style, particle);
+        double x = location.getX(), y = location.getY(), z = location.getZ();
+        if (!style.rotatesWithYaw()) {
+            for (int i = 0; i < frame.size(); i++)
+                sink.emit(x + frame.getX(i), y + frame.getY(i), z + frame.getZ(i), frame.getXOff(i), frame.getYOff(i), frame.getZOff(i), frame.getSpeed(i), frame.isDirectional(i));
+            return;
+        }
+
+        double angle = -Math.toRadians(location.getYaw());
+        double cos = MathL.cos(angle);
+        double sin = MathL.sin(angle);
+        for (int i = 0; i < frame.size(); i++) {
+            double dx = frame.getX(i), dz = frame.getZ(i);
+            sink.emit(x + dx * cos + dz * sin, y + frame.getY(i), z - dx * sin + dz * cos, frame.getXOff(i), frame.getYOff(i), frame.getZOff(i), frame.getSpeed(i), frame.isDirectional(i));
+        }
+    }
+
+    /**
+     * Gets the frame of a style for a particle, calculating it if this is the first time it is needed this tick
+     *
+     * @param style The style, must be able to share frames
+     * @param particle The particle, only its effect is used
+     * @return The frame
+     */
+    private ParticleBuffer getFrame(ParticleStyle style, ParticlePair particle) {
+        return this.frames.computeIfAbsent(style, k -> new ConcurrentHashMap<>()).computeIfAbsent(particle.getEffect(), k -> {
+            ParticleBuffer frame = new ParticleBuffer();
+            style.emitParticles(particle, this.origin, frame);
+            return frame;
+        });
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.esophose.playerparticles.particles;
+
+/**
+ * Receives the particles calculated by a style without requiring a Location or PParticle to be created per particle
+ */
+public interface ParticleSink {
+
+    /**
+     * Emits a particle with all the fancy parameters for customization
+     *
+     * @param x The x coordinate to display the particle at
+     * @param y The y coordinate to display the particle at
+     * @param z The z coordinate to display the particle at
+     * @param xOff The offset for the x-axis
+     * @param yOff The offset for the y-axis
+     * @param zOff The offset for the z-axis
+     * @param speed How fast the particles move
+     * @param directional If the particle should use the offsets as a direction to move in
+     */
+    void emit(double x, double y, double z, double xOff, double yOff, double zOff, double speed, boolean directional);
+
+    /**
+     * Emits a particle that is not directional
+     *
+     * @param x The x coordinate to display the particle at
+     * @param y The y coordinate to display the particle at
+     * @param z The z coordinate to display the particle at
+     * @param xOff The offset for the x-axis
+     * @param yOff The offset for the y-axis
+     * @param zOff The offset for the z-axis
+     * @param speed How fast the particles move
+     */
+    default void emit(double x, double y, double z, double xOff, double yOff, double zOff, double speed) {
+        this.emit(x, y, z, xOff, yOff, zOff, speed, false);
+    }
+
+    /**
+     * Emits a stand-still particle
+     * Useful for making shapes with the styles
+     *
+     * @param x The x coordinate to display the particle at
+     * @param y The y coordinate to display the particle at
+     * @param z The z coordinate to display the particle at
+     */
+    default void emit(double x, double y, double z) {
+        this.emit(x, y, z, 0, 0, 0, 0, false);
+    }
+
+}
@@ -0,0 +1,312 @@
+package dev.esophose.playerparticles.particles;
+
+import dev.esophose.playerparticles.manager.ConfigurationManager.Setting;
+import dev.esophose.playerparticles.manager.PermissionManager;
+import dev.esophose.playerparticles.util.SpatialIndex;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.metadata.MetadataValue;
+
+/**
+ * An immutable capture of everything the particle task needs to know about the loaded PPlayers for a single tick.
+ * Snapshots must be captured on the main thread, after which they can be freely read from any thread.
+ */
+public final class ParticleSnapshot {
+
+    public static final int FLAG_SPECTATOR = 1;
+    public static final int FLAG_WORLD_ENABLED = 1 << 1;
+    public static final int FLAG_PARTICLES_HIDDEN = 1 << 2;
+    public static final int FLAG_MOVING = 1 << 3;
+    public static final int FLAG_IN_COMBAT = 1 << 4;
+    public static final int FLAG_VANISHED = 1 << 5;
+
+    /**
+     * How far past the render range viewers are checked for being able to see a player,
+     * since styles draw their particles around the player rather than exactly at their location
+     */
+    private static final int VISIBILITY_CHECK_MARGIN = 16;
+
+    /**
+     * Online players and their active particles
+     */
+    private final int playerCount;
+    private final PPlayer[] pplayers;
+    private final Player[] players;
+    private final World[] worlds;
+    private final double[] x, y, z;
+    private final float[] yaw, pitch;
+    private final int[] flags;
+    private final ParticlePair[][] activeParticles;
+    private final BitSet[] hiddenFrom;
+    private final Map<UUID, Integer> playerIndices;
+
+    /**
+     * Fixed effects that can be seen by at least one player and their positions
+     */
+    private final int fixedEffectCount;
+    private final FixedParticleEffect[] fixedEffects;
+    private final World[] fixedWorlds;
+    private final double[] fixedX, fixedY, fixedZ;
+    private final boolean[] fixedWorldEnabled;
+
+    /**
+     * The positions of all players that can see particles
+     */
+    private final SpatialIndex<Player> viewerIndex;
+
+    private ParticleSnapshot(Collection<PPlayer> loadedPPlayers, Collection<FixedParticleEffect> activeFixedEffects, PermissionManager permissionManager) {
+        List<PPlayer> online = new ArrayList<>(loadedPPlayers.size());
+        for (PPlayer pplayer : loadedPPlayers)
+            if (pplayer.getPlayer() != null)
+                online.add(pplayer);
+
+        this.playerCount = online.size();
+        this.pplayers = new PPlayer[this.playerCount];
+        this.players = new Player[this.playerCount];
+        this.worlds = new World[this.playerCount];
+        this.x = new double[this.playerCount];
+        this.y = new double[this.playerCount];
+        this.z = new double[this.playerCount];
+        this.yaw = new float[this.playerCount];
+        this.pitch = new float[this.playerCount];
+        this.flags = new int[this.playerCount];
+        this.activeParticles = new ParticlePair[this.playerCount][];
+        this.hiddenFrom = new BitSet[this.playerCount];
+        this.playerIndices = new HashMap<>(this.playerCount * 2);
+        this.viewerIndex = new SpatialIndex<>();
+
+        for (int i = 0; i < this.playerCount; i++) {
+            PPlayer pplayer = online.get(i);
+            Player player = pplayer.getPlayer();
+            Location location = player.getLocation();
+
+            int playerFlags = 0;
+            if (player.getGameMode() == GameMode.SPECTATOR)
+                playerFlags |= FLAG_SPECTATOR;
+            if (permissionManager.isWorldEnabled(location.getWorld().getName()))
+                playerFlags |= FLAG_WORLD_ENABLED;
+            if (!pplayer.canSeeParticles())
+                playerFlags |= FLAG_PARTICLES_HIDDEN;
+            if (pplayer.isMoving())
+                playerFlags |= FLAG_MOVING;
+            if (pplayer.isInCombat())
+                playerFlags |= FLAG_IN_COMBAT;
+            for (MetadataValue meta : player.getMetadata("vanished")) {
+                if (meta.asBoolean()) {
+                    playerFlags |= FLAG_VANISHED;
+                    break;
+                }
+            }
+
+            this.pplayers[i] = pplayer;
+            this.players[i] = player;
+            this.worlds[i] = location.getWorld();
+            this.x[i] = location.getX();
+            this.y[i] = location.getY();
+            this.z[i] = location.getZ();
+            this.yaw[i] = location.getYaw();
+            this.pitch[i] = location.getPitch();
+            this.flags[i] = playerFlags;
+            this.activeParticles[i] = pplayer.getActiveParticles().toArray(new ParticlePair[0]);
+            this.playerIndices.put(pplayer.getUniqueId(), i);
+
+            if ((playerFlags & FLAG_PARTICLES_HIDDEN) == 0)
+                this.viewerIndex.add(location, player);
+        }
+
+        // Capture which players can't see each player that has particles, since Player#canSee can't be used off the main thread
+        // Only the viewers close enough to receive the particles are checked
+        int playerRange = Setting.PARTICLE_RENDER_RANGE_PLAYER.getInt();
+        int longRange = Setting.PARTICLE_RENDER_RANGE_FIXED_EFFECT.getInt();
+        for (int i = 0; i < this.playerCount; i++) {
+            if (this.activeParticles[i].length == 0)
+                continue;
+
+            int index = i;
+            Player owner = this.players[i];
+            double range = (this.hasLongRangeParticles(i) ? longRange : playerRange) + VISIBILITY_CHECK_MARGIN;
+            this.viewerIndex.forEachInRange(this.worlds[i], this.x[i], this.y[i], this.z[i], range, (viewer, x, y, z) -> {
+                if (viewer == owner || viewer.canSee(owner))
+                    return;
+
+                if (this.hiddenFrom[index] == null)
+                    this.hiddenFrom[index] = new BitSet(this.playerCount);
+                this.hiddenFrom[index].set(this.playerIndices.get(viewer.getUniqueId()));
+            });
+        }
+
+        // Skip fixed effects that nobody is close enough to see
+        List<FixedParticleEffect> fixed = new ArrayList<>(activeFixedEffects.size());
+        int fixedRange = Setting.PARTICLE_RENDER_RANGE_FIXED_EFFECT.getInt();
+        for (FixedParticleEffect fixedEffect : activeFixedEffects) {
+            Location location = fixedEffect.getLocation();
+            if (this.viewerIndex.isAnyInRange(location.getWorld(), location.getX(), location.getY(), location.getZ(), fixedRange))
+                fixed.add(fixedEffect);
+        }
+
+        this.fixedEffectCount = fixed.size();
+        this.fixedEffects = new FixedParticleEffect[this.fixedEffectCount];
+        this.fixedWorlds = new World[this.fixedEffectCount];
+        this.fixedX = new double[this.fixedEffectCount];
+        this.fixedY = new double[this.fixedEffectCount];
+        this.fixedZ = new double[this.fixedEffectCount];
+        this.fixedWorldEnabled = new boolean[this.fixedEffectCount];
+
+        for (int i = 0; i < this.fixedEffectCount; i++) {
+            FixedParticleEffect fixedEffect = fixed.get(i);
+            Location location = fixedEffect.getLocation();
+            this.fixedEffects[i] = fixedEffect;
+            this.fixedWorlds[i] = location.getWorld();
+            this.fixedX[i] = location.getX();
+            this.fixedY[i] = location.getY();
+            this.fixedZ[i] = location.getZ();
+            this.fixedWorldEnabled[i] = location.getWorld() != null && permissionManager.isWorldEnabled(location.getWorld().getName());
+        }
+    }
+
+    /**
+     * Checks if any of a player's active particles can be seen from the fixed effect distance
+     *
+     * @param index The index of the player
+     * @return true if at least one active particle has long range visibility, otherwise false
+     */
+    private boolean hasLongRangeParticles(int index) {
+        for (ParticlePair particle : this.activeParticles[index])
+            if (particle.getStyle().hasLongRangeVisibility())
+                return true;
+        return false;
+    }
+
+    /**
+     * Captures a new snapshot, must be called from the main thread
+     *
+     * @param loadedPPlayers The PPlayers that are currently loaded
+     * @param activeFixedEffects The fixed effects in loaded chunks, only the ones with a viewer in range are captured
+     * @param permissionManager The PermissionManager used to check for disabled worlds
+     * @return A new snapshot
+     */
+    public static ParticleSnapshot capture(Collection<PPlayer> loadedPPlayers, Collection<FixedParticleEffect> activeFixedEffects, PermissionManager permissionManager) {
+        return new ParticleSnapshot(loadedPPlayers, activeFixedEffects, permissionManager);
+    }
+
+    /**
+     * @return The number of online players in the snapshot
+     */
+    public int getPlayerCount() {
+        return this.playerCount;
+    }
+
+    public PPlayer getPPlayer(int index) {
+        return this.pplayers[index];
+    }
+
+    public Player getPlayer(int index) {
+        return this.players[index];
+    }
+
+    public ParticlePair[] getActiveParticles(int index) {
+        return this.activeParticles[index];
+    }
+
+    /**
+     * Checks if a player has the given flag set
+     *
+     * @param index The index of the player
+     * @param flag The flag to check, one of the FLAG_ constants
+     * @return true if the flag is set, otherwise false
+     */
+    public boolean hasFlag(int index, int flag) {
+        return (this.flags[index] & flag) != 0;
+    }
+
+    /**
+     * Gets the index of a player in the snapshot
+     *
+     * @param player The player
+     * @return The index of the player, or -1 if the player was not online when the snapshot was captured
+     */
+    public int indexOf(Player player) {
+        return this.indexOf(player.getUniqueId());
+    }
+
+    /**
+     * Gets the index of a player in the snapshot
+     *
+     * @param playerUUID The UUID of the player
+     * @return The index of the player, or -1 if the player was not online when the snapshot was captured
+     */
+    public int indexOf(UUID playerUUID) {
+        Integer index = this.playerIndices.get(playerUUID);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Checks if a player could see another player when the snapshot was captured
+     *
+     * @param viewer The player looking
+     * @param index The index of the player being looked at
+     * @return true if the viewer could see the player, otherwise false
+     */
+    public boolean canSee(Player viewer, int index) {
+        BitSet hidden = this.hiddenFrom[index];
+        if (hidden == null)
+            return true;
+
+        int viewerIndex = this.indexOf(viewer);
+        return viewerIndex == -1 || !hidden.get(viewerIndex);
+    }
+
+    /**
+     * Creates a new Location at a player's captured position
+     *
+     * @param index The index of the player
+     * @param yOffset The amount to offset the location vertically
+     * @return A new Location
+     */
+    public Location getLocation(int index, double yOffset) {
+        return new Location(this.worlds[index], this.x[index], this.y[index] + yOffset, this.z[index], this.yaw[index], this.pitch[index]);
+    }
+
+    /**
+     * @return The number of fixed effects in the snapshot
+     */
+    public int getFixedEffectCount() {
+        return this.fixedEffectCount;
+    }
+
+    public FixedParticleEffect getFixedEffect(int index) {
+        return this.fixedEffects[index];
+    }
+
+    public boolean isFixedEffectWorldEnabled(int index) {
+        return this.fixedWorldEnabled[index];
+    }
+
+    /**
+     * Creates a new Location at a fixed effect's captured position
+     *
+     * @param index The index of the fixed effect
+     * @param yOffset The amount to offset the location vertically
+     * @return A new Location
+     */
+    public Location getFixedEffectLocation(int index, double yOffset) {
+        return new Location(this.fixedWorlds[index], this.fixedX[index], this.fixedY[index] + yOffset, this.fixedZ[index]);
+    }
+
+    /**
+     * @return The positions of all players that can see particles
+     */
+    public SpatialIndex<Player> getViewerIndex() {
+        return this.viewerIndex;
+    }
+
+}
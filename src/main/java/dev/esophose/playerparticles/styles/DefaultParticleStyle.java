@@ -3,8 +3,15 @@ package dev.esophose.playerparticles.styles;
 import com.google.common.collect.ObjectArrays;
 import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
+import dev.esophose.playerparticles.manager.ConfigurationManager.Setting;
+import dev.esophose.playerparticles.particles.PParticle;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
+import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.ParticleUtils;
 import java.io.File;
+import java.util.List;
+import org.bukkit.Location;
 
 public abstract class DefaultParticleStyle implements ParticleStyle {
 
@@ -97,6 +104,49 @@ public abstract class DefaultParticleStyle implements ParticleStyle {
         this.changed = true;
     }
 
+    /**
+     * Collects the particles written by {@link #emitParticles(ParticlePair, Location, ParticleSink)} into PParticles
+     */
+    @Override
+    public List<PParticle> getParticles(ParticlePair particle, Location location) {
+        ParticleBuffer particles = new ParticleBuffer();
+        this.emitParticles(particle, location, particles);
+        return particles.toPParticles(location.getWorld());
+    }
+
+    /**
+     * Gets a phase for a ParticlePair that stays the same between ticks, based on its owner and id,
+     * so the emitters of a style that only spawns every few ticks don't all spawn on the same tick
+     *
+     * @param particle The ParticlePair to get the phase of
+     * @param period The number of ticks between spawns
+     * @return The phase, from 0 to period - 1, or always 0 if stagger-style-spawns is disabled
+     */
+    protected final int getSpawnPhase(ParticlePair particle, int period) {
+        if (period <= 1 || !Setting.STAGGER_STYLE_SPAWNS.getBoolean())
+            return 0;
+
+        int hash = particle.getOwnerUniqueId().hashCode() * 31 + particle.getId();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x45D9F3B, period);
+    }
+
+    @Override
+    public int getPhase(ParticlePair particle) {
+        return this.getSpawnPhase(particle, this.getEmissionPeriod());
+    }
+
+    /**
+     * Writes all the particles to display based on the style's logic into a sink.
+     * Must be implemented by every default style, since {@link #getParticles(ParticlePair, Location)} is built from it.
+     *
+     * @param particle The ParticlePair that contains the particle's data
+     * @param location The central location of the particles, in the world the particles will be displayed in
+     * @param sink The sink to write the particles to
+     */
+    @Override
+    public abstract void emitParticles(ParticlePair particle, Location location, ParticleSink sink);
+
     @Override
     public final boolean isEnabled() {
         return this.enabled;
@@ -4,6 +4,8 @@ import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.manager.ParticleStyleManager;
 import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
+import dev.esophose.playerparticles.particles.ParticleSnapshot;
 import java.util.List;
 import org.bukkit.Location;
 
@@ -18,11 +20,46 @@ public interface ParticleStyle {
      */
     List<PParticle> getParticles(ParticlePair particle, Location location);
 
+    /**
+     * Writes all the particles to display based on the style's logic into a sink.
+     * Styles should override this to avoid allocating a Location and PParticle for every particle,
+     * by default the particles from {@link #getParticles(ParticlePair, Location)} are copied into the sink.
+     *
+     * @param particle The ParticlePair that contains the particle's data
+     * @param location The central location of the particles, in the world the particles will be displayed in
+     * @param sink The sink to write the particles to
+     */
+    default void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        for (PParticle pparticle : this.getParticles(particle, location)) {
+            Location particleLocation = pparticle.getLocation(false);
+            sink.emit(particleLocation.getX(), particleLocation.getY(), particleLocation.getZ(), pparticle.getXOff(), pparticle.getYOff(), pparticle.getZOff(), pparticle.getSpeed(), pparticle.isDirectional());
+        }
+    }
+
     /**
      * Used to update timers for animations, called once per particle tick
      */
     void updateTimers();
 
+    /**
+     * Displays the particles this style keeps showing after the emitter that spawned them, called once per particle tick
+     * from the particle thread after every emitter has been displayed.
+     * Player state must only be read from the snapshot, since this is not called on the main thread.
+     *
+     * @param snapshot The snapshot of the current particle tick
+     */
+    default void displayLingeringParticles(ParticleSnapshot snapshot) {
+
+    }
+
+    /**
+     * Removes all the particles kept by {@link #displayLingeringParticles(ParticleSnapshot)},
+     * called when the plugin is reloaded or disabled
+     */
+    default void clearLingeringParticles() {
+
+    }
+
     /**
      * @return true if the style is enabled, false otherwise
      */
@@ -67,6 +104,47 @@ public interface ParticleStyle {
         return 0;
     }
 
+    /**
+     * Gets if the particles of this style only depend on its timers and the particle's effect, so they can be
+     * calculated once per tick at the origin and moved to the location of every player or fixed effect using the style
+     *
+     * @return true if the style's particles can be shared between locations, otherwise false
+     */
+    default boolean canShareFrames() {
+        return false;
+    }
+
+    /**
+     * Gets how many particle ticks pass between each time this style is displayed.
+     * The style is only asked for its particles on the ticks it is due, its timers are still updated every tick.
+     *
+     * @return The number of particle ticks between each display, 1 to be displayed every tick
+     */
+    default int getEmissionPeriod() {
+        return 1;
+    }
+
+    /**
+     * Gets how many ticks a ParticlePair is offset by within the style's spawn cycle,
+     * so emitters with different phases spawn on different ticks
+     *
+     * @param particle The ParticlePair to get the phase of
+     * @return The phase of the ParticlePair, 0 if all emitters of the style spawn on the same tick
+     */
+    default int getPhase(ParticlePair particle) {
+        return 0;
+    }
+
+    /**
+     * Gets if the shared particles of this style face the direction of the location they are displayed at,
+     * only used if {@link #canShareFrames()} is true
+     *
+     * @return true if the shared particles should be rotated by the yaw of the location, otherwise false
+     */
+    default boolean rotatesWithYaw() {
+        return false;
+    }
+
     /**
      * @return true if the particle should be seen from the fixed effect distance instead of the player distance, or false otherwise
      */
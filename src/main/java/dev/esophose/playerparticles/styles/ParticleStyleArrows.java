@@ -1,8 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -27,9 +27,7 @@ public class ParticleStyleArrows extends DefaultParticleStyle implements Listene
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         int count = 0;
         for (int i = this.projectiles.size() - 1; i >= 0; i--) { // Loop backwards so the last-fired projectiles are the ones that have particles if they go over the max
             Projectile projectile = this.projectiles.get(i);
@@ -37,15 +35,14 @@ public class ParticleStyleArrows extends DefaultParticleStyle implements Listene
                 continue;
 
             if (projectile.getShooter() != null && ((Player) projectile.getShooter()).getUniqueId().equals(particle.getOwnerUniqueId())) {
-                particles.add(new PParticle(projectile.getLocation(), 0.05F, 0.05F, 0.05F, 0.0F));
+                Location projectileLocation = projectile.getLocation();
+                sink.emit(projectileLocation.getX(), projectileLocation.getY(), projectileLocation.getZ(), 0.05F, 0.05F, 0.05F, 0.0F);
                 count++;
             }
             
             if (count >= this.maxArrowsPerPlayer)
                 break;
         }
-
-        return particles;
     }
 
     /**
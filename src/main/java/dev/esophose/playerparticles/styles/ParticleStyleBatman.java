@@ -1,18 +1,12 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.VectorUtils;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 public class ParticleStyleBatman extends DefaultParticleStyle {
     
-    private int step = 0;
-
     private int spawnDelay;
 
     public ParticleStyleBatman() {
@@ -20,104 +14,98 @@ public class ParticleStyleBatman extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        
-        if (this.step != 0)
-            return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        double angle = -Math.toRadians(location.getYaw());
+        double cos = MathL.cos(angle);
+        double sin = MathL.sin(angle);
         
         // Segment 1
         for (double x = -7; x <= -3; x += 0.05) {
             double y = 3 * Math.sqrt(-Math.pow(x / 7, 2) + 1);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         for (double x = 3; x <= 7; x += 0.05) {
             double y = 3 * Math.sqrt(-Math.pow(x / 7, 2) + 1);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 2
         for (double x = -7; x <= -4; x += 0.05) {
             double y = -3 * Math.sqrt(-Math.pow(x / 7, 2) + 1);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         for (double x = 4; x <= 7; x += 0.05) {
             double y = -3 * Math.sqrt(-Math.pow(x / 7, 2) + 1);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 3
         for (double x = -4; x <= 4; x += 0.125) {
             double y = Math.abs(x / 2) - ((3 * Math.sqrt(33) - 7) / 112) * Math.pow(x, 2) + Math.sqrt(1 - Math.pow(Math.abs(Math.abs(x) - 2) - 1, 2)) - 3;
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 4
         for (double x = -1; x <= -0.75; x += 0.025) {
             double y = 9 - 8 * Math.abs(x);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         for (double x = 0.75; x <= 1; x += 0.025) {
             double y = 9 - 8 * Math.abs(x);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 5
         for (double x = -0.75; x <= -0.5; x += 0.05) {
             double y = 3 * Math.abs(x) + 0.75;
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         for (double x = 0.5; x <= 0.75; x += 0.05) {
             double y = 3 * Math.abs(x) + 0.75;
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 6
         for (double x = -0.5; x <= 0.5; x += 0.2) {
             double y = 2.25;
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         
         // Segment 7
         for (double x = -3; x <= -1; x += 0.02) {
             double y = 1.5 - 0.5 * Math.abs(x) - ((6 * Math.sqrt(10)) / 14) * (Math.sqrt(3 - Math.pow(x, 2) + 2 * Math.abs(x)) - 2);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
         for (double x = 1; x <= 3; x += 0.02) {
             double y = 1.5 - 0.5 * Math.abs(x) - ((6 * Math.sqrt(10)) / 14) * (Math.sqrt(3 - Math.pow(x, 2) + 2 * Math.abs(x)) - 2);
-            Vector segment = new Vector(x, y, 0).multiply(0.3);
-            VectorUtils.rotateAroundAxisY(segment, -Math.toRadians(location.getYaw()));
-            particles.add(new PParticle(location.clone().add(segment).add(0, 3, 0)));
+            this.emitSegment(sink, location, cos, sin, x, y);
         }
+    }
 
-        return particles;
+    /**
+     * Emits a single point of the shape, scaled down and rotated to face the same way as the location
+     *
+     * @param sink The sink to write to
+     * @param location The central location of the particles
+     * @param cos The cosine of the rotation angle
+     * @param sin The sine of the rotation angle
+     * @param x The x coordinate of the point on the shape
+     * @param y The y coordinate of the point on the shape
+     */
+    private void emitSegment(ParticleSink sink, Location location, double cos, double sin, double x, double y) {
+        x *= 0.3;
+        y *= 0.3;
+        sink.emit(location.getX() + x * cos, location.getY() + y + 3, location.getZ() - x * sin);
     }
 
     @Override
     public void updateTimers() {
-        this.step = (this.step + 1) % this.spawnDelay; // Only spawn once per second
+
+    }
+
+    @Override
+    public int getEmissionPeriod() {
+        return this.spawnDelay; // Only spawn once per second
     }
 
     @Override
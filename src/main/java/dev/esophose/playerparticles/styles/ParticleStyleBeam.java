@@ -1,11 +1,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleBeam extends DefaultParticleStyle {
@@ -21,18 +19,16 @@ public class ParticleStyleBeam extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double slice = 2 * Math.PI / this.points;
 
-        List<PParticle> particles = new ArrayList<>();
         for (int i = 0; i < this.points; i++) {
             double angle = slice * i;
             double newX = location.getX() + this.radius * MathL.cos(angle);
             double newY = location.getY() + (this.step / 10D) - 1;
             double newZ = location.getZ() + this.radius * MathL.sin(angle);
-            particles.add(new PParticle(new Location(location.getWorld(), newX, newY, newZ)));
+            sink.emit(newX, newY, newZ);
         }
-        return particles;
     }
 
     @Override
@@ -46,6 +42,11 @@ public class ParticleStyleBeam extends DefaultParticleStyle {
         }
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("points", 16, "The number of points in the circle");
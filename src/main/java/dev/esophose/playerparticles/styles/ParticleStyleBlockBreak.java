@@ -4,11 +4,10 @@ import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
 import dev.esophose.playerparticles.manager.DataManager;
 import dev.esophose.playerparticles.manager.ParticleManager;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -27,15 +26,14 @@ public class ParticleStyleBlockBreak extends DefaultParticleStyle implements Lis
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        
-        location.add(0.5, 0.5, 0.5); // Center around the block
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        // Center around the block
+        double x = location.getX() + 0.5;
+        double y = location.getY() + 0.5;
+        double z = location.getZ() + 0.5;
 
         for (int i = 0; i < this.particleAmount; i++)
-            particles.add(new PParticle(location, this.particleSpread, this.particleSpread, this.particleSpread, this.particleSpeed));
-
-        return particles;
+            sink.emit(x, y, z, this.particleSpread, this.particleSpread, this.particleSpread, this.particleSpeed);
     }
 
     @Override
@@ -66,7 +64,9 @@ public class ParticleStyleBlockBreak extends DefaultParticleStyle implements Lis
         if (pplayer != null) {
             for (ParticlePair particle : pplayer.getActiveParticlesForStyle(DefaultStyles.BLOCKBREAK)) {
                 Location loc = event.getBlock().getLocation().clone();
-                particleManager.displayParticles(player, player.getWorld(), particle, DefaultStyles.BLOCKBREAK.getParticles(particle, loc), false);
+                ParticleBuffer particles = new ParticleBuffer();
+                DefaultStyles.BLOCKBREAK.emitParticles(particle, loc, particles);
+                particleManager.displayParticles(player, player.getWorld(), particle, particles, false);
             }
         }
     }
@@ -1,27 +1,31 @@
 package dev.esophose.playerparticles.styles;
 
-import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.manager.ParticleManager;
-import dev.esophose.playerparticles.manager.PermissionManager;
-import dev.esophose.playerparticles.particles.FixedParticleEffect;
-import dev.esophose.playerparticles.particles.PParticle;
-import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticleEffect;
+import dev.esophose.playerparticles.particles.ParticleEffect.NoteColor;
+import dev.esophose.playerparticles.particles.ParticleEffect.OrdinaryColor;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
+import dev.esophose.playerparticles.particles.ParticleSnapshot;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import dev.esophose.playerparticles.util.ParticleUtils;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Random;
-import org.bukkit.GameMode;
+import java.util.WeakHashMap;
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 public class ParticleStyleCelebration extends DefaultParticleStyle {
 
-    private int step = 0;
+    private static final OrdinaryColor FUSE_COLOR = new OrdinaryColor(0, 0, 0);
+    private static final NoteColor FUSE_NOTE_COLOR = new NoteColor(0);
+
+    private final FireworkPool fireworks;
+    private final Random random;
 
     private int spawnFrequency;
     private int burstAmount;
@@ -33,42 +37,49 @@ public class ParticleStyleCelebration extends DefaultParticleStyle {
     private double distanceFromRandomizer;
     private double fuseSpacing;
     private ParticleEffect fuseEffect;
+    private Material fuseItemMaterial;
+    private int maxFireworks;
 
     public ParticleStyleCelebration() {
         super("celebration", true, true, 0);
-    }
 
-    @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        return new ArrayList<>();
+        this.fireworks = new FireworkPool();
+        this.random = new Random();
     }
 
     /**
-     * Spawns fireworks every spawnTime number of ticks
+     * Spawns a new firework around the location, the firework is then displayed by {@link #displayLingeringParticles(ParticleSnapshot)}
      * This style uses two different effects, one is always 'firework'
      */
+    @Override
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        double angle = this.random.nextDouble() * Math.PI * 2;
+        double distanceFrom = this.baseDistanceFrom + this.random.nextDouble() * this.distanceFromRandomizer;
+        double dx = MathL.sin(angle) * distanceFrom;
+        double dz = MathL.cos(angle) * distanceFrom;
+        int fuseLength = this.baseFuseLength + this.random.nextInt(this.fuseLengthRandomizer);
+
+        this.fireworks.add(location.getWorld(), location.getX() + dx, location.getY() + 1, location.getZ() + dz, fuseLength, particle);
+    }
+
+    @Override
+    public void displayLingeringParticles(ParticleSnapshot snapshot) {
+        this.fireworks.tick(snapshot);
+    }
+
+    @Override
+    public void clearLingeringParticles() {
+        this.fireworks.clear();
+    }
+
     @Override
     public void updateTimers() {
-        PermissionManager permissionManager = PlayerParticles.getInstance().getManager(PermissionManager.class);
-        ParticleManager particleManager = PlayerParticles.getInstance().getManager(ParticleManager.class);
-
-        this.step++;
-        if (this.step == this.spawnFrequency) {
-            this.step = 0;
-            
-            Random random = new Random();
-            for (PPlayer pplayer : particleManager.getPPlayers()) {
-                Player player = pplayer.getPlayer();
-                if (player != null && player.getGameMode() != GameMode.SPECTATOR && permissionManager.isWorldEnabled(player.getWorld().getName()))
-                    for (ParticlePair particle : pplayer.getActiveParticles())
-                        if (particle.getStyle() == this)
-                            this.spawnFirework(player.getLocation(), pplayer, pplayer.getPlayer(), particle, random);
-                
-                for (FixedParticleEffect fixedEffect : pplayer.getFixedParticles())
-                    if (fixedEffect.getParticlePair().getStyle() == this && permissionManager.isWorldEnabled(fixedEffect.getLocation().getWorld().getName()))
-                        this.spawnFirework(fixedEffect.getLocation(), pplayer, null, fixedEffect.getParticlePair(), random);
-            }
-        }
+
+    }
+
+    @Override
+    public int getEmissionPeriod() {
+        return this.spawnFrequency;
     }
 
     @Override
@@ -83,6 +94,7 @@ public class ParticleStyleCelebration extends DefaultParticleStyle {
         this.setIfNotExists("distance-from-randomizer", 1.5, "The max distance to add to the base of the distance");
         this.setIfNotExists("fuse-spacing", 0.25, "The vertical distance between fuse particles");
         this.setIfNotExists("fuse-effect", "firework", "The effect type to use for the fuse particles");
+        this.setIfNotExists("max-fireworks", 500, "The maximum number of fireworks that can be active at once", "New fireworks are not spawned while this many are active");
     }
 
     @Override
@@ -100,52 +112,206 @@ public class ParticleStyleCelebration extends DefaultParticleStyle {
 
         if (this.fuseEffect == null)
             this.fuseEffect = ParticleEffect.FIREWORK;
+
+        this.fuseItemMaterial = ParticleUtils.closestMatchWithFallback(true, "IRON_SHOVEL", "IRON_SPADE");
+        this.maxFireworks = config.getInt("max-fireworks");
+
+        // Fireworks that were spawned with the old settings are dropped, the pool isn't created yet when the style is first loaded
+        if (this.fireworks != null)
+            this.fireworks.clear();
     }
-    
-    private void spawnFirework(final Location location, final PPlayer pplayer, final Player player, final ParticlePair particle, final Random random) {
-        double angle = random.nextDouble() * Math.PI * 2;
-        double distanceFrom = this.baseDistanceFrom + random.nextDouble() * this.distanceFromRandomizer;
-        double dx = MathL.sin(angle) * distanceFrom;
-        double dz = MathL.cos(angle) * distanceFrom;
-        final Location loc = location.clone().add(dx, 1, dz);
-        final int fuse = this.baseFuseLength + random.nextInt(this.fuseLengthRandomizer);
-        ParticleManager particleManager = PlayerParticles.getInstance().getManager(ParticleManager.class);
-
-        new BukkitRunnable() {
-            private Location location = loc;
-            private int fuseLength = fuse;
-            private int fuseTimer = 0;
-
-            public void run() {
-                if (this.fuseTimer < this.fuseLength) {
-                    ParticlePair trail = ParticlePair.getNextDefault(pplayer);
-                    trail.setEffect(ParticleStyleCelebration.this.fuseEffect);
-                    trail.setStyle(DefaultStyles.CELEBRATION);
-
-                    particleManager.displayParticles(player, this.location.getWorld(), trail, Collections.singletonList(new PParticle(this.location)), true);
-                    
-                    this.location.add(0, ParticleStyleCelebration.this.fuseSpacing, 0);
-                } else {
-                    List<PParticle> particles = new ArrayList<>();
-                    for (int i = 0; i < ParticleStyleCelebration.this.burstAmount; i++) {
-                        double radius = ParticleStyleCelebration.this.baseBurstSize + random.nextDouble() * ParticleStyleCelebration.this.burstSizeRandomizer;
-                        double u = random.nextDouble();
-                        double v = random.nextDouble();
+
+    /**
+     * The fireworks that are currently active, stored in parallel arrays that are reused between fireworks.
+     * Fireworks are added by the emitters of the style, which can run on the particle workers, and displayed once per
+     * particle tick afterwards, so every access is synchronized.
+     * Each call to {@link #tick(ParticleSnapshot)} lights the next fuse particle of every firework, or bursts it once its fuse has run out.
+     */
+    private class FireworkPool {
+
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private World[] worlds;
+        private double[] x, y, z;
+        private int[] fuseTimers, fuseLengths;
+        private ParticlePair[] particles, fuseParticles;
+        private int size;
+
+        private final ParticleBuffer buffer;
+
+        /**
+         * The fuse ParticlePair of each ParticlePair that has spawned a firework, so it is only created once
+         * Weakly keyed so the fuses of removed particles don't stay cached
+         */
+        private final Map<ParticlePair, ParticlePair> fuses;
+
+        private FireworkPool() {
+            this.worlds = new World[DEFAULT_CAPACITY];
+            this.x = new double[DEFAULT_CAPACITY];
+            this.y = new double[DEFAULT_CAPACITY];
+            this.z = new double[DEFAULT_CAPACITY];
+            this.fuseTimers = new int[DEFAULT_CAPACITY];
+            this.fuseLengths = new int[DEFAULT_CAPACITY];
+            this.particles = new ParticlePair[DEFAULT_CAPACITY];
+            this.fuseParticles = new ParticlePair[DEFAULT_CAPACITY];
+            this.size = 0;
+            this.buffer = new ParticleBuffer();
+            this.fuses = new WeakHashMap<>();
+        }
+
+        /**
+         * Adds a firework to the pool, unless the maximum number of fireworks are already active
+         *
+         * @param world The world the firework is in
+         * @param x The x coordinate of the bottom of the fuse
+         * @param y The y coordinate of the bottom of the fuse
+         * @param z The z coordinate of the bottom of the fuse
+         * @param fuseLength The number of fuse particles to display before the firework bursts
+         * @param particle The ParticlePair to display the burst with
+         */
+        private synchronized void add(World world, double x, double y, double z, int fuseLength, ParticlePair particle) {
+            ParticleStyleCelebration style = ParticleStyleCelebration.this;
+            if (this.size >= style.maxFireworks)
+                return;
+
+            if (this.size == this.x.length)
+                this.grow();
+
+            int index = this.size++;
+            this.worlds[index] = world;
+            this.x[index] = x;
+            this.y[index] = y;
+            this.z[index] = z;
+            this.fuseTimers[index] = 0;
+            this.fuseLengths[index] = fuseLength;
+            this.particles[index] = particle;
+            this.fuseParticles[index] = this.getFuse(particle);
+        }
+
+        /**
+         * Gets the ParticlePair to display the fuse of a firework with, owned by the same player as the burst
+         *
+         * @param particle The ParticlePair to display the burst with
+         * @return The fuse ParticlePair
+         */
+        private ParticlePair getFuse(ParticlePair particle) {
+            ParticleStyleCelebration style = ParticleStyleCelebration.this;
+            ParticlePair fuse = this.fuses.get(particle);
+            if (fuse == null || fuse.getId() != particle.getId() || !fuse.getOwnerUniqueId().equals(particle.getOwnerUniqueId())) {
+                fuse = new ParticlePair(particle.getOwnerUniqueId(), particle.getId(), style.fuseEffect, style, style.fuseItemMaterial, Material.STONE, FUSE_COLOR, FUSE_NOTE_COLOR);
+                this.fuses.put(particle, fuse);
+            }
+            return fuse;
+        }
+
+        /**
+         * Advances every firework by one tick and displays it, removing the fireworks that burst
+         *
+         * @param snapshot The snapshot of the current particle tick, used to find the player each firework belongs to
+         */
+        private synchronized void tick(ParticleSnapshot snapshot) {
+            ParticleStyleCelebration style = ParticleStyleCelebration.this;
+
+            for (int i = this.size - 1; i >= 0; i--) {
+                // Fireworks from a player's active particles are hidden like the player's other particles, fixed effects have no owner
+                Player owner = null;
+                int ownerIndex = snapshot.indexOf(this.particles[i].getOwnerUniqueId());
+                boolean visible = true;
+                if (ownerIndex != -1 && this.isActiveParticle(snapshot, ownerIndex, this.particles[i])) {
+                    owner = snapshot.getPlayer(ownerIndex);
+                    visible = !snapshot.hasFlag(ownerIndex, ParticleSnapshot.FLAG_SPECTATOR);
+                }
+
+                this.buffer.clear();
+                if (this.fuseTimers[i]++ < this.fuseLengths[i]) {
+                    if (visible) {
+                        this.buffer.emit(this.x[i], this.y[i], this.z[i]);
+                        ParticleEffect.display(this.fuseParticles[i], this.worlds[i], this.buffer, true, owner);
+                    }
+                    this.y[i] += style.fuseSpacing;
+                    continue;
+                }
+
+                if (visible) {
+                    for (int j = 0; j < style.burstAmount; j++) {
+                        double radius = style.baseBurstSize + style.random.nextDouble() * style.burstSizeRandomizer;
+                        double u = style.random.nextDouble();
+                        double v = style.random.nextDouble();
                         double theta = 2 * Math.PI * u;
                         double phi = Math.acos(2 * v - 1);
                         double dx = radius * MathL.sin(phi) * MathL.cos(theta);
                         double dy = radius * MathL.sin(phi) * MathL.sin(theta);
                         double dz = radius * MathL.cos(phi);
-                        
-                        particles.add(new PParticle(this.location.clone().add(dx, dy, dz)));
+                        this.buffer.emit(this.x[i] + dx, this.y[i] + dy, this.z[i] + dz);
                     }
-                    particleManager.displayParticles(player, this.location.getWorld(), particle, particles, true);
-                    
-                    this.cancel();
+                    ParticleEffect.display(this.particles[i], this.worlds[i], this.buffer, true, owner);
                 }
-                this.fuseTimer++;
+
+                this.remove(i);
             }
-        }.runTaskTimer(PlayerParticles.getInstance(), 0, 1);
+        }
+
+        /**
+         * Checks if a ParticlePair is one of the active particles of a player in the snapshot,
+         * otherwise it belongs to one of the player's fixed effects
+         *
+         * @param snapshot The snapshot containing the player
+         * @param index The index of the player in the snapshot
+         * @param particle The ParticlePair to check
+         * @return true if the ParticlePair is an active particle of the player, otherwise false
+         */
+        private boolean isActiveParticle(ParticleSnapshot snapshot, int index, ParticlePair particle) {
+            for (ParticlePair activeParticle : snapshot.getActiveParticles(index))
+                if (activeParticle == particle)
+                    return true;
+            return false;
+        }
+
+        /**
+         * Removes every firework and the cached fuses, so fuses are created again with the current settings
+         */
+        private synchronized void clear() {
+            Arrays.fill(this.worlds, 0, this.size, null);
+            Arrays.fill(this.particles, 0, this.size, null);
+            Arrays.fill(this.fuseParticles, 0, this.size, null);
+            this.fuses.clear();
+            this.size = 0;
+        }
+
+        /**
+         * Removes a firework by moving the last firework into its slot
+         *
+         * @param index The index of the firework to remove
+         */
+        private void remove(int index) {
+            int last = --this.size;
+            this.worlds[index] = this.worlds[last];
+            this.x[index] = this.x[last];
+            this.y[index] = this.y[last];
+            this.z[index] = this.z[last];
+            this.fuseTimers[index] = this.fuseTimers[last];
+            this.fuseLengths[index] = this.fuseLengths[last];
+            this.particles[index] = this.particles[last];
+            this.fuseParticles[index] = this.fuseParticles[last];
+
+            // Don't keep worlds or particles alive after the firework is gone
+            this.worlds[last] = null;
+            this.particles[last] = null;
+            this.fuseParticles[last] = null;
+        }
+
+        private void grow() {
+            int capacity = this.x.length * 2;
+            this.worlds = Arrays.copyOf(this.worlds, capacity);
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.z = Arrays.copyOf(this.z, capacity);
+            this.fuseTimers = Arrays.copyOf(this.fuseTimers, capacity);
+            this.fuseLengths = Arrays.copyOf(this.fuseLengths, capacity);
+            this.particles = Arrays.copyOf(this.particles, capacity);
+            this.fuseParticles = Arrays.copyOf(this.fuseParticles, capacity);
+        }
+
     }
 
 }
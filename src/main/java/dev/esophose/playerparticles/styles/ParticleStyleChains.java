@@ -1,10 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleChains extends DefaultParticleStyle {
@@ -16,17 +14,14 @@ public class ParticleStyleChains extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        double x = location.getX(), y = location.getY(), z = location.getZ();
         for (double n = -0.2; n < 0.6; n += 0.8 / this.chainParticleAmount) {
-            particles.add(new PParticle(location.clone().add(1 - n, n - 1.1, 1 - n)));
-            particles.add(new PParticle(location.clone().add(1 - n, n - 1.1, -1 + n)));
-            particles.add(new PParticle(location.clone().add(-1 + n, n - 1.1, 1 - n)));
-            particles.add(new PParticle(location.clone().add(-1 + n, n - 1.1, -1 + n)));
+            sink.emit(x + 1 - n, y + n - 1.1, z + 1 - n);
+            sink.emit(x + 1 - n, y + n - 1.1, z - 1 + n);
+            sink.emit(x - 1 + n, y + n - 1.1, z + 1 - n);
+            sink.emit(x - 1 + n, y + n - 1.1, z - 1 + n);
         }
-        
-        return particles;
     }
 
     @Override
@@ -34,6 +29,11 @@ public class ParticleStyleChains extends DefaultParticleStyle {
         
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("chain-particle-amount", 8, "The number of particles per chain");
@@ -24,13 +24,10 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 public class ParticleStyleCompanion extends DefaultParticleStyle {
 
@@ -47,23 +44,17 @@ public class ParticleStyleCompanion extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
-        Vector vector = new Vector();
-        
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double t = (Math.PI / this.numParticles) * this.step;
         double r = MathL.sin(t) * this.size;
         double s = 2 * Math.PI * t;
 
-        vector.setX(this.xFactor * r * MathL.cos(s) + this.xOffset);
-        vector.setZ(this.zFactor * r * MathL.sin(s) + this.zOffset);
-        vector.setY(this.yFactor * this.size * MathL.cos(t) + this.yOffset);
+        double x = this.xFactor * r * MathL.cos(s) + this.xOffset;
+        double z = this.zFactor * r * MathL.sin(s) + this.zOffset;
+        double y = this.yFactor * this.size * MathL.cos(t) + this.yOffset;
 
         for (int i = 0; i < this.particlesPerIteration; i++)
-            particles.add(new PParticle(location.clone().subtract(vector)));
-
-        return particles;
+            sink.emit(location.getX() - x, location.getY() - y, location.getZ() - z);
     }
 
     @Override
@@ -71,6 +62,11 @@ public class ParticleStyleCompanion extends DefaultParticleStyle {
         this.step++;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("particle-amount", 150, "The number of total particles in the animation cycle");
@@ -24,11 +24,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.VectorUtils;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
@@ -40,7 +38,6 @@ import org.bukkit.util.Vector;
 public class ParticleStyleCube extends DefaultParticleStyle {
 
     private int step = 0;
-    private boolean skipNextStep = false; // Only spawn every 2 ticks
 
     private double edgeLength;
     private double angularVelocityX;
@@ -53,12 +50,7 @@ public class ParticleStyleCube extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> pparticles = new ArrayList<>();
-
-        if (this.skipNextStep)
-            return pparticles;
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double xRotation = this.step * this.angularVelocityX;
         double yRotation = this.step * this.angularVelocityY;
         double zRotation = this.step * this.angularVelocityZ;
@@ -75,7 +67,7 @@ public class ParticleStyleCube extends DefaultParticleStyle {
                     VectorUtils.rotateAroundAxisX(v, angleX);
                     VectorUtils.rotateAroundAxisY(v, angleY);
                     VectorUtils.rotateVector(v, xRotation, yRotation, zRotation);
-                    pparticles.add(new PParticle(location.clone().add(v)));
+                    sink.emit(location.getX() + v.getX(), location.getY() + v.getY(), location.getZ() + v.getZ());
                 }
             }
             for (int p = 0; p <= this.particlesPerEdge; p++) {
@@ -83,19 +75,26 @@ public class ParticleStyleCube extends DefaultParticleStyle {
                 v.setY(this.edgeLength * p / this.particlesPerEdge - a);
                 VectorUtils.rotateAroundAxisY(v, angleY);
                 VectorUtils.rotateVector(v, xRotation, yRotation, zRotation);
-                pparticles.add(new PParticle(location.clone().add(v)));
+                sink.emit(location.getX() + v.getX(), location.getY() + v.getY(), location.getZ() + v.getZ());
             }
         }
-
-        return pparticles;
     }
 
     @Override
     public void updateTimers() {
-        this.skipNextStep = !this.skipNextStep;
         this.step++;
     }
 
+    @Override
+    public int getEmissionPeriod() {
+        return 2; // Only spawn every 2 ticks
+    }
+
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("edge-length", 2.0, "The length (in blocks) of the edges of the cube");
@@ -1,46 +1,42 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleHalo extends DefaultParticleStyle {
 
-    private boolean skipNextSpawn = false;
-
     private int points;
     private double radius;
     private double playerOffset;
+    private float[] offsets; // The x and z offset of each point
 
     public ParticleStyleHalo() {
         super("halo", true, false, -0.5);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        if (this.skipNextSpawn)
-            return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[] offsets = this.offsets;
+        double dy = this.playerOffset;
+        for (int i = 0; i < offsets.length; i += 2)
+            sink.emit(location.getX() + offsets[i], location.getY() + dy, location.getZ() + offsets[i + 1]);
+    }
 
-        double slice = 2 * Math.PI / this.points;
+    @Override
+    public void updateTimers() {
 
-        for (int i = 0; i < this.points; i++) {
-            double angle = slice * i;
-            double dx = this.radius * MathL.cos(angle);
-            double dy = this.playerOffset;
-            double dz = this.radius * MathL.sin(angle);
-            particles.add(new PParticle(location.clone().add(dx, dy, dz)));
-        }
-        return particles;
     }
 
     @Override
-    public void updateTimers() {
-        this.skipNextSpawn = !this.skipNextSpawn;
+    public int getEmissionPeriod() {
+        return 2; // Only spawn every 2 ticks
+    }
+
+    @Override
+    public boolean canShareFrames() {
+        return true;
     }
 
     @Override
@@ -55,6 +51,15 @@ public class ParticleStyleHalo extends DefaultParticleStyle {
         this.points = config.getInt("particle-amount");
         this.radius = config.getDouble("radius");
         this.playerOffset = config.getDouble("player-offset");
+
+        double slice = 2 * Math.PI / this.points;
+        float[] offsets = new float[Math.max(this.points, 0) * 2];
+        for (int i = 0; i < this.points; i++) {
+            double angle = slice * i;
+            offsets[i * 2] = (float) (this.radius * Math.cos(angle));
+            offsets[i * 2 + 1] = (float) (this.radius * Math.sin(angle));
+        }
+        this.offsets = offsets;
     }
 
 }
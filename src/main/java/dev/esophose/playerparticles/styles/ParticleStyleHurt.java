@@ -4,11 +4,10 @@ import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
 import dev.esophose.playerparticles.manager.DataManager;
 import dev.esophose.playerparticles.manager.ParticleManager;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -25,13 +24,9 @@ public class ParticleStyleHurt extends DefaultParticleStyle implements Listener
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (int i = 0; i < this.thickMultiplier; i++)
-            particles.addAll(DefaultStyles.THICK.getParticles(particle, location));
-
-        return particles;
+            DefaultStyles.THICK.emitParticles(particle, location, sink);
     }
 
     @Override
@@ -49,7 +44,9 @@ public class ParticleStyleHurt extends DefaultParticleStyle implements Listener
             if (pplayer != null) {
                 for (ParticlePair particle : pplayer.getActiveParticlesForStyle(DefaultStyles.HURT)) {
                     Location loc = player.getLocation().clone().add(0, 1, 0);
-                    particleManager.displayParticles(player, player.getWorld(), particle, DefaultStyles.HURT.getParticles(particle, loc), false);
+                    ParticleBuffer particles = new ParticleBuffer();
+                    DefaultStyles.HURT.emitParticles(particle, loc, particles);
+                    particleManager.displayParticles(player, player.getWorld(), particle, particles, false);
                 }
             }
         }
@@ -1,12 +1,10 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticleEffect;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleInvocation extends DefaultParticleStyle {
@@ -24,8 +22,8 @@ public class ParticleStyleInvocation extends DefaultParticleStyle {
         super("invocation", true, true, 0.5);
     }
 
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
+    @Override
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double speed = this.getSpeedByEffect(particle.getEffect()) * this.speedMultiplier;
 
         // Circle around everything, spawn less often
@@ -34,7 +32,7 @@ public class ParticleStyleInvocation extends DefaultParticleStyle {
                 double dx = MathL.cos(Math.PI * 2 * ((double) i / this.numSteps)) * this.radius;
                 double dy = this.playerOffset;
                 double dz = MathL.sin(Math.PI * 2 * ((double) i / this.numSteps)) * this.radius;
-                particles.add(new PParticle(location.clone().add(dx, dy, dz)));
+                sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz);
             }
         }
 
@@ -46,7 +44,7 @@ public class ParticleStyleInvocation extends DefaultParticleStyle {
             double angle = Math.atan2(dz, dx);
             double xAng = -MathL.cos(angle);
             double zAng = -MathL.sin(angle);
-            particles.add(new PParticle(location.clone().add(dx, dy, dz), xAng, 0, zAng, speed, true));
+            sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz, xAng, 0, zAng, speed, true);
         }
 
         // Orbit going counter-clockwise
@@ -57,10 +55,8 @@ public class ParticleStyleInvocation extends DefaultParticleStyle {
             double angle = Math.atan2(dz, dx);
             double xAng = -MathL.cos(angle);
             double zAng = -MathL.sin(angle);
-            particles.add(new PParticle(location.clone().add(dx, dy, dz), xAng, 0, zAng, speed, true));
+            sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz, xAng, 0, zAng, speed, true);
         }
-
-        return particles;
     }
 
     private double getSpeedByEffect(ParticleEffect effect) {
@@ -1,11 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleOrbit extends DefaultParticleStyle {
@@ -15,20 +12,18 @@ public class ParticleStyleOrbit extends DefaultParticleStyle {
     private int orbs;
     private int numSteps;
     private double radius;
+    private float[][] orbits; // The x and z offset of each orb at each step
 
     public ParticleStyleOrbit() {
         super("orbit", true, true, 0);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        for (int i = 0; i < this.orbs; i++) {
-            double dx = -(MathL.cos((this.step / (double) this.numSteps) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i))) * this.radius;
-            double dz = -(MathL.sin((this.step / (double) this.numSteps) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i))) * this.radius;
-            particles.add(new PParticle(location.clone().add(dx, 0, dz)));
-        }
-        return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[][] orbits = this.orbits;
+        float[] offsets = orbits[this.step % orbits.length];
+        for (int i = 0; i < offsets.length; i += 2)
+            sink.emit(location.getX() + offsets[i], location.getY(), location.getZ() + offsets[i + 1]);
     }
 
     @Override
@@ -36,6 +31,11 @@ public class ParticleStyleOrbit extends DefaultParticleStyle {
         this.step = (this.step + 1) % this.numSteps;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("orbs", 3, "The number of orbs that orbit the player");
@@ -48,6 +48,16 @@ public class ParticleStyleOrbit extends DefaultParticleStyle {
         this.orbs = config.getInt("orbs");
         this.numSteps = config.getInt("steps");
         this.radius = config.getDouble("radius");
+
+        float[][] orbits = new float[this.numSteps][Math.max(this.orbs, 0) * 2];
+        for (int step = 0; step < this.numSteps; step++) {
+            for (int i = 0; i < this.orbs; i++) {
+                double angle = (step / (double) this.numSteps) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i);
+                orbits[step][i * 2] = (float) (-Math.cos(angle) * this.radius);
+                orbits[step][i * 2 + 1] = (float) (-Math.sin(angle) * this.radius);
+            }
+        }
+        this.orbits = orbits;
     }
 
 }
@@ -1,10 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleOverhead extends DefaultParticleStyle {
@@ -19,13 +17,9 @@ public class ParticleStyleOverhead extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (int i = 0; i < this.particlesPerTick; i++)
-            particles.add(new PParticle(location.clone().add(0, this.headOffset, 0), this.particleSpreadX, this.particleSpreadY, this.particleSpreadZ, this.particleSpeed));
-
-        return particles;
+            sink.emit(location.getX(), location.getY() + this.headOffset, location.getZ(), this.particleSpreadX, this.particleSpreadY, this.particleSpreadZ, this.particleSpeed);
     }
 
     @Override
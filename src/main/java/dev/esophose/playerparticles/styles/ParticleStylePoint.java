@@ -1,10 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.Collections;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStylePoint extends DefaultParticleStyle {
@@ -16,8 +14,8 @@ public class ParticleStylePoint extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        return Collections.singletonList(new PParticle(location.clone().add(0.0, this.offset, 0.0)));
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        sink.emit(location.getX(), location.getY() + this.offset, location.getZ());
     }
 
     @Override
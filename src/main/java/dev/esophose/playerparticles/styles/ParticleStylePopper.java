@@ -1,13 +1,10 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 public class ParticleStylePopper extends DefaultParticleStyle {
 
@@ -28,22 +25,16 @@ public class ParticleStylePopper extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double radius = this.radius * (1 - (double) this.step / this.maxStep);
         for (int i = 0; i < this.helices; i++) {
             double angle = this.step * this.radials + (2 * Math.PI * i / this.helices);
-            Vector v = new Vector(MathL.cos(angle) * radius, this.step * this.grow - 1, MathL.sin(angle) * radius);
-
-            particles.add(new PParticle(location.clone().add(v)));
+            sink.emit(location.getX() + MathL.cos(angle) * radius, location.getY() + this.step * this.grow - 1, location.getZ() + MathL.sin(angle) * radius);
         }
 
         if (this.step == this.maxStep - 1)
             for (int i = 0; i < this.popParticleAmount; i++)
-                particles.add(new PParticle(location.clone().add(0, this.popOffset, 0), this.popSpread, this.popSpread, this.popSpread, this.popSpeed));
-
-        return particles;
+                sink.emit(location.getX(), location.getY() + this.popOffset, location.getZ(), this.popSpread, this.popSpread, this.popSpread, this.popSpeed);
     }
 
     @Override
@@ -51,6 +42,11 @@ public class ParticleStylePopper extends DefaultParticleStyle {
         this.step = (this.step + 1) % this.maxStep;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("radius", 1.0, "The radius at the bottom of the vortex");
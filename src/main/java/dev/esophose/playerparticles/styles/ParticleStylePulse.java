@@ -1,18 +1,14 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticleEffect;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStylePulse extends DefaultParticleStyle {
 
-    private double step = 0;
-
     private int points;
     private double radius;
     private double offset;
@@ -24,23 +20,17 @@ public class ParticleStylePulse extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double speed = this.getSpeedByEffect(particle.getEffect()) * this.speedMultiplier;
-
-        if (this.step == 0) {
-            for (int i = 0; i < this.points; i++) {
-                double dx = MathL.cos(Math.PI * 2 * ((double) i / this.points)) * this.radius;
-                double dy = this.offset;
-                double dz = MathL.sin(Math.PI * 2 * ((double) i / this.points)) * this.radius;
-                double angle = Math.atan2(dz, dx);
-                double xAng = MathL.cos(angle);
-                double zAng = MathL.sin(angle);
-                particles.add(new PParticle(location.clone().add(dx, dy, dz), xAng, 0, zAng, speed, true));
-            }
+        for (int i = 0; i < this.points; i++) {
+            double dx = MathL.cos(Math.PI * 2 * ((double) i / this.points)) * this.radius;
+            double dy = this.offset;
+            double dz = MathL.sin(Math.PI * 2 * ((double) i / this.points)) * this.radius;
+            double angle = Math.atan2(dz, dx);
+            double xAng = MathL.cos(angle);
+            double zAng = MathL.sin(angle);
+            sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz, xAng, 0, zAng, speed, true);
         }
-
-        return particles;
     }
 
     private double getSpeedByEffect(ParticleEffect effect) {
@@ -74,7 +64,17 @@ public class ParticleStylePulse extends DefaultParticleStyle {
 
     @Override
     public void updateTimers() {
-        this.step = (this.step + 1) % this.numSteps;
+
+    }
+
+    @Override
+    public int getEmissionPeriod() {
+        return this.numSteps;
+    }
+
+    @Override
+    public boolean canShareFrames() {
+        return true;
     }
 
     @Override
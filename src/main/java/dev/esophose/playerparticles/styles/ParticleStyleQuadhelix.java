@@ -1,11 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleQuadhelix extends DefaultParticleStyle {
@@ -17,21 +14,20 @@ public class ParticleStyleQuadhelix extends DefaultParticleStyle {
     private int orbs;
     private int maxStepX;
     private int maxStepY;
+    private float[][] directions; // The x and z direction of each orb at each x step
 
     public ParticleStyleQuadhelix() {
         super("quadhelix", true, true, 0);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        for (int i = 0; i < this.orbs; i++) {
-            double dx = -(MathL.cos((this.stepX / (double) this.maxStepX) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i))) * ((this.maxStepY - Math.abs(this.stepY)) / (double) this.maxStepY);
-            double dy = (this.stepY / (double) this.maxStepY) * 1.5;
-            double dz = -(MathL.sin((this.stepX / (double) this.maxStepX) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i))) * ((this.maxStepY - Math.abs(this.stepY)) / (double) this.maxStepY);
-            particles.add(new PParticle(location.clone().add(dx, dy, dz)));
-        }
-        return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[][] directions = this.directions;
+        float[] offsets = directions[this.stepX % directions.length];
+        double scale = (this.maxStepY - Math.abs(this.stepY)) / (double) this.maxStepY;
+        double dy = (this.stepY / (double) this.maxStepY) * 1.5;
+        for (int i = 0; i < offsets.length; i += 2)
+            sink.emit(location.getX() + offsets[i] * scale, location.getY() + dy, location.getZ() + offsets[i + 1] * scale);
     }
 
     @Override
@@ -51,6 +47,11 @@ public class ParticleStyleQuadhelix extends DefaultParticleStyle {
         }
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("orbs", 4, "The number of orbs to spawn");
@@ -63,6 +64,16 @@ public class ParticleStyleQuadhelix extends DefaultParticleStyle {
         this.orbs = config.getInt("orbs");
         this.maxStepX = config.getInt("steps-x");
         this.maxStepY = config.getInt("steps-y");
+
+        float[][] directions = new float[this.maxStepX + 1][Math.max(this.orbs, 0) * 2];
+        for (int step = 0; step <= this.maxStepX; step++) {
+            for (int i = 0; i < this.orbs; i++) {
+                double angle = (step / (double) this.maxStepX) * (Math.PI * 2) + (((Math.PI * 2) / this.orbs) * i);
+                directions[step][i * 2] = (float) -Math.cos(angle);
+                directions[step][i * 2 + 1] = (float) -Math.sin(angle);
+            }
+        }
+        this.directions = directions;
     }
 
 }
@@ -1,11 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleRings extends DefaultParticleStyle {
@@ -13,24 +10,20 @@ public class ParticleStyleRings extends DefaultParticleStyle {
     private int step = 0;
 
     private int maxStep;
+    private float[][] rings; // The offsets of the two points of both rings at each step
 
     public ParticleStyleRings() {
         super("rings", true, true, 0);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[][] rings = this.rings;
+        float[] offsets = rings[this.step % rings.length];
 
-        double ring1 = Math.PI / (this.maxStep / 2D) * this.step;
-        double ring2 = Math.PI / (this.maxStep / 2D) * (((this.step + this.maxStep / 2D) % this.maxStep));
-
-        particles.add(new PParticle(location.clone().add(MathL.cos(ring1), MathL.sin(ring1), MathL.sin(ring1))));
-        particles.add(new PParticle(location.clone().add(MathL.cos(ring1 + Math.PI), MathL.sin(ring1), MathL.sin(ring1 + Math.PI))));
-        particles.add(new PParticle(location.clone().add(MathL.cos(ring2), MathL.sin(ring2), MathL.sin(ring2))));
-        particles.add(new PParticle(location.clone().add(MathL.cos(ring2 + Math.PI), MathL.sin(ring2), MathL.sin(ring2 + Math.PI))));
-
-        return particles;
+        double x = location.getX(), y = location.getY(), z = location.getZ();
+        for (int i = 0; i < offsets.length; i += 3)
+            sink.emit(x + offsets[i], y + offsets[i + 1], z + offsets[i + 2]);
     }
 
     @Override
@@ -38,6 +31,11 @@ public class ParticleStyleRings extends DefaultParticleStyle {
         this.step = (this.step + 1) % this.maxStep;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("particles-per-ring", 32, "The number of particles that will spawn for each ring");
@@ -46,6 +44,21 @@ public class ParticleStyleRings extends DefaultParticleStyle {
     @Override
     protected void loadSettings(CommentedFileConfiguration config) {
         this.maxStep = config.getInt("particles-per-ring");
+
+        // The second ring is half a turn behind the first, with an odd number of particles that falls between two steps
+        float[][] rings = new float[this.maxStep][];
+        for (int i = 0; i < this.maxStep; i++) {
+            double ring1 = Math.PI / (this.maxStep / 2D) * i;
+            double ring2 = Math.PI / (this.maxStep / 2D) * ((i + this.maxStep / 2D) % this.maxStep);
+            float sin1 = (float) Math.sin(ring1), sin2 = (float) Math.sin(ring2);
+            rings[i] = new float[] {
+                    (float) Math.cos(ring1), sin1, sin1,
+                    (float) Math.cos(ring1 + Math.PI), sin1, (float) Math.sin(ring1 + Math.PI),
+                    (float) Math.cos(ring2), sin2, sin2,
+                    (float) Math.cos(ring2 + Math.PI), sin2, (float) Math.sin(ring2 + Math.PI)
+            };
+        }
+        this.rings = rings;
     }
 
 }
@@ -1,11 +1,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleSphere extends DefaultParticleStyle {
@@ -18,9 +16,7 @@ public class ParticleStyleSphere extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (int i = 0; i < this.density; i++) {
             double u = Math.random();
             double v = Math.random();
@@ -29,10 +25,8 @@ public class ParticleStyleSphere extends DefaultParticleStyle {
             double dx = this.radius * MathL.sin(phi) * MathL.cos(theta);
             double dy = this.radius * MathL.sin(phi) * MathL.sin(theta);
             double dz = this.radius * MathL.cos(phi);
-            particles.add(new PParticle(location.clone().add(dx, dy, dz)));
+            sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz);
         }
-
-        return particles;
     }
 
     @Override
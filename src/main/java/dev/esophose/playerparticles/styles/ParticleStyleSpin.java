@@ -1,11 +1,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.Collections;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleSpin extends DefaultParticleStyle {
@@ -21,13 +19,13 @@ public class ParticleStyleSpin extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double slice = (Math.PI * 2 / this.maxSteps) * this.step;
 
         double newX = location.getX() + this.radius * MathL.cos(slice);
         double newY = location.getY() + this.offset;
         double newZ = location.getZ() + this.radius * MathL.sin(slice);
-        return Collections.singletonList(new PParticle(new Location(location.getWorld(), newX, newY, newZ)));
+        sink.emit(newX, newY, newZ);
     }
 
     @Override
@@ -35,6 +33,11 @@ public class ParticleStyleSpin extends DefaultParticleStyle {
         this.step = (this.step + 1) % this.maxSteps;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("particles-per-rotation", 30, "The number of particles to spawn per rotation");
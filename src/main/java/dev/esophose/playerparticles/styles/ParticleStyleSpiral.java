@@ -1,11 +1,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleSpiral extends DefaultParticleStyle {
@@ -21,15 +19,13 @@ public class ParticleStyleSpiral extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (double stepY = -60; stepY < 60; stepY += 120D / this.particles) {
             double dx = -(MathL.cos(((this.stepX + stepY) / (double) this.particlesPerRotation) * Math.PI * 2)) * this.radius;
             double dy = stepY / this.particlesPerRotation / 2D;
             double dz = -(MathL.sin(((this.stepX + stepY) / (double) this.particlesPerRotation) * Math.PI * 2)) * this.radius;
-            particles.add(new PParticle(location.clone().add(dx, dy, dz)));
+            sink.emit(location.getX() + dx, location.getY() + dy, location.getZ() + dz);
         }
-        return particles;
     }
 
     @Override
@@ -37,6 +33,11 @@ public class ParticleStyleSpiral extends DefaultParticleStyle {
         this.stepX++;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("particles", 12, "The number of particles to spawn around the player");
@@ -4,9 +4,10 @@ import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
 import dev.esophose.playerparticles.manager.DataManager;
 import dev.esophose.playerparticles.manager.ParticleManager;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -34,13 +35,9 @@ public class ParticleStyleSwords extends DefaultParticleStyle implements Listene
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (int i = 0; i < this.multiplier; i++)
-            particles.addAll(DefaultStyles.NORMAL.getParticles(particle, location));
-
-        return particles;
+            DefaultStyles.NORMAL.emitParticles(particle, location, sink);
     }
 
     @Override
@@ -69,7 +66,9 @@ public class ParticleStyleSwords extends DefaultParticleStyle implements Listene
             if (pplayer != null && SWORD_NAMES.contains(player.getInventory().getItemInMainHand().getType().name())) {
                 for (ParticlePair particle : pplayer.getActiveParticlesForStyle(DefaultStyles.SWORDS)) {
                     Location loc = entity.getLocation().clone().add(0, 1, 0);
-                    particleManager.displayParticles(player, player.getWorld(), particle, DefaultStyles.SWORDS.getParticles(particle, loc), false);
+                    ParticleBuffer particles = new ParticleBuffer();
+                    DefaultStyles.SWORDS.emitParticles(particle, loc, particles);
+                    particleManager.displayParticles(player, player.getWorld(), particle, particles, false);
                 }
             }
         }
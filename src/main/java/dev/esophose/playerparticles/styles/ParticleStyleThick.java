@@ -1,10 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleThick extends DefaultParticleStyle {
@@ -16,13 +14,9 @@ public class ParticleStyleThick extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         for (int i = 0; i < this.multiplier; i++)
-            particles.addAll(DefaultStyles.NORMAL.getParticles(particle, location));
-
-        return particles;
+            DefaultStyles.NORMAL.emitParticles(particle, location, sink);
     }
 
     @Override
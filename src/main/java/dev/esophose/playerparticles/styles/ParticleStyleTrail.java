@@ -4,11 +4,10 @@ import dev.esophose.playerparticles.PlayerParticles;
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
 import dev.esophose.playerparticles.manager.DataManager;
 import dev.esophose.playerparticles.manager.ParticleManager;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.PPlayer;
+import dev.esophose.playerparticles.particles.ParticleBuffer;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import java.util.Collections;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -27,8 +26,8 @@ public class ParticleStyleTrail extends DefaultParticleStyle implements Listener
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        return Collections.singletonList(new PParticle(location.clone().add(0.0, this.offset, 0.0), this.spread, this.spread, this.spread, this.speed));
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        sink.emit(location.getX(), location.getY() + this.offset, location.getZ(), this.spread, this.spread, this.spread, this.speed);
     }
 
     @Override
@@ -60,7 +59,9 @@ public class ParticleStyleTrail extends DefaultParticleStyle implements Listener
             for (ParticlePair particle : pplayer.getActiveParticlesForStyle(DefaultStyles.TRAIL)) {
                 Location loc = player.getLocation().clone();
                 loc.setY(loc.getY() + 1);
-                particleManager.displayParticles(player, player.getWorld(), particle, DefaultStyles.TRAIL.getParticles(particle, loc), false);
+                ParticleBuffer particles = new ParticleBuffer();
+                DefaultStyles.TRAIL.emitParticles(particle, loc, particles);
+                particleManager.displayParticles(player, player.getWorld(), particle, particles, false);
             }
         }
     }
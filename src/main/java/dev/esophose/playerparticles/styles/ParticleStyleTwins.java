@@ -1,11 +1,8 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
 
 public class ParticleStyleTwins extends DefaultParticleStyle {
@@ -18,24 +15,19 @@ public class ParticleStyleTwins extends DefaultParticleStyle {
     private double radius = 1;
     private int numSteps = 60;
     private int maxStepY = 30;
+    private float[][] orbits; // The x and z offset of each orb at each horizontal step
 
     public ParticleStyleTwins() {
         super("twins", true, true, 0);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        for (int i = 0; i < this.orbs; i++) {
-            double slice = Math.PI * 2 / this.numSteps;
-            double orbSlice = Math.PI * 2 / this.orbs;
-
-            double dx = -MathL.cos(slice * this.stepX + orbSlice * i) * this.radius;
-            double dy = (this.stepY / (double) this.maxStepY);
-            double dz = -MathL.sin(slice * this.stepX + orbSlice * i) * this.radius;
-            particles.add(new PParticle(location.clone().add(dx, dy, dz)));
-        }
-        return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[][] orbits = this.orbits;
+        float[] offsets = orbits[this.stepX % orbits.length];
+        double dy = (this.stepY / (double) this.maxStepY);
+        for (int i = 0; i < offsets.length; i += 2)
+            sink.emit(location.getX() + offsets[i], location.getY() + dy, location.getZ() + offsets[i + 1]);
     }
 
     @Override
@@ -56,6 +48,11 @@ public class ParticleStyleTwins extends DefaultParticleStyle {
         }
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("orbs", 2, "The number of particle orbs to spawn");
@@ -70,6 +67,17 @@ public class ParticleStyleTwins extends DefaultParticleStyle {
         this.radius = config.getDouble("radius");
         this.numSteps = config.getInt("horizontal-steps");
         this.maxStepY = config.getInt("vertical-steps");
+
+        double slice = Math.PI * 2 / this.numSteps;
+        double orbSlice = Math.PI * 2 / this.orbs;
+        float[][] orbits = new float[this.numSteps + 1][Math.max(this.orbs, 0) * 2];
+        for (int step = 0; step <= this.numSteps; step++) {
+            for (int i = 0; i < this.orbs; i++) {
+                orbits[step][i * 2] = (float) (-Math.cos(slice * step + orbSlice * i) * this.radius);
+                orbits[step][i * 2 + 1] = (float) (-Math.sin(slice * step + orbSlice * i) * this.radius);
+            }
+        }
+        this.orbits = orbits;
     }
 
 }
@@ -24,13 +24,9 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
-import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 public class ParticleStyleVortex extends DefaultParticleStyle {
 
@@ -41,24 +37,18 @@ public class ParticleStyleVortex extends DefaultParticleStyle {
     private double radials;
     private int helices;
     private int maxStep;
+    private float[][] helixPoints; // The offsets of the point of each helix at each step
 
     public ParticleStyleVortex() {
         super("vortex", true, true, 0.5);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-
-        double radius = this.radius * (1 - (double) this.step / this.maxStep);
-        for (int i = 0; i < this.helices; i++) {
-            double angle = this.step * this.radials + (2 * Math.PI * i / this.helices);
-            Vector v = new Vector(MathL.cos(angle) * radius, this.step * this.grow - 1, MathL.sin(angle) * radius);
-
-            particles.add(new PParticle(location.clone().add(v)));
-        }
-
-        return particles;
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        float[][] helixPoints = this.helixPoints;
+        float[] offsets = helixPoints[this.step % helixPoints.length];
+        for (int i = 0; i < offsets.length; i += 3)
+            sink.emit(location.getX() + offsets[i], location.getY() + offsets[i + 1], location.getZ() + offsets[i + 2]);
     }
 
     @Override
@@ -66,6 +56,11 @@ public class ParticleStyleVortex extends DefaultParticleStyle {
         this.step = (this.step + 1) % this.maxStep;
     }
 
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
     @Override
     protected void setDefaultSettings(CommentedFileConfiguration config) {
         this.setIfNotExists("radius", 2.0, "The bottom radius of the vortex");
@@ -82,6 +77,18 @@ public class ParticleStyleVortex extends DefaultParticleStyle {
         this.radials = Math.PI / config.getInt("radials");
         this.helices = config.getInt("helices");
         this.maxStep = config.getInt("step-amount");
+
+        float[][] helixPoints = new float[this.maxStep][Math.max(this.helices, 0) * 3];
+        for (int step = 0; step < this.maxStep; step++) {
+            double radius = this.radius * (1 - (double) step / this.maxStep);
+            for (int i = 0; i < this.helices; i++) {
+                double angle = step * this.radials + (2 * Math.PI * i / this.helices);
+                helixPoints[step][i * 3] = (float) (Math.cos(angle) * radius);
+                helixPoints[step][i * 3 + 1] = (float) (step * this.grow - 1);
+                helixPoints[step][i * 3 + 2] = (float) (Math.sin(angle) * radius);
+            }
+        }
+        this.helixPoints = helixPoints;
     }
 
 }
@@ -1,12 +1,10 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticleEffect;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
 
 public class ParticleStyleWhirlwind extends DefaultParticleStyle {
@@ -23,8 +21,7 @@ public class ParticleStyleWhirlwind extends DefaultParticleStyle {
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
         double speed = this.getSpeedByEffect(particle.getEffect()) * this.speedMultiplier;
 
         // Orbit going clockwise
@@ -35,10 +32,8 @@ public class ParticleStyleWhirlwind extends DefaultParticleStyle {
             double angle = Math.atan2(dz, dx);
             double xAng = MathL.cos(angle);
             double zAng = MathL.sin(angle);
-            particles.add(new PParticle(location.clone().add(0, dy, 0), xAng, 0, zAng, speed, true));
+            sink.emit(location.getX(), location.getY() + dy, location.getZ(), xAng, 0, zAng, speed, true);
         }
-
-        return particles;
     }
 
     private double getSpeedByEffect(ParticleEffect effect) {
@@ -1,44 +1,52 @@
 package dev.esophose.playerparticles.styles;
 
 import dev.esophose.playerparticles.config.CommentedFileConfiguration;
-import dev.esophose.playerparticles.particles.PParticle;
 import dev.esophose.playerparticles.particles.ParticlePair;
+import dev.esophose.playerparticles.particles.ParticleSink;
 import dev.esophose.playerparticles.util.MathL;
-import dev.esophose.playerparticles.util.VectorUtils;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 public class ParticleStyleWings extends DefaultParticleStyle {
 
-    private int spawnTimer = 0; // Spawn particles every 3 ticks
-
     private int spawnDelay;
+    private float[] points; // The x and y offset of each point of the wings, facing south
 
     public ParticleStyleWings() {
         super("wings", false, true, 0);
     }
 
     @Override
-    public List<PParticle> getParticles(ParticlePair particle, Location location) {
-        List<PParticle> particles = new ArrayList<>();
-        if (this.spawnTimer == 0) {
-            for (double t = 0; t < Math.PI * 2; t += Math.PI / 48) {
-                double offset = (Math.pow(Math.E, MathL.cos(t)) - 2 * MathL.cos(t * 4) - Math.pow(MathL.sin(t / 12), 5)) / 2;
-                double x = MathL.sin(t) * offset;
-                double y = MathL.cos(t) * offset;
-                Vector v = VectorUtils.rotateAroundAxisY(new Vector(x, y, -0.3), -Math.toRadians(location.getYaw()));
-                particles.add(new PParticle(location.clone().add(v.getX(), v.getY(), v.getZ())));
-            }
+    public void emitParticles(ParticlePair particle, Location location, ParticleSink sink) {
+        double angle = -Math.toRadians(location.getYaw());
+        double cos = MathL.cos(angle);
+        double sin = MathL.sin(angle);
+        double z = -0.3;
+        float[] points = this.points;
+        for (int i = 0; i < points.length; i += 2) {
+            double x = points[i];
+            double y = points[i + 1];
+            sink.emit(location.getX() + x * cos + z * sin, location.getY() + y, location.getZ() - x * sin + z * cos);
         }
-        return particles;
     }
 
     @Override
     public void updateTimers() {
-        this.spawnTimer++;
-        this.spawnTimer %= this.spawnDelay;
+
+    }
+
+    @Override
+    public int getEmissionPeriod() {
+        return this.spawnDelay;
+    }
+
+    @Override
+    public boolean canShareFrames() {
+        return true;
+    }
+
+    @Override
+    public boolean rotatesWithYaw() {
+        return true;
     }
 
     @Override
@@ -49,6 +57,16 @@ public class ParticleStyleWings extends DefaultParticleStyle {
     @Override
     protected void loadSettings(CommentedFileConfiguration config) {
         this.spawnDelay = config.getInt("spawn-delay");
+
+        int count = 96; // One point every PI / 48 radians
+        float[] points = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            double t = i * Math.PI / 48;
+            double offset = (Math.pow(Math.E, Math.cos(t)) - 2 * Math.cos(t * 4) - Math.pow(Math.sin(t / 12), 5)) / 2;
+            points[i * 2] = (float) (Math.sin(t) * offset);
+            points[i * 2 + 1] = (float) (Math.cos(t) * offset);
+        }
+        this.points = points;
     }
 
 }
@@ -0,0 +1,354 @@
+package dev.esophose.playerparticles.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A spatial hash of values positioned in the world, split into square cells on the x/z plane per world.
+ * Range queries only visit the cells that overlap the query radius instead of every value in the index.
+ * <p>
+ * An index that is filled once and then only read from is safe to share between threads after it has been
+ * fully built and published, an index that is still being added to or removed from must only be used by one thread.
+ *
+ * @param <T> The type of value stored in the index
+ */
+public final class SpatialIndex<T> {
+
+    /**
+     * The default cell size in blocks, matches the width of a chunk
+     */
+    public static final int DEFAULT_CELL_SIZE = 16;
+
+    private final int cellSize;
+    private final Map<UUID, Map<Long, List<Entry<T>>>> worlds;
+    private int size;
+
+    /**
+     * Creates a new empty SpatialIndex using the default cell size
+     */
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a new empty SpatialIndex
+     *
+     * @param cellSize The width and length of each cell in blocks
+     */
+    public SpatialIndex(int cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive");
+
+        this.cellSize = cellSize;
+        this.worlds = new HashMap<>();
+        this.size = 0;
+    }
+
+    /**
+     * Adds a value to the index at the given location
+     *
+     * @param location The location of the value, must have a world
+     * @param value The value to add
+     */
+    public void add(Location location, T value) {
+        this.add(location.getWorld(), location.getX(), location.getY(), location.getZ(), value);
+    }
+
+    /**
+     * Adds a value to the index at the given coordinates
+     *
+     * @param world The world the value is in
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param value The value to add
+     */
+    public void add(World world, double x, double y, double z, T value) {
+        if (world == null)
+            return;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.computeIfAbsent(world.getUID(), k -> new HashMap<>());
+        cells.computeIfAbsent(this.getCellKey(this.toCell(x), this.toCell(z)), k -> new ArrayList<>(4)).add(new Entry<>(x, y, z, value));
+        this.size++;
+    }
+
+    /**
+     * Removes a value from the index that was added at the given location
+     *
+     * @param location The location the value was added at, must have a world
+     * @param value The value to remove, compared by identity
+     * @return true if the value was removed, otherwise false
+     */
+    public boolean remove(Location location, T value) {
+        return this.remove(location.getWorld(), location.getX(), location.getZ(), value);
+    }
+
+    /**
+     * Removes a value from the index that was added at the given coordinates, only the cell the
+     * coordinates are in is searched
+     *
+     * @param world The world the value is in
+     * @param x The x coordinate the value was added at
+     * @param z The z coordinate the value was added at
+     * @param value The value to remove, compared by identity
+     * @return true if the value was removed, otherwise false
+     */
+    public boolean remove(World world, double x, double z, T value) {
+        if (world == null)
+            return false;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.get(world.getUID());
+        if (cells == null)
+            return false;
+
+        long cellKey = this.getCellKey(this.toCell(x), this.toCell(z));
+        List<Entry<T>> cell = cells.get(cellKey);
+        if (cell == null || !cell.removeIf(entry -> entry.value == value))
+            return false;
+
+        if (cell.isEmpty()) {
+            cells.remove(cellKey);
+            if (cells.isEmpty())
+                this.worlds.remove(world.getUID());
+        }
+
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Gets all values within a radius of a location
+     *
+     * @param center The center of the search
+     * @param radius The radius to search around the center
+     * @return The values within the radius, in no particular order
+     */
+    public List<T> getInRange(Location center, double radius) {
+        return this.getInRange(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius);
+    }
+
+    /**
+     * Gets all values within a radius of some coordinates
+     *
+     * @param world The world to search in
+     * @param x The x coordinate of the center
+     * @param y The y coordinate of the center
+     * @param z The z coordinate of the center
+     * @param radius The radius to search around the center
+     * @return The values within the radius, in no particular order
+     */
+    public List<T> getInRange(World world, double x, double y, double z, double radius) {
+        List<T> values = new ArrayList<>();
+        this.forEachInRange(world, x, y, z, radius, (value, valueX, valueY, valueZ) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * Visits all values within a radius of some coordinates along with the position they were indexed at
+     *
+     * @param world The world to search in
+     * @param x The x coordinate of the center
+     * @param y The y coordinate of the center
+     * @param z The z coordinate of the center
+     * @param radius The radius to search around the center
+     * @param visitor The visitor to call for each value within the radius, in no particular order
+     */
+    public void forEachInRange(World world, double x, double y, double z, double radius, Visitor<T> visitor) {
+        if (world == null || radius < 0)
+            return;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.get(world.getUID());
+        if (cells == null)
+            return;
+
+        double radiusSquared = radius * radius;
+        int minCellX = this.toCell(x - radius), maxCellX = this.toCell(x + radius);
+        int minCellZ = this.toCell(z - radius), maxCellZ = this.toCell(z + radius);
+        long queryCells = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+
+        if (queryCells > cells.size()) {
+            // Fewer occupied cells than cells in range, walk the occupied ones instead
+            for (List<Entry<T>> cell : cells.values())
+                this.visit(cell, x, y, z, radiusSquared, visitor);
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    List<Entry<T>> cell = cells.get(this.getCellKey(cellX, cellZ));
+                    if (cell != null)
+                        this.visit(cell, x, y, z, radiusSquared, visitor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if any value is within a radius of some coordinates
+     *
+     * @param world The world to search in
+     * @param x The x coordinate of the center
+     * @param y The y coordinate of the center
+     * @param z The z coordinate of the center
+     * @param radius The radius to search around the center
+     * @return true if at least one value is within the radius, otherwise false
+     */
+    public boolean isAnyInRange(World world, double x, double y, double z, double radius) {
+        if (world == null || radius < 0)
+            return false;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.get(world.getUID());
+        if (cells == null)
+            return false;
+
+        double radiusSquared = radius * radius;
+        int minCellX = this.toCell(x - radius), maxCellX = this.toCell(x + radius);
+        int minCellZ = this.toCell(z - radius), maxCellZ = this.toCell(z + radius);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<Entry<T>> cell = cells.get(this.getCellKey(cellX, cellZ));
+                if (cell == null)
+                    continue;
+
+                for (Entry<T> entry : cell) {
+                    double dx = entry.x - x, dy = entry.y - y, dz = entry.z - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared)
+                        return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Visits all values in a single cell, with the default cell size the cells line up with chunks
+     *
+     * @param world The world the cell is in
+     * @param cellX The x coordinate of the cell
+     * @param cellZ The z coordinate of the cell
+     * @param visitor The visitor to call for each value in the cell
+     */
+    public void forEachInCell(World world, int cellX, int cellZ, Visitor<T> visitor) {
+        if (world == null)
+            return;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.get(world.getUID());
+        if (cells == null)
+            return;
+
+        List<Entry<T>> cell = cells.get(this.getCellKey(cellX, cellZ));
+        if (cell != null)
+            for (Entry<T> entry : cell)
+                visitor.visit(entry.value, entry.x, entry.y, entry.z);
+    }
+
+    /**
+     * Visits all values in the occupied cells of a world that pass a filter, only cells that contain at least
+     * one value are tested against the filter
+     *
+     * @param world The world to visit the cells of
+     * @param filter The filter to test the coordinates of each occupied cell against
+     * @param visitor The visitor to call for each value in the cells that pass the filter
+     */
+    public void forEachInCells(World world, CellFilter filter, Visitor<T> visitor) {
+        if (world == null)
+            return;
+
+        Map<Long, List<Entry<T>>> cells = this.worlds.get(world.getUID());
+        if (cells == null)
+            return;
+
+        for (Map.Entry<Long, List<Entry<T>>> cell : cells.entrySet()) {
+            long cellKey = cell.getKey();
+            if (filter.test((int) (cellKey >> 32), (int) cellKey))
+                for (Entry<T> entry : cell.getValue())
+                    visitor.visit(entry.value, entry.x, entry.y, entry.z);
+        }
+    }
+
+    /**
+     * @return The number of values in the index
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if the index contains no values, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void visit(List<Entry<T>> cell, double x, double y, double z, double radiusSquared, Visitor<T> visitor) {
+        for (Entry<T> entry : cell) {
+            double dx = entry.x - x, dy = entry.y - y, dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared)
+                visitor.visit(entry.value, entry.x, entry.y, entry.z);
+        }
+    }
+
+    private int toCell(double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), this.cellSize);
+    }
+
+    private long getCellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Receives values found by a range query
+     *
+     * @param <T> The type of value stored in the index
+     */
+    @FunctionalInterface
+    public interface Visitor<T> {
+
+        /**
+         * Called for each value within range
+         *
+         * @param value The value
+         * @param x The x coordinate the value was indexed at
+         * @param y The y coordinate the value was indexed at
+         * @param z The z coordinate the value was indexed at
+         */
+        void visit(T value, double x, double y, double z);
+
+    }
+
+    /**
+     * Selects which cells of the index to visit
+     */
+    @FunctionalInterface
+    public interface CellFilter {
+
+        /**
+         * Called for each occupied cell
+         *
+         * @param cellX The x coordinate of the cell
+         * @param cellZ The z coordinate of the cell
+         * @return true if the values in the cell should be visited, otherwise false
+         */
+        boolean test(int cellX, int cellZ);
+
+    }
+
+    private static final class Entry<T> {
+
+        private final double x, y, z;
+        private final T value;
+
+        private Entry(double x, double y, double z, T value) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.value = value;
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package dev.esophose.playerparticles.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+public final class UUIDUtils {
+
+    private UUIDUtils() {
+
+    }
+
+    /**
+     * Converts a UUID to its 16 byte binary form, as stored in the database
+     *
+     * @param uuid The UUID to convert
+     * @return The UUID as 16 bytes, most significant bits first
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts a UUID from its 16 byte binary form
+     *
+     * @param bytes The bytes to convert, most significant bits first
+     * @return The UUID
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+}